@@ -73,8 +73,9 @@ CREATE TABLE `user` (
 --   - 普通任务：repeat_type=NONE, is_repeat_instance=0
 --   - 重复模板：repeat_type=DAILY/WEEKLY/MONTHLY, is_repeat_instance=0
 --     只存 1 条记录，查询时动态计算匹配日期生成虚拟任务
---   - 重复实例：is_repeat_instance=1, repeat_parent_id 指向模板
---     用户操作某天的重复任务后按需创建
+--   - 重复实例：is_repeat_instance=1, repeat_parent_id 指向模板, repeat_date 为原始重复日期
+--     用户操作某天的重复任务后按需创建；删除某天的重复任务即创建一条已删除实例作为墓碑
+--   - 重复模板不计入 task_daily_counter，展开的虚拟任务在查询时合并计数
 -- =====================================================
 
 DROP TABLE IF EXISTS `task`;
@@ -92,6 +93,13 @@ CREATE TABLE `task` (
   
   -- 完成时间
   `completed_at` DATETIME(3) DEFAULT NULL COMMENT '完成时间（UTC）',
+
+  -- 重复设置
+  `repeat_type` VARCHAR(10) NOT NULL DEFAULT 'NONE' COMMENT '重复类型：NONE/DAILY/WEEKLY/MONTHLY（非 NONE 即重复模板）',
+  `repeat_config` VARCHAR(20) DEFAULT NULL COMMENT '重复配置：WEEKLY 为星期 1-7 逗号分隔，MONTHLY 为日期 1-31',
+  `is_repeat_instance` TINYINT NOT NULL DEFAULT 0 COMMENT '是否为重复实例：0-否 1-是',
+  `repeat_parent_id` CHAR(36) DEFAULT NULL COMMENT '重复实例所属模板UUID',
+  `repeat_date` DATE DEFAULT NULL COMMENT '重复实例的原始重复日期（实例改日期后不变）',
   
   -- 公共字段
   `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（UTC）',
@@ -102,9 +110,32 @@ CREATE TABLE `task` (
   UNIQUE KEY `uk_task_id` (`task_id`),
   KEY `idx_user_date` (`user_id`, `date`, `deleted_at`),
   KEY `idx_user_status` (`user_id`, `status`, `deleted_at`),
-  KEY `idx_date_priority` (`date`, `priority`, `created_at`)
+  KEY `idx_date_priority` (`date`, `priority`, `created_at`),
+  KEY `idx_user_date_updated` (`user_id`, `date`, `updated_at`),
+  KEY `idx_user_updated` (`user_id`, `updated_at`, `task_id`),
+  KEY `idx_user_status_date_created` (`user_id`, `status`, `date`, `created_at`, `task_id`),
+  KEY `idx_user_repeat` (`user_id`, `repeat_type`, `date`),
+  KEY `idx_user_repeat_date` (`user_id`, `repeat_date`),
+  UNIQUE KEY `uk_repeat_parent_date` (`repeat_parent_id`, `repeat_date`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='任务表';
 
+-- 存量库补充索引（任务列表/统计视图 ETag 版本戳查询走覆盖索引）
+-- ALTER TABLE `task` ADD KEY `idx_user_date_updated` (`user_id`, `date`, `updated_at`);
+-- 存量库补充索引（任务增量同步按 updated_at 游标遍历）
+-- ALTER TABLE `task` ADD KEY `idx_user_updated` (`user_id`, `updated_at`, `task_id`);
+-- 存量库补充重复任务字段与索引
+-- ALTER TABLE `task`
+--   ADD COLUMN `repeat_type` VARCHAR(10) NOT NULL DEFAULT 'NONE' COMMENT '重复类型：NONE/DAILY/WEEKLY/MONTHLY（非 NONE 即重复模板）' AFTER `completed_at`,
+--   ADD COLUMN `repeat_config` VARCHAR(20) DEFAULT NULL COMMENT '重复配置：WEEKLY 为星期 1-7 逗号分隔，MONTHLY 为日期 1-31' AFTER `repeat_type`,
+--   ADD COLUMN `is_repeat_instance` TINYINT NOT NULL DEFAULT 0 COMMENT '是否为重复实例：0-否 1-是' AFTER `repeat_config`,
+--   ADD COLUMN `repeat_parent_id` CHAR(36) DEFAULT NULL COMMENT '重复实例所属模板UUID' AFTER `is_repeat_instance`,
+--   ADD COLUMN `repeat_date` DATE DEFAULT NULL COMMENT '重复实例的原始重复日期（实例改日期后不变）' AFTER `repeat_parent_id`,
+--   ADD KEY `idx_user_repeat` (`user_id`, `repeat_type`, `date`),
+--   ADD KEY `idx_user_repeat_date` (`user_id`, `repeat_date`),
+--   ADD UNIQUE KEY `uk_repeat_parent_date` (`repeat_parent_id`, `repeat_date`);
+-- 存量库补充索引（统计视图任务明细按 (date, created_at, task_id) 键集分页）
+-- ALTER TABLE `task` ADD KEY `idx_user_status_date_created` (`user_id`, `status`, `date`, `created_at`, `task_id`);
+
 
 -- =====================================================
 -- 3. 打卡记录表（check_in）
@@ -169,9 +200,13 @@ CREATE TABLE `focus_session` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_session_id` (`session_id`),
   KEY `idx_user_status` (`user_id`, `status`),
-  KEY `idx_user_counted` (`user_id`, `counted`, `counted_seconds`)
+  KEY `idx_user_counted` (`user_id`, `counted`, `counted_seconds`),
+  KEY `idx_status` (`status`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='专注会话表';
 
+-- 存量库补充索引（自动结算按 status = 'RUNNING' 与主键游标分页加载进行中会话，二级索引隐含主键）
+-- ALTER TABLE `focus_session` ADD KEY `idx_status` (`status`);
+
 -- =====================================================
 -- 5. 用户专注统计表（user_focus_stats）
 -- =====================================================
@@ -220,6 +255,7 @@ CREATE TABLE `device_session` (
   -- 登录信息
   `access_token` VARCHAR(500) NOT NULL COMMENT 'JWT访问token',
   `refresh_token` VARCHAR(500) NOT NULL COMMENT 'JWT刷新token',
+  `refresh_token_hash` CHAR(64) NOT NULL COMMENT 'refresh_token 的 SHA-256 十六进制摘要（查询键）',
   `expires_at` DATETIME(3) NOT NULL COMMENT 'access_token过期时间（UTC）',
   `refresh_expires_at` DATETIME(3) NOT NULL COMMENT 'refresh_token过期时间（UTC）',
   
@@ -238,8 +274,213 @@ CREATE TABLE `device_session` (
   
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_session_id` (`session_id`),
-  UNIQUE KEY `uk_access_token` (`access_token`(255)),
+  UNIQUE KEY `uk_refresh_token_hash` (`refresh_token_hash`),
   KEY `idx_user_status` (`user_id`, `status`),
-  KEY `idx_device` (`device_id`, `status`),
-  KEY `idx_refresh_token` (`refresh_token`(255))
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='设备登录会话表';
\ No newline at end of file
+  KEY `idx_device` (`device_id`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='设备登录会话表';
+
+-- 存量库迁移：refresh_token 查询改走定长摘要列（替换 VARCHAR(500) 前缀索引）；access_token 不再按原文查询，直接去掉其索引
+-- ALTER TABLE `device_session`
+--   ADD COLUMN `refresh_token_hash` CHAR(64) DEFAULT NULL COMMENT 'refresh_token 的 SHA-256 十六进制摘要（查询键）' AFTER `refresh_token`;
+-- UPDATE `device_session` SET `refresh_token_hash` = SHA2(`refresh_token`, 256);
+-- ALTER TABLE `device_session`
+--   MODIFY COLUMN `refresh_token_hash` CHAR(64) NOT NULL COMMENT 'refresh_token 的 SHA-256 十六进制摘要（查询键）',
+--   ADD UNIQUE KEY `uk_refresh_token_hash` (`refresh_token_hash`),
+--   DROP INDEX `uk_access_token`,
+--   DROP INDEX `idx_refresh_token`;
+-- 已执行过旧版迁移（含 access_token_hash）的库，去掉不再使用的摘要列与索引：
+-- ALTER TABLE `device_session` DROP INDEX `uk_access_token_hash`, DROP COLUMN `access_token_hash`;
+-- =====================================================
+-- 7. 任务日计数表（task_daily_counter）
+-- =====================================================
+-- 说明：按 user + date + priority + status 维护的任务数投影
+--   - 创建、完成/反完成、删除、改日期/优先级时在同一事务内原子增减
+--   - 单日任务数上限校验、统计视图图表数据直接读取本表，不再扫描 task 行
+-- =====================================================
+
+DROP TABLE IF EXISTS `task_daily_counter`;
+
+CREATE TABLE `task_daily_counter` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `user_id` CHAR(36) NOT NULL COMMENT '用户UUID',
+  `date` DATE NOT NULL COMMENT '归属日期（本地时区）',
+  `priority` VARCHAR(10) NOT NULL COMMENT '优先级：P0/P1/P2/P3',
+  `status` VARCHAR(20) NOT NULL COMMENT '状态：INCOMPLETE/COMPLETED',
+  `task_count` INT NOT NULL DEFAULT 0 COMMENT '任务数量（不含已删除）',
+
+  -- 公共字段
+  `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（UTC）',
+  `updated_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间（UTC）',
+
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_user_date_priority_status` (`user_id`, `date`, `priority`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='任务日计数表';
+
+-- 存量数据初始化（上线前执行一次；重复模板不计数，与增量维护一致）
+INSERT INTO `task_daily_counter` (`user_id`, `date`, `priority`, `status`, `task_count`)
+SELECT `user_id`, `date`, `priority`, `status`, COUNT(*)
+FROM `task`
+WHERE `deleted_at` IS NULL AND `repeat_type` = 'NONE'
+GROUP BY `user_id`, `date`, `priority`, `status`
+ON DUPLICATE KEY UPDATE `task_count` = VALUES(`task_count`);
+
+-- =====================================================
+-- 8. 任务汇总表（task_rollup）
+-- =====================================================
+-- 说明：按 user + 粒度 + 桶起始日 + priority + status 维护的任务数预聚合
+--   - WEEK：月内周段（1-7/8-14/15-21/22-28/29-月末），bucket_start 为 1/8/15/22/29 日，与统计视图月维度分组一致
+--   - 仅维护有读取路径的粒度；曾维护的 MONTH（自然月）粒度无读取方已移除，存量行可执行：
+--     DELETE FROM `task_rollup` WHERE `granularity` = 'MONTH';
+--   - 与 task_daily_counter 在同一事务内同步增减（日计数行先加锁，汇总行后加锁）
+--   - 统计视图月维度直接读取本表周段行；日粒度由 task_daily_counter 提供
+--   - 可由 task_daily_counter 重建（TaskRollupRebuildJob）
+-- =====================================================
+
+DROP TABLE IF EXISTS `task_rollup`;
+
+CREATE TABLE `task_rollup` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `user_id` CHAR(36) NOT NULL COMMENT '用户UUID',
+  `granularity` VARCHAR(10) NOT NULL COMMENT '粒度：WEEK（月内周段）',
+  `bucket_start` DATE NOT NULL COMMENT '桶起始日期',
+  `priority` VARCHAR(10) NOT NULL COMMENT '优先级：P0/P1/P2/P3',
+  `status` VARCHAR(20) NOT NULL COMMENT '状态：INCOMPLETE/COMPLETED',
+  `task_count` INT NOT NULL DEFAULT 0 COMMENT '任务数量（不含已删除、不含重复模板）',
+
+  -- 公共字段
+  `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（UTC）',
+  `updated_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间（UTC）',
+
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_user_granularity_bucket` (`user_id`, `granularity`, `bucket_start`, `priority`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='任务汇总表';
+
+-- 存量数据初始化（上线前执行一次，依赖 task_daily_counter 已初始化；也可开启 app.task.rollup.rebuild-on-startup 按用户回填）
+INSERT INTO `task_rollup` (`user_id`, `granularity`, `bucket_start`, `priority`, `status`, `task_count`)
+SELECT `user_id`, 'WEEK',
+       DATE_ADD(DATE_SUB(`date`, INTERVAL DAYOFMONTH(`date`) - 1 DAY),
+                INTERVAL LEAST(FLOOR((DAYOFMONTH(`date`) - 1) / 7), 4) * 7 DAY) AS `bucket_start`,
+       `priority`, `status`, SUM(`task_count`)
+FROM `task_daily_counter`
+GROUP BY `user_id`, `bucket_start`, `priority`, `status`
+ON DUPLICATE KEY UPDATE `task_count` = VALUES(`task_count`);
+
+-- =====================================================
+-- 9. 限流桶表（rate_limit_bucket）
+-- =====================================================
+-- 说明：app.rate-limit.store=jdbc 时多节点共享的限流计数（登录、注册、找回密码）
+--   - 每个限流键一行，以 GCRA 理论到达时间（TAT）表示令牌桶状态，加行锁读改写
+--   - tat 不晚于当前时间即桶已满，由应用按间隔批量清理
+-- =====================================================
+
+DROP TABLE IF EXISTS `rate_limit_bucket`;
+
+CREATE TABLE `rate_limit_bucket` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `limit_key` VARCHAR(191) NOT NULL COMMENT '限流键（策略名:业务键，如 login:邮箱）',
+  `tat` BIGINT NOT NULL COMMENT '理论到达时间（epoch 毫秒）',
+
+  -- 公共字段
+  `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（UTC）',
+  `updated_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间（UTC）',
+
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_limit_key` (`limit_key`),
+  KEY `idx_tat` (`tat`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='限流桶表';
+
+-- =====================================================
+-- 10. 邮件发件箱表（mail_outbox）
+-- =====================================================
+-- 说明：待发送邮件与业务数据在同一事务内写入，由 MailOutboxDispatcher 异步投递
+--   - PENDING（待发送）→ SENDING（已认领，租约至 next_attempt_at）→ SENT / FAILED
+--   - 失败按指数退避回到 PENDING，达到最大次数后 FAILED
+--   - 正文可能含明文密码，SENT / FAILED 后清空
+-- =====================================================
+
+DROP TABLE IF EXISTS `mail_outbox`;
+
+CREATE TABLE `mail_outbox` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `to_email` VARCHAR(100) NOT NULL COMMENT '收件人邮箱',
+  `subject` VARCHAR(200) NOT NULL COMMENT '邮件主题',
+  `content` TEXT NOT NULL COMMENT '邮件正文（发送完成后清空）',
+  `status` VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态：PENDING/SENDING/SENT/FAILED',
+  `attempts` INT NOT NULL DEFAULT 0 COMMENT '已投递次数',
+  `next_attempt_at` DATETIME(3) NOT NULL COMMENT '下次投递时间 / 认领租约到期时间（UTC）',
+  `claim_token` CHAR(36) DEFAULT NULL COMMENT '认领令牌',
+  `last_error` VARCHAR(500) DEFAULT NULL COMMENT '最近一次失败原因',
+  `sent_at` DATETIME(3) DEFAULT NULL COMMENT '发送成功时间（UTC）',
+
+  -- 公共字段
+  `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（UTC）',
+  `updated_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间（UTC）',
+
+  PRIMARY KEY (`id`),
+  KEY `idx_status_next_attempt` (`status`, `next_attempt_at`),
+  KEY `idx_claim_token` (`claim_token`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='邮件发件箱表';
+
+-- =====================================================
+-- 11. 专注日汇总表（focus_daily_rollup）
+-- =====================================================
+-- 说明：按 user + date + type 维护的计入专注时长投影
+--   - 结束专注、残留会话结算、服务端自动结算时在同一事务内原子累加
+--   - 日期为会话开始时间所在的本地日期，与任务/打卡的“今天”使用同一时区
+--   - 专注统计接口（周/月图表、类型分布）直接读取本表，不扫描 focus_session
+--   - 存量数据由 FocusRollupRebuildJob 回填（开启 app.focus.rollup.rebuild-on-startup 启动一次）
+-- =====================================================
+
+DROP TABLE IF EXISTS `focus_daily_rollup`;
+
+CREATE TABLE `focus_daily_rollup` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `user_id` CHAR(36) NOT NULL COMMENT '用户UUID',
+  `date` DATE NOT NULL COMMENT '归属日期（本地时区，会话开始日）',
+  `type` VARCHAR(20) NOT NULL COMMENT '专注类型：WORK/STUDY/READING/CODING/EXERCISE/MEDITATION/OTHER',
+  `focus_seconds` BIGINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '计入的专注时长（秒）',
+  `session_count` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT '计入的会话次数',
+
+  -- 公共字段
+  `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（UTC）',
+  `updated_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间（UTC）',
+
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_user_date_type` (`user_id`, `date`, `type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='专注日汇总表';
+
+-- =====================================================
+-- 12. 打卡位图表（check_in_bitmap）
+-- =====================================================
+-- 说明：按 user + word_index 存储的打卡位图，每行 64 天
+--   - word_index = FLOOR(epochDay / 64)，bits 的第 (epochDay MOD 64) 位表示当天已打卡（epochDay 为距 1970-01-01 的天数）
+--   - 打卡时在同一事务内以 bits = bits | 新位 原子合并，连续天数、最长连续天数、月历均由位运算计算
+--   - bits 按 Java long 的位模式存储为有符号 BIGINT（第 63 位为负数）
+--   - 存量数据由 CheckInBitmapRebuildJob 回填（开启 app.checkin.bitmap.rebuild-on-startup 启动一次），
+--     重建任务同时按位图逐个连续段改写 check_in.consecutive_days 快照，并修正 user 表的连续天数与最近打卡日期
+--   - 也可直接执行以下 SQL 回填位图（仅回填位图，check_in 快照与 user 表的连续天数仍需由重建任务修正）：
+-- INSERT INTO check_in_bitmap (user_id, word_index, bits)
+-- SELECT user_id, word_index, CAST(BIT_OR(1 << bit_index) AS SIGNED)
+-- FROM (SELECT user_id,
+--              FLOOR(DATEDIFF(date, '1970-01-01') / 64) AS word_index,
+--              MOD(DATEDIFF(date, '1970-01-01'), 64) AS bit_index
+--       FROM check_in) t
+-- GROUP BY user_id, word_index
+-- ON DUPLICATE KEY UPDATE bits = CAST(bits | VALUES(bits) AS SIGNED);
+-- =====================================================
+
+DROP TABLE IF EXISTS `check_in_bitmap`;
+
+CREATE TABLE `check_in_bitmap` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `user_id` CHAR(36) NOT NULL COMMENT '用户UUID',
+  `word_index` BIGINT NOT NULL COMMENT '位图字下标：FLOOR(epochDay / 64)',
+  `bits` BIGINT NOT NULL DEFAULT 0 COMMENT '64 天打卡位图，第 (epochDay MOD 64) 位为 1 表示已打卡',
+
+  -- 公共字段
+  `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（UTC）',
+  `updated_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间（UTC）',
+
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_user_word` (`user_id`, `word_index`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='打卡位图表';
@@ -0,0 +1,27 @@
+package com.gxl.plancore.checkin.application.dto;
+
+import java.util.List;
+
+/**
+ * 打卡月历结果 DTO
+ */
+public class CheckInCalendarResult {
+
+    /** 月份 YYYY-MM */
+    private final String month;
+    /** 当月已打卡的日（1 ~ 31，升序） */
+    private final List<Integer> checkedDays;
+
+    public CheckInCalendarResult(String month, List<Integer> checkedDays) {
+        this.month = month;
+        this.checkedDays = checkedDays;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public List<Integer> getCheckedDays() {
+        return checkedDays;
+    }
+}
@@ -9,10 +9,13 @@ public class CheckInStreakResult {
     private final int consecutiveDays;
     /** 最近一次打卡日期（可能为 null） */
     private final String lastCheckInDate;
+    /** 历史最长连续打卡天数 */
+    private final int longestStreak;
 
-    public CheckInStreakResult(int consecutiveDays, String lastCheckInDate) {
+    public CheckInStreakResult(int consecutiveDays, String lastCheckInDate, int longestStreak) {
         this.consecutiveDays = consecutiveDays;
         this.lastCheckInDate = lastCheckInDate;
+        this.longestStreak = longestStreak;
     }
 
     public int getConsecutiveDays() {
@@ -22,4 +25,8 @@ public class CheckInStreakResult {
     public String getLastCheckInDate() {
         return lastCheckInDate;
     }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
 }
@@ -1,6 +1,7 @@
 package com.gxl.plancore.checkin.application.service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
 import java.util.Optional;
 
@@ -9,16 +10,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.gxl.plancore.checkin.application.dto.CheckInCalendarResult;
 import com.gxl.plancore.checkin.application.dto.CheckInResult;
 import com.gxl.plancore.checkin.application.dto.CheckInStreakResult;
 import com.gxl.plancore.checkin.domain.entity.CheckIn;
 import com.gxl.plancore.checkin.domain.repository.CheckInRepository;
+import com.gxl.plancore.checkin.domain.valueobject.CheckInCalendar;
 import com.gxl.plancore.common.exception.BusinessException;
 import com.gxl.plancore.common.response.ErrorCode;
 
 /**
  * 打卡应用服务
  * 编排打卡业务流程
+ * 连续天数、最长连续天数、月历均由打卡位图计算，补打卡（任意日期）后结果自然正确
  */
 @Service
 public class CheckInApplicationService {
@@ -63,15 +67,26 @@ public class CheckInApplicationService {
             );
         }
 
-        // 3. 计算连续天数
-        int consecutiveDays = calculateConsecutiveDays(userId, date);
+        // 3. 标记打卡位图并读取打卡日历
+        checkInRepository.markCheckedIn(userId, date);
+        CheckInCalendar calendar = checkInRepository.findCalendar(userId);
 
-        // 4. 创建打卡记录
+        // 4. 连续天数：截至打卡日（含）的连续段长度，补打卡同样适用
+        int consecutiveDays = calendar.streakEndingAt(date);
+
+        // 5. 创建打卡记录
         CheckIn checkIn = CheckIn.create(userId, date, consecutiveDays);
         checkInRepository.save(checkIn);
 
-        // 5. 同步更新用户表的打卡统计（防腐层）
-        checkInRepository.updateUserStreak(userId, consecutiveDays, dateStr);
+        // 6. 补打卡接通了其后的连续段时，修正该段打卡记录的连续天数快照
+        LocalDate runEnd = calendar.runEndFrom(date);
+        if (runEnd.isAfter(date)) {
+            checkInRepository.updateConsecutiveDays(userId, date.plusDays(1), runEnd, consecutiveDays + 1);
+        }
+
+        // 7. 同步更新用户表的打卡统计（防腐层），以最近打卡日为准
+        LocalDate lastDate = calendar.lastCheckInDate();
+        checkInRepository.updateUserStreak(userId, calendar.streakEndingAt(lastDate), lastDate.toString());
 
         log.info("打卡成功: userId={}, date={}, consecutiveDays={}", userId, dateStr, consecutiveDays);
 
@@ -91,51 +106,38 @@ public class CheckInApplicationService {
     public CheckInStreakResult queryStreak(String userId) {
         log.info("查询打卡连续天数: userId={}", userId);
 
-        Optional<CheckIn> latestOpt = checkInRepository.findLatestByUserId(userId);
+        CheckInCalendar calendar = checkInRepository.findCalendar(userId);
 
         // 无打卡记录
-        if (latestOpt.isEmpty()) {
-            return new CheckInStreakResult(0, null);
+        if (calendar.isEmpty()) {
+            return new CheckInStreakResult(0, null, 0);
         }
 
-        CheckIn latest = latestOpt.get();
-        LocalDate today = LocalDate.now();
-        LocalDate lastDate = latest.getDate();
-
-        // 判断连续性是否还在
-        // 最近打卡日是今天 → 连续天数有效
-        // 最近打卡日是昨天 → 连续天数有效（今天还未打卡但未断签）
-        // 最近打卡日早于昨天 → 已断签，连续天数为 0
-        LocalDate yesterday = today.minusDays(1);
-
-        int consecutiveDays;
-        if (lastDate.equals(today) || lastDate.equals(yesterday)) {
-            consecutiveDays = latest.getConsecutiveDays();
-        } else {
-            consecutiveDays = 0;
-        }
+        // 今天已打卡 → 截至今天；今天未打卡 → 截至昨天（昨天也未打卡即已断签，为 0）
+        int consecutiveDays = calendar.currentStreak(LocalDate.now());
 
-        return new CheckInStreakResult(consecutiveDays, lastDate.toString());
+        return new CheckInStreakResult(consecutiveDays, calendar.lastCheckInDate().toString(),
+                calendar.longestStreak());
     }
 
     /**
-     * 计算本次打卡的连续天数
+     * 查询打卡月历
      *
-     * @param userId 用户ID
-     * @param date   打卡日期
-     * @return 连续天数
+     * @param userId   用户ID
+     * @param monthStr 月份 YYYY-MM
+     * @return 当月已打卡的日
      */
-    private int calculateConsecutiveDays(String userId, LocalDate date) {
-        // 查找前一天的打卡记录
-        LocalDate yesterday = date.minusDays(1);
-        Optional<CheckIn> yesterdayOpt = checkInRepository.findByUserIdAndDate(userId, yesterday.toString());
-
-        if (yesterdayOpt.isPresent()) {
-            // 前一天有打卡 → 连续天数 +1
-            return yesterdayOpt.get().getConsecutiveDays() + 1;
+    public CheckInCalendarResult queryCalendar(String userId, String monthStr) {
+        log.info("查询打卡月历: userId={}, month={}", userId, monthStr);
+
+        YearMonth month;
+        try {
+            month = YearMonth.parse(monthStr);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "月份格式必须为 YYYY-MM");
         }
 
-        // 前一天无打卡 → 从 1 开始
-        return 1;
+        CheckInCalendar calendar = checkInRepository.findCalendar(userId);
+        return new CheckInCalendarResult(month.toString(), calendar.checkedDaysOf(month));
     }
 }
@@ -1,8 +1,10 @@
 package com.gxl.plancore.checkin.domain.repository;
 
+import java.time.LocalDate;
 import java.util.Optional;
 
 import com.gxl.plancore.checkin.domain.entity.CheckIn;
+import com.gxl.plancore.checkin.domain.valueobject.CheckInCalendar;
 
 /**
  * 打卡仓储接口
@@ -34,6 +36,32 @@ public interface CheckInRepository {
      */
     Optional<CheckIn> findLatestByUserId(String userId);
 
+    /**
+     * 在打卡位图中标记某天已打卡（原子按位或）
+     *
+     * @param userId 用户ID
+     * @param date   打卡日期
+     */
+    void markCheckedIn(String userId, LocalDate date);
+
+    /**
+     * 查询用户打卡日历（位图）
+     *
+     * @param userId 用户ID
+     * @return 打卡日历，无打卡时为空日历
+     */
+    CheckInCalendar findCalendar(String userId);
+
+    /**
+     * 修正日期区间内打卡记录的连续天数快照（startDate 为 startDays，此后逐日递增）
+     *
+     * @param userId    用户ID
+     * @param startDate 起始日期
+     * @param endDate   结束日期（含）
+     * @param startDays 起始日期的连续天数
+     */
+    void updateConsecutiveDays(String userId, LocalDate startDate, LocalDate endDate, int startDays);
+
     /**
      * 更新用户表的打卡连续天数和最近打卡日期
      * （防腐层：仅更新 user 表的 consecutive_days 和 last_check_in_date）
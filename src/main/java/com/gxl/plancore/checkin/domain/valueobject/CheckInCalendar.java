@@ -0,0 +1,204 @@
+package com.gxl.plancore.checkin.domain.valueobject;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * 打卡日历值对象（位图）
+ * 以 epochDay 为下标，每 64 天一个 long：第 floorDiv(epochDay, 64) 个字的第 floorMod(epochDay, 64) 位表示当天已打卡
+ * 连续天数、最长连续天数、月历均通过位运算计算，不依赖 check_in 的连续天数快照，补打卡后自然正确
+ */
+public final class CheckInCalendar {
+
+    private static final CheckInCalendar EMPTY = new CheckInCalendar(0, new long[0]);
+
+    /** words[0] 对应的字下标 */
+    private final long firstWord;
+    /** 从 firstWord 起连续的位图字，中间无打卡的字为 0 */
+    private final long[] words;
+
+    private CheckInCalendar(long firstWord, long[] words) {
+        this.firstWord = firstWord;
+        this.words = words;
+    }
+
+    public static CheckInCalendar empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由 字下标 -> 位图 构造
+     */
+    public static CheckInCalendar of(SortedMap<Long, Long> bitsByWord) {
+        if (bitsByWord.isEmpty()) {
+            return EMPTY;
+        }
+        long first = bitsByWord.firstKey();
+        long[] words = new long[(int) (bitsByWord.lastKey() - first + 1)];
+        for (Map.Entry<Long, Long> entry : bitsByWord.entrySet()) {
+            words[(int) (entry.getKey() - first)] = entry.getValue();
+        }
+        return new CheckInCalendar(first, words);
+    }
+
+    /**
+     * 日期所在的字下标
+     */
+    public static long wordIndexOf(LocalDate date) {
+        return Math.floorDiv(date.toEpochDay(), 64);
+    }
+
+    /**
+     * 日期在所在字中的位掩码
+     */
+    public static long bitOf(LocalDate date) {
+        return 1L << Math.floorMod(date.toEpochDay(), 64);
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public boolean isCheckedIn(LocalDate date) {
+        return (word(wordIndexOf(date)) & bitOf(date)) != 0;
+    }
+
+    /**
+     * 最近一次打卡日期（最高置位）
+     *
+     * @return 无打卡时返回 null
+     */
+    public LocalDate lastCheckInDate() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                long day = (firstWord + i) * 64 + 63 - Long.numberOfLeadingZeros(words[i]);
+                return LocalDate.ofEpochDay(day);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 截至某天（含）的连续打卡天数，当天未打卡返回 0
+     * 按字向前扫描：取 [0, b] 位的空缺，最高空缺位之上即为连续段；整字打满则继续前一个字
+     */
+    public int streakEndingAt(LocalDate date) {
+        long day = date.toEpochDay();
+        long w = Math.floorDiv(day, 64);
+        int b = Math.floorMod(day, 64);
+        int streak = 0;
+        while (true) {
+            long gaps = ~word(w) & lowMask(b + 1);
+            if (gaps != 0) {
+                return streak + b - (63 - Long.numberOfLeadingZeros(gaps));
+            }
+            streak += b + 1;
+            w--;
+            b = 63;
+        }
+    }
+
+    /**
+     * 从某天（含）起向后连续打卡的最后一天
+     *
+     * @return 当天未打卡返回 null
+     */
+    public LocalDate runEndFrom(LocalDate date) {
+        long day = date.toEpochDay();
+        long w = Math.floorDiv(day, 64);
+        int b = Math.floorMod(day, 64);
+        while (true) {
+            long gaps = ~word(w) & (-1L << b);
+            if (gaps != 0) {
+                long endDay = w * 64 + Long.numberOfTrailingZeros(gaps) - 1;
+                return endDay < day ? null : LocalDate.ofEpochDay(endDay);
+            }
+            w++;
+            b = 0;
+        }
+    }
+
+    /**
+     * 当前连续打卡天数
+     * 今天已打卡 → 截至今天；今天未打卡 → 截至昨天（昨天也未打卡即已断签，为 0）
+     */
+    public int currentStreak(LocalDate today) {
+        if (isCheckedIn(today)) {
+            return streakEndingAt(today);
+        }
+        return streakEndingAt(today.minusDays(1));
+    }
+
+    /**
+     * 历史最长连续打卡天数
+     * 逐字计算：低位连续段与上一字的高位连续段拼接，字内最长段用 x &= x << 1 迭代求得
+     */
+    public int longestStreak() {
+        int longest = 0;
+        int carry = 0;
+        for (long bits : words) {
+            if (bits == -1L) {
+                carry += 64;
+                continue;
+            }
+            longest = Math.max(longest, carry + Long.numberOfTrailingZeros(~bits));
+            longest = Math.max(longest, longestRun(bits));
+            carry = Long.numberOfLeadingZeros(~bits);
+        }
+        return Math.max(longest, carry);
+    }
+
+    /**
+     * 某月的打卡位图：第 i 位表示该月第 i + 1 天已打卡
+     * 一个月最多跨两个字，移位拼接后截取月长
+     */
+    public int monthMask(YearMonth month) {
+        long startDay = month.atDay(1).toEpochDay();
+        int length = month.lengthOfMonth();
+        long w = Math.floorDiv(startDay, 64);
+        int b = Math.floorMod(startDay, 64);
+        long bits = word(w) >>> b;
+        if (b + length > 64) {
+            bits |= word(w + 1) << (64 - b);
+        }
+        return (int) (bits & lowMask(length));
+    }
+
+    /**
+     * 某月已打卡的日（1 ~ 31，升序）
+     */
+    public List<Integer> checkedDaysOf(YearMonth month) {
+        int mask = monthMask(month);
+        List<Integer> days = new ArrayList<>(Integer.bitCount(mask));
+        while (mask != 0) {
+            days.add(Integer.numberOfTrailingZeros(mask) + 1);
+            mask &= mask - 1;
+        }
+        return days;
+    }
+
+    private long word(long index) {
+        long i = index - firstWord;
+        if (i < 0 || i >= words.length) {
+            return 0;
+        }
+        return words[(int) i];
+    }
+
+    private static long lowMask(int bits) {
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    private static int longestRun(long bits) {
+        int run = 0;
+        while (bits != 0) {
+            bits &= bits << 1;
+            run++;
+        }
+        return run;
+    }
+}
@@ -0,0 +1,131 @@
+package com.gxl.plancore.checkin.infrastructure.job;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gxl.plancore.checkin.domain.valueobject.CheckInCalendar;
+import com.gxl.plancore.checkin.infrastructure.persistence.converter.CheckInBitmapConverter;
+import com.gxl.plancore.checkin.infrastructure.persistence.mapper.CheckInBitmapMapper;
+import com.gxl.plancore.checkin.infrastructure.persistence.mapper.CheckInMapper;
+import com.gxl.plancore.checkin.infrastructure.persistence.po.CheckInBitmapPO;
+
+/**
+ * check_in_bitmap 打卡位图重建任务
+ * 以 check_in 为数据源，按用户逐个删除并重建位图，每个用户一个独立事务
+ *   - 存量数据回填：上线时开启 app.checkin.bitmap.rebuild-on-startup，应用启动后在后台线程执行一次
+ *   - 数据修复：位图与打卡记录不一致时可调用 rebuildUser 单独重建
+ * 重建同时按位图修正 check_in 每条记录的连续天数快照，以及 user 表的连续打卡天数与最近打卡日期
+ * （历史补打卡导致的快照错误随之修复）
+ * 【假设】PRD 未指定定时任务框架，使用启动时一次性执行，回填完成后关闭开关
+ */
+@Component
+public class CheckInBitmapRebuildJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckInBitmapRebuildJob.class);
+
+    private final CheckInBitmapMapper checkInBitmapMapper;
+    private final CheckInMapper checkInMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final int batchSize;
+
+    public CheckInBitmapRebuildJob(
+            CheckInBitmapMapper checkInBitmapMapper,
+            CheckInMapper checkInMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.checkin.bitmap.rebuild-on-startup:false}") boolean rebuildOnStartup,
+            @Value("${app.checkin.bitmap.rebuild-batch-size:200}") int batchSize) {
+        this.checkInBitmapMapper = checkInBitmapMapper;
+        this.checkInMapper = checkInMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                rebuildAll();
+            }
+        }, "checkin-bitmap-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 重建全部用户的打卡位图（按 user_id 分批遍历）
+     *
+     * @return 重建的用户数
+     */
+    public int rebuildAll() {
+        log.info("开始重建打卡位图: batchSize={}", batchSize);
+        long startMillis = System.currentTimeMillis();
+        int userCount = 0;
+        String afterUserId = null;
+        while (true) {
+            List<String> userIds = checkInBitmapMapper.selectCheckInUserIds(afterUserId, batchSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            for (String userId : userIds) {
+                try {
+                    rebuildUser(userId);
+                    userCount++;
+                } catch (RuntimeException e) {
+                    log.error("重建打卡位图失败: userId={}", userId, e);
+                }
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+        }
+        log.info("重建打卡位图完成: userCount={}, costMillis={}", userCount, System.currentTimeMillis() - startMillis);
+        return userCount;
+    }
+
+    /**
+     * 重建单个用户的打卡位图（删除后由打卡日期重新置位，同一事务内完成）
+     * 按重建后的位图逐个连续段改写 check_in 的连续天数快照：段首为 1，此后每天递增 1
+     */
+    public void rebuildUser(final String userId) {
+        transactionTemplate.executeWithoutResult(new Consumer<TransactionStatus>() {
+            @Override
+            public void accept(TransactionStatus status) {
+                checkInBitmapMapper.deleteByUserId(userId);
+                List<LocalDate> dates = checkInBitmapMapper.selectCheckInDatesByUserId(userId);
+                if (dates.isEmpty()) {
+                    return;
+                }
+                List<CheckInBitmapPO> rows = CheckInBitmapConverter.toPOList(userId, dates);
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    checkInBitmapMapper.mergeBatch(rows.subList(from, Math.min(from + batchSize, rows.size())));
+                }
+                CheckInCalendar calendar = CheckInBitmapConverter.toCalendar(rows);
+                LocalDate runEnd = null;
+                for (LocalDate date : dates) {
+                    if (runEnd != null && !date.isAfter(runEnd)) {
+                        continue;
+                    }
+                    runEnd = calendar.runEndFrom(date);
+                    checkInMapper.updateConsecutiveDaysInRange(userId, date.toString(), runEnd.toString(), 1);
+                }
+                LocalDate lastDate = calendar.lastCheckInDate();
+                checkInMapper.updateUserStreak(userId, calendar.streakEndingAt(lastDate), lastDate.toString());
+            }
+        });
+    }
+}
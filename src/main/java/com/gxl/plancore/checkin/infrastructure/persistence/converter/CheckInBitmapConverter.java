@@ -0,0 +1,52 @@
+package com.gxl.plancore.checkin.infrastructure.persistence.converter;
+
+import com.gxl.plancore.checkin.domain.valueobject.CheckInCalendar;
+import com.gxl.plancore.checkin.infrastructure.persistence.po.CheckInBitmapPO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 打卡位图 PO/值对象转换器
+ */
+public class CheckInBitmapConverter {
+
+    private CheckInBitmapConverter() {
+    }
+
+    /**
+     * 位图行转打卡日历
+     */
+    public static CheckInCalendar toCalendar(List<CheckInBitmapPO> poList) {
+        TreeMap<Long, Long> bitsByWord = new TreeMap<>();
+        for (CheckInBitmapPO po : poList) {
+            bitsByWord.put(po.getWordIndex(), po.getBits());
+        }
+        return CheckInCalendar.of(bitsByWord);
+    }
+
+    /**
+     * 打卡日期按字归并为位图行（按 word_index 升序）
+     */
+    public static List<CheckInBitmapPO> toPOList(String userId, Collection<LocalDate> dates) {
+        TreeMap<Long, Long> bitsByWord = new TreeMap<>();
+        for (LocalDate date : dates) {
+            Long wordIndex = CheckInCalendar.wordIndexOf(date);
+            Long bits = bitsByWord.get(wordIndex);
+            bitsByWord.put(wordIndex, (bits != null ? bits : 0L) | CheckInCalendar.bitOf(date));
+        }
+        List<CheckInBitmapPO> result = new ArrayList<>(bitsByWord.size());
+        for (Map.Entry<Long, Long> entry : bitsByWord.entrySet()) {
+            CheckInBitmapPO po = new CheckInBitmapPO();
+            po.setUserId(userId);
+            po.setWordIndex(entry.getKey());
+            po.setBits(entry.getValue());
+            result.add(po);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.gxl.plancore.checkin.infrastructure.persistence.mapper;
+
+import com.gxl.plancore.checkin.infrastructure.persistence.po.CheckInBitmapPO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 打卡位图 MyBatis Mapper
+ * 对应 check_in_bitmap 表（按 user + word_index 存储的打卡位图）
+ */
+@Mapper
+public interface CheckInBitmapMapper {
+
+    /**
+     * 批量按位或合并（多行 upsert）
+     * MySQL 位运算结果为无符号 64 位，CAST 回有符号与 Java long 的位模式一致
+     * 调用方需按 word_index 排序传入，保证并发事务的加锁顺序一致
+     */
+    @Insert({"<script>",
+            "INSERT INTO check_in_bitmap (user_id, word_index, bits) VALUES ",
+            "<foreach collection='list' item='r' separator=','>",
+            "(#{r.userId}, #{r.wordIndex}, #{r.bits})",
+            "</foreach>",
+            " ON DUPLICATE KEY UPDATE bits = CAST(bits | VALUES(bits) AS SIGNED)",
+            "</script>"})
+    int mergeBatch(@Param("list") List<CheckInBitmapPO> list);
+
+    /**
+     * 查询用户全部位图（每行 64 天，一年约 6 行）
+     */
+    @Select("SELECT word_index, bits FROM check_in_bitmap WHERE user_id = #{userId} ORDER BY word_index")
+    List<CheckInBitmapPO> selectByUserId(@Param("userId") String userId);
+
+    /**
+     * 删除用户全部位图（重建前调用）
+     */
+    @Delete("DELETE FROM check_in_bitmap WHERE user_id = #{userId}")
+    int deleteByUserId(@Param("userId") String userId);
+
+    /**
+     * 按 user_id 游标分页查询有打卡记录的用户（重建遍历用）
+     */
+    @Select("<script>SELECT DISTINCT user_id FROM check_in " +
+            "<if test='afterUserId != null'>WHERE user_id &gt; #{afterUserId} </if>" +
+            "ORDER BY user_id LIMIT #{limit}</script>")
+    List<String> selectCheckInUserIds(@Param("afterUserId") String afterUserId, @Param("limit") int limit);
+
+    /**
+     * 查询用户全部打卡日期（重建用，走 uk_user_date 覆盖索引，按日期升序）
+     */
+    @Select("SELECT date FROM check_in WHERE user_id = #{userId} ORDER BY date")
+    List<LocalDate> selectCheckInDatesByUserId(@Param("userId") String userId);
+}
@@ -36,6 +36,16 @@ public interface CheckInMapper {
             "WHERE user_id = #{userId} ORDER BY date DESC LIMIT 1")
     CheckInPO findLatestByUserId(@Param("userId") String userId);
 
+    /**
+     * 补打卡后修正其后连续段的快照：startDate 当天为 startDays，此后每天递增 1
+     */
+    @Update("UPDATE check_in SET consecutive_days = #{startDays} + DATEDIFF(date, #{startDate}) " +
+            "WHERE user_id = #{userId} AND date >= #{startDate} AND date <= #{endDate}")
+    int updateConsecutiveDaysInRange(@Param("userId") String userId,
+                                     @Param("startDate") String startDate,
+                                     @Param("endDate") String endDate,
+                                     @Param("startDays") int startDays);
+
     /**
      * 更新用户表的连续打卡天数和最近打卡日期
      * （防腐层适配：打卡上下文同步更新 user 表的打卡统计字段）
@@ -0,0 +1,36 @@
+package com.gxl.plancore.checkin.infrastructure.persistence.po;
+
+/**
+ * 打卡位图持久化对象
+ * 对应数据库 check_in_bitmap 表（每行 64 天）
+ */
+public class CheckInBitmapPO {
+
+    private String userId;
+    private Long wordIndex;
+    private Long bits;
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Long getWordIndex() {
+        return wordIndex;
+    }
+
+    public void setWordIndex(Long wordIndex) {
+        this.wordIndex = wordIndex;
+    }
+
+    public Long getBits() {
+        return bits;
+    }
+
+    public void setBits(Long bits) {
+        this.bits = bits;
+    }
+}
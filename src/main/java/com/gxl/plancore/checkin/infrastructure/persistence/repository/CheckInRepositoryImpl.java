@@ -1,12 +1,17 @@
 package com.gxl.plancore.checkin.infrastructure.persistence.repository;
 
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Optional;
 
 import org.springframework.stereotype.Repository;
 
 import com.gxl.plancore.checkin.domain.entity.CheckIn;
 import com.gxl.plancore.checkin.domain.repository.CheckInRepository;
+import com.gxl.plancore.checkin.domain.valueobject.CheckInCalendar;
+import com.gxl.plancore.checkin.infrastructure.persistence.converter.CheckInBitmapConverter;
 import com.gxl.plancore.checkin.infrastructure.persistence.converter.CheckInConverter;
+import com.gxl.plancore.checkin.infrastructure.persistence.mapper.CheckInBitmapMapper;
 import com.gxl.plancore.checkin.infrastructure.persistence.mapper.CheckInMapper;
 import com.gxl.plancore.checkin.infrastructure.persistence.po.CheckInPO;
 
@@ -17,9 +22,11 @@ import com.gxl.plancore.checkin.infrastructure.persistence.po.CheckInPO;
 public class CheckInRepositoryImpl implements CheckInRepository {
 
     private final CheckInMapper checkInMapper;
+    private final CheckInBitmapMapper checkInBitmapMapper;
 
-    public CheckInRepositoryImpl(CheckInMapper checkInMapper) {
+    public CheckInRepositoryImpl(CheckInMapper checkInMapper, CheckInBitmapMapper checkInBitmapMapper) {
         this.checkInMapper = checkInMapper;
+        this.checkInBitmapMapper = checkInBitmapMapper;
     }
 
     @Override
@@ -40,6 +47,21 @@ public class CheckInRepositoryImpl implements CheckInRepository {
         return Optional.ofNullable(CheckInConverter.toDomain(po));
     }
 
+    @Override
+    public void markCheckedIn(String userId, LocalDate date) {
+        checkInBitmapMapper.mergeBatch(CheckInBitmapConverter.toPOList(userId, Collections.singletonList(date)));
+    }
+
+    @Override
+    public CheckInCalendar findCalendar(String userId) {
+        return CheckInBitmapConverter.toCalendar(checkInBitmapMapper.selectByUserId(userId));
+    }
+
+    @Override
+    public void updateConsecutiveDays(String userId, LocalDate startDate, LocalDate endDate, int startDays) {
+        checkInMapper.updateConsecutiveDaysInRange(userId, startDate.toString(), endDate.toString(), startDays);
+    }
+
     @Override
     public void updateUserStreak(String userId, int consecutiveDays, String lastCheckInDate) {
         checkInMapper.updateUserStreak(userId, consecutiveDays, lastCheckInDate);
@@ -8,11 +8,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.gxl.plancore.checkin.application.dto.CheckInCalendarResult;
 import com.gxl.plancore.checkin.application.dto.CheckInResult;
 import com.gxl.plancore.checkin.application.dto.CheckInStreakResult;
 import com.gxl.plancore.checkin.application.service.CheckInApplicationService;
+import com.gxl.plancore.checkin.interfaces.dto.CheckInCalendarResponse;
 import com.gxl.plancore.checkin.interfaces.dto.CheckInRequest;
 import com.gxl.plancore.checkin.interfaces.dto.CheckInResponse;
 import com.gxl.plancore.checkin.interfaces.dto.CheckInStreakResponse;
@@ -74,7 +77,31 @@ public class CheckInController {
 
         CheckInStreakResponse response = new CheckInStreakResponse(
                 result.getConsecutiveDays(),
-                result.getLastCheckInDate()
+                result.getLastCheckInDate(),
+                result.getLongestStreak()
+        );
+
+        return ApiResponse.success(response);
+    }
+
+    /**
+     * 查询打卡月历
+     * GET /api/v1/check-in/calendar?month=2026-02
+     */
+    @GetMapping("/calendar")
+    public ApiResponse<CheckInCalendarResponse> queryCalendar(
+            HttpServletRequest httpRequest,
+            @RequestParam("month") String month) {
+        String userId = (String) httpRequest.getAttribute("userId");
+
+        log.info("收到查询打卡月历请求: userId={}, month={}", userId, month);
+
+        CheckInCalendarResult result = checkInApplicationService.queryCalendar(userId, month);
+
+        CheckInCalendarResponse response = new CheckInCalendarResponse(
+                result.getMonth(),
+                result.getCheckedDays(),
+                result.getCheckedDays().size()
         );
 
         return ApiResponse.success(response);
@@ -0,0 +1,49 @@
+package com.gxl.plancore.checkin.interfaces.dto;
+
+import java.util.List;
+
+/**
+ * 打卡月历响应 DTO
+ */
+public class CheckInCalendarResponse {
+
+    /** 月份 YYYY-MM */
+    private String month;
+    /** 当月已打卡的日（1 ~ 31，升序） */
+    private List<Integer> checkedDays;
+    /** 当月打卡天数 */
+    private int checkedCount;
+
+    public CheckInCalendarResponse() {
+    }
+
+    public CheckInCalendarResponse(String month, List<Integer> checkedDays, int checkedCount) {
+        this.month = month;
+        this.checkedDays = checkedDays;
+        this.checkedCount = checkedCount;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public List<Integer> getCheckedDays() {
+        return checkedDays;
+    }
+
+    public void setCheckedDays(List<Integer> checkedDays) {
+        this.checkedDays = checkedDays;
+    }
+
+    public int getCheckedCount() {
+        return checkedCount;
+    }
+
+    public void setCheckedCount(int checkedCount) {
+        this.checkedCount = checkedCount;
+    }
+}
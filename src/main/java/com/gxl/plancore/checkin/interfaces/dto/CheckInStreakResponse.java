@@ -7,13 +7,15 @@ public class CheckInStreakResponse {
 
     private int consecutiveDays;
     private String lastCheckInDate;
+    private int longestStreak;
 
     public CheckInStreakResponse() {
     }
 
-    public CheckInStreakResponse(int consecutiveDays, String lastCheckInDate) {
+    public CheckInStreakResponse(int consecutiveDays, String lastCheckInDate, int longestStreak) {
         this.consecutiveDays = consecutiveDays;
         this.lastCheckInDate = lastCheckInDate;
+        this.longestStreak = longestStreak;
     }
 
     public int getConsecutiveDays() {
@@ -31,4 +33,12 @@ public class CheckInStreakResponse {
     public void setLastCheckInDate(String lastCheckInDate) {
         this.lastCheckInDate = lastCheckInDate;
     }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
 }
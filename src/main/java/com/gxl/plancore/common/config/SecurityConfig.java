@@ -1,9 +1,10 @@
 package com.gxl.plancore.common.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.gxl.plancore.common.security.BoundedPasswordEncoder;
 
 /**
  * 安全配置
@@ -13,10 +14,16 @@ public class SecurityConfig {
     
     /**
      * 密码编码器
-     * 使用 BCrypt 加密算法
+     * 使用 BCrypt 加密算法，计算在专用有界线程池中执行（线程数为 0 时取 CPU 核数的一半，至少 1）
+     * 声明为具体类型，按 PasswordEncoder 注入的同时可作为运行指标来源被收集
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.security.bcrypt.strength:10}") int strength,
+            @Value("${app.security.password-hash.threads:0}") int threads,
+            @Value("${app.security.password-hash.queue-capacity:100}") int queueCapacity,
+            @Value("${app.security.password-hash.timeout-millis:5000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, timeoutMillis);
     }
 }
@@ -12,6 +12,8 @@ import com.gxl.plancore.common.exception.BusinessException;
 import com.gxl.plancore.common.response.ApiResponse;
 import com.gxl.plancore.common.response.ErrorCode;
 import com.gxl.plancore.user.application.service.AuthService;
+import com.gxl.plancore.user.infrastructure.cache.SessionActivityBuffer;
+import com.gxl.plancore.user.infrastructure.cache.SessionRevocationList;
 
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,7 +21,8 @@ import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * 认证拦截器
- * 对非白名单请求验证 accessToken 的有效性
+ * 对非白名单请求验证 accessToken 的有效性，并拒绝已退出/被踢下线会话的 accessToken（查进程内吊销列表），
+ * 通过校验的请求在内存中记录会话活跃时间，由写缓冲异步合并写回
  *
  * @author gxl
  */
@@ -30,9 +33,14 @@ public class AuthInterceptor implements HandlerInterceptor {
     private static final String BEARER_PREFIX = "Bearer ";
 
     private final AuthService authService;
+    private final SessionRevocationList sessionRevocationList;
+    private final SessionActivityBuffer sessionActivityBuffer;
 
-    public AuthInterceptor(AuthService authService) {
+    public AuthInterceptor(AuthService authService, SessionRevocationList sessionRevocationList,
+            SessionActivityBuffer sessionActivityBuffer) {
         this.authService = authService;
+        this.sessionRevocationList = sessionRevocationList;
+        this.sessionActivityBuffer = sessionActivityBuffer;
     }
 
     @Override
@@ -48,9 +56,16 @@ public class AuthInterceptor implements HandlerInterceptor {
         String token = authHeader.substring(BEARER_PREFIX.length());
         try {
             Claims claims = authService.validateAccessToken(token);
+            String sessionId = claims.get("sessionId", String.class);
+            if (sessionRevocationList.isRevoked(sessionId)) {
+                log.warn("accessToken所属会话已退出, sessionId={}, uri={}", sessionId, request.getRequestURI());
+                writeUnauthorizedResponse(response);
+                return false;
+            }
+            sessionActivityBuffer.record(sessionId);
             // 将用户信息放入请求属性，供下游使用
             request.setAttribute("userId", claims.getSubject());
-            request.setAttribute("sessionId", claims.get("sessionId", String.class));
+            request.setAttribute("sessionId", sessionId);
             request.setAttribute("deviceId", claims.get("deviceId", String.class));
             return true;
         } catch (BusinessException e) {
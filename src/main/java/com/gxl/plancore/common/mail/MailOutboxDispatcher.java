@@ -0,0 +1,273 @@
+package com.gxl.plancore.common.mail;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import com.gxl.plancore.common.metrics.MetricsSource;
+
+/**
+ * 邮件发件箱投递器
+ * 从 mail_outbox 认领到期邮件，在有界线程池中投递：
+ *   - 认领：UPDATE ... LIMIT 以认领令牌批量认领并设置租约，多节点不会重复投递；租约过期的邮件会被重新认领
+ *   - 续租：投递中的批次每次轮询续租一次，整批发送耗时超过一个租约也不会被其他节点重复认领；
+ *     节点宕机后停止续租，租约到期后由其他节点重新投递（单封发送耗时由 SMTP 超时配置限定）
+ *   - 批量：一批邮件共用一个 SMTP 连接发送（JavaMailSender 批量发送）
+ *   - 重试：失败按指数退避重新排队，达到最大次数后标记 FAILED
+ *   - 触发：定时轮询；事务提交后由 {@link #wakeUp()} 立即触发一次
+ *   - 指标：累计发送成功、重试、最终失败数，投递中批次数与待投递积压数，经 {@link MetricsSource} 定期输出
+ * 【假设】PRD 未指定消息队列，使用数据库发件箱 + 进程内线程池
+ */
+@Component
+public class MailOutboxDispatcher implements ApplicationRunner, DisposableBean, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailOutboxMapper mailOutboxMapper;
+    private final JavaMailSender mailSender;
+    private final String fromEmail;
+    private final int workerThreads;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollIntervalSeconds;
+    private final int leaseSeconds;
+    private final long retryBaseSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** 本节点投递中批次的认领令牌，轮询时续租 */
+    private final Set<String> inFlightTokens = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private ScheduledExecutorService poller;
+    private ThreadPoolExecutor workers;
+
+    public MailOutboxDispatcher(
+            MailOutboxMapper mailOutboxMapper,
+            JavaMailSender mailSender,
+            @Value("${spring.mail.username}") String fromEmail,
+            @Value("${app.mail.outbox.worker-threads:2}") int workerThreads,
+            @Value("${app.mail.outbox.batch-size:20}") int batchSize,
+            @Value("${app.mail.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${app.mail.outbox.poll-interval-seconds:5}") long pollIntervalSeconds,
+            @Value("${app.mail.outbox.lease-seconds:120}") int leaseSeconds,
+            @Value("${app.mail.outbox.retry-base-seconds:30}") long retryBaseSeconds) {
+        this.mailOutboxMapper = mailOutboxMapper;
+        this.mailSender = mailSender;
+        this.fromEmail = fromEmail;
+        this.workerThreads = workerThreads;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollIntervalSeconds = pollIntervalSeconds;
+        this.leaseSeconds = leaseSeconds;
+        this.retryBaseSeconds = retryBaseSeconds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        poller = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("mail-outbox-poller"));
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(workerThreads), daemonThreadFactory("mail-outbox-worker"));
+        poller.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                poll();
+            }
+        }, pollIntervalSeconds, pollIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (poller != null) {
+            poller.shutdown();
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * 立即触发一次轮询（新邮件入队的事务提交后调用）
+     */
+    public void wakeUp() {
+        if (poller == null) {
+            return;
+        }
+        try {
+            poller.execute(new Runnable() {
+                @Override
+                public void run() {
+                    poll();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.debug("触发邮件投递失败，等待定时轮询: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "mailOutbox";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sent", sentCount.get());
+        metrics.put("retry", retryCount.get());
+        metrics.put("failed", failedCount.get());
+        metrics.put("inFlightBatches", inFlight.get());
+        metrics.put("backlog", mailOutboxMapper.countBacklog());
+        return metrics;
+    }
+
+    /**
+     * 续租投递中的批次，再为每个空闲工作线程认领一批邮件并提交投递（仅在轮询线程执行）
+     */
+    private void poll() {
+        try {
+            renewLeases();
+            while (inFlight.get() < workerThreads) {
+                String claimToken = UUID.randomUUID().toString();
+                if (mailOutboxMapper.claim(claimToken, leaseSeconds, batchSize) == 0) {
+                    return;
+                }
+                final List<MailOutboxPO> batch = mailOutboxMapper.selectByClaimToken(claimToken);
+                final String token = claimToken;
+                inFlight.incrementAndGet();
+                inFlightTokens.add(token);
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            deliver(batch, token);
+                        } finally {
+                            inFlightTokens.remove(token);
+                            inFlight.decrementAndGet();
+                        }
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            log.warn("邮件发件箱轮询失败", e);
+        }
+    }
+
+    private void renewLeases() {
+        for (String claimToken : inFlightTokens) {
+            try {
+                mailOutboxMapper.renewLease(claimToken, leaseSeconds);
+            } catch (RuntimeException e) {
+                log.warn("邮件发件箱续租失败: claimToken={}", claimToken, e);
+            }
+        }
+    }
+
+    /**
+     * 以一个 SMTP 连接投递一批邮件，逐封记录结果
+     */
+    private void deliver(List<MailOutboxPO> batch, String claimToken) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            MailOutboxPO po = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(po.getToEmail());
+            message.setSubject(po.getSubject());
+            message.setText(po.getContent());
+            messages[i] = message;
+        }
+
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                markAll(messages, failures, e);
+            }
+        } catch (MailException e) {
+            markAll(messages, failures, e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            MailOutboxPO po = batch.get(i);
+            Exception failure = failures.get(messages[i]);
+            if (failure == null) {
+                mailOutboxMapper.markSent(po.getId(), claimToken);
+                sentCount.incrementAndGet();
+                log.info("邮件发送成功: id={}, toEmail={}", po.getId(), po.getToEmail());
+                continue;
+            }
+            int attempts = po.getAttempts() + 1;
+            String error = truncate(failure.getMessage());
+            if (attempts >= maxAttempts) {
+                mailOutboxMapper.markFailed(po.getId(), claimToken, error);
+                failedCount.incrementAndGet();
+                log.error("邮件发送最终失败: id={}, toEmail={}, attempts={}, error={}",
+                        po.getId(), po.getToEmail(), attempts, error);
+            } else {
+                long delaySeconds = retryBaseSeconds << Math.min(attempts - 1, 10);
+                mailOutboxMapper.markRetry(po.getId(), claimToken, delaySeconds, error);
+                retryCount.incrementAndGet();
+                log.warn("邮件发送失败，{}秒后重试: id={}, toEmail={}, attempts={}, error={}",
+                        delaySeconds, po.getId(), po.getToEmail(), attempts, error);
+            }
+        }
+    }
+
+    private void markAll(SimpleMailMessage[] messages, Map<Object, Exception> failures, Exception e) {
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, e);
+        }
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String prefix) {
+        final AtomicInteger index = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + "-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.gxl.plancore.common.mail;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 邮件发件箱 MyBatis Mapper
+ * 时间统一取数据库 UTC_TIMESTAMP(3)，多节点间无需对时
+ */
+@Mapper
+public interface MailOutboxMapper {
+
+    @Insert("INSERT INTO mail_outbox (to_email, subject, content, status, attempts, next_attempt_at) " +
+            "VALUES (#{toEmail}, #{subject}, #{content}, 'PENDING', 0, UTC_TIMESTAMP(3))")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insert(MailOutboxPO po);
+
+    /**
+     * 认领一批到期邮件：待发送的，以及租约已过期的发送中邮件（投递节点宕机）
+     * 认领后租约期内其他节点不会重复认领
+     */
+    @Update("UPDATE mail_outbox SET status = 'SENDING', claim_token = #{claimToken}, " +
+            "next_attempt_at = DATE_ADD(UTC_TIMESTAMP(3), INTERVAL #{leaseSeconds} SECOND) " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= UTC_TIMESTAMP(3) " +
+            "ORDER BY next_attempt_at, id LIMIT #{limit}")
+    int claim(@Param("claimToken") String claimToken,
+              @Param("leaseSeconds") int leaseSeconds,
+              @Param("limit") int limit);
+
+    /**
+     * 续租：延长本节点仍在投递的一批邮件的租约
+     */
+    @Update("UPDATE mail_outbox SET next_attempt_at = DATE_ADD(UTC_TIMESTAMP(3), INTERVAL #{leaseSeconds} SECOND) " +
+            "WHERE claim_token = #{claimToken} AND status = 'SENDING'")
+    int renewLease(@Param("claimToken") String claimToken, @Param("leaseSeconds") int leaseSeconds);
+
+    @Select("SELECT id, to_email, subject, content, attempts FROM mail_outbox " +
+            "WHERE claim_token = #{claimToken} AND status = 'SENDING' ORDER BY id")
+    List<MailOutboxPO> selectByClaimToken(@Param("claimToken") String claimToken);
+
+    /**
+     * 标记发送成功，并清空正文（正文可能含明文密码）
+     */
+    @Update("UPDATE mail_outbox SET status = 'SENT', content = '', attempts = attempts + 1, " +
+            "claim_token = NULL, last_error = NULL, sent_at = UTC_TIMESTAMP(3) " +
+            "WHERE id = #{id} AND claim_token = #{claimToken}")
+    int markSent(@Param("id") Long id, @Param("claimToken") String claimToken);
+
+    @Update("UPDATE mail_outbox SET status = 'PENDING', attempts = attempts + 1, claim_token = NULL, " +
+            "last_error = #{lastError}, next_attempt_at = DATE_ADD(UTC_TIMESTAMP(3), INTERVAL #{delaySeconds} SECOND) " +
+            "WHERE id = #{id} AND claim_token = #{claimToken}")
+    int markRetry(@Param("id") Long id, @Param("claimToken") String claimToken,
+                  @Param("delaySeconds") long delaySeconds, @Param("lastError") String lastError);
+
+    /**
+     * 标记最终失败（重试次数用尽），并清空正文
+     */
+    @Update("UPDATE mail_outbox SET status = 'FAILED', content = '', attempts = attempts + 1, claim_token = NULL, " +
+            "last_error = #{lastError} WHERE id = #{id} AND claim_token = #{claimToken}")
+    int markFailed(@Param("id") Long id, @Param("claimToken") String claimToken,
+                   @Param("lastError") String lastError);
+
+    @Select("SELECT COUNT(*) FROM mail_outbox WHERE status IN ('PENDING', 'SENDING')")
+    long countBacklog();
+}
@@ -0,0 +1,54 @@
+package com.gxl.plancore.common.mail;
+
+/**
+ * 邮件发件箱持久化对象
+ * 对应数据库 mail_outbox 表（投递只需以下字段，时间字段由数据库维护）
+ */
+public class MailOutboxPO {
+
+    private Long id;
+    private String toEmail;
+    private String subject;
+    private String content;
+    private Integer attempts;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getToEmail() {
+        return toEmail;
+    }
+
+    public void setToEmail(String toEmail) {
+        this.toEmail = toEmail;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+}
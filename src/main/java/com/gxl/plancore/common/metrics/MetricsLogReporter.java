@@ -0,0 +1,82 @@
+package com.gxl.plancore.common.metrics;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 运行指标日志输出
+ * 按固定间隔将所有 {@link MetricsSource} 的指标快照各输出一行 INFO 日志，供日志采集统计与告警
+ *   - 间隔由 app.metrics.log-interval-seconds 配置，不大于 0 时关闭
+ *   - 单个来源取指标失败只记录告警，不影响其他来源
+ * 【假设】PRD 未指定监控系统，使用周期性日志输出指标
+ */
+@Component
+public class MetricsLogReporter implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsLogReporter.class);
+
+    private final List<MetricsSource> sources;
+    private final long intervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    public MetricsLogReporter(
+            List<MetricsSource> sources,
+            @Value("${app.metrics.log-interval-seconds:300}") long intervalSeconds) {
+        this.sources = sources;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "metrics-log-reporter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                report();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("运行指标日志已启动: intervalSeconds={}, sources={}", intervalSeconds, sources.size());
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * 输出一次全部指标
+     */
+    public void report() {
+        for (MetricsSource source : sources) {
+            try {
+                log.info("运行指标: {} {}", source.metricsName(), source.metrics());
+            } catch (RuntimeException e) {
+                log.warn("获取运行指标失败: {}", source.metricsName(), e);
+            }
+        }
+    }
+}
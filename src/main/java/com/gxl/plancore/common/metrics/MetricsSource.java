@@ -0,0 +1,22 @@
+package com.gxl.plancore.common.metrics;
+
+import java.util.Map;
+
+/**
+ * 运行指标来源
+ * 缓存、线程池、后台任务等组件实现本接口并注册为 Spring Bean，由 {@link MetricsLogReporter} 定期汇总输出
+ */
+public interface MetricsSource {
+
+    /**
+     * 指标组名（日志中区分来源，如 passwordEncoder、taskDayCache）
+     */
+    String metricsName();
+
+    /**
+     * 当前指标快照
+     *
+     * @return 指标名 -> 值，按插入顺序输出
+     */
+    Map<String, Object> metrics();
+}
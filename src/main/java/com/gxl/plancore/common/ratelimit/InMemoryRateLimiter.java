@@ -0,0 +1,145 @@
+package com.gxl.plancore.common.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内限流器（默认）
+ *   - 无锁：每个 key 一个 AtomicLong 保存 TAT，CAS 更新
+ *   - 有界：桶满（TAT 不晚于当前时间）的 key 由后台线程按间隔清理；达到容量时新 key 从少量抽样中淘汰一个桶满的 key
+ *     再写入，仍在限流中的桶绝不淘汰（否则批量制造新 key 即可重置他人的限流）；抽样中没有桶满的 key 时拒绝新 key，
+ *     等待一个发放间隔后重试。请求路径上不做全量扫描
+ *   - 清理先将 TAT CAS 为失效标记再移除，与并发获取不会丢失扣减
+ * 多节点部署时各节点独立计数，需共享计数请使用 jdbc 实现
+ * 【假设】PRD 未指定定时任务框架，使用单线程调度器
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter, ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryRateLimiter.class);
+
+    private static final long SWEEP_INTERVAL_SECONDS = 60L;
+    private static final long REMOVED = Long.MIN_VALUE;
+    /** 达到容量时每次淘汰抽样的 key 数 */
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public InMemoryRateLimiter(@Value("${app.rate-limit.memory.max-size:100000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public long tryAcquire(RateLimitPolicy policy, String key) {
+        long now = System.currentTimeMillis();
+        String bucketKey = policy.bucketKey(key);
+        while (true) {
+            AtomicLong tat = buckets.get(bucketKey);
+            if (tat == null) {
+                if (buckets.size() >= maxSize && !evictOne(now)) {
+                    log.warn("限流桶数量达到上限且无可淘汰的桶，拒绝新 key: maxSize={}, policy={}", maxSize, policy.getName());
+                    return policy.getEmissionIntervalMillis();
+                }
+                AtomicLong created = new AtomicLong(now);
+                AtomicLong existing = buckets.putIfAbsent(bucketKey, created);
+                tat = existing != null ? existing : created;
+            }
+            while (true) {
+                long current = tat.get();
+                if (current == REMOVED) {
+                    buckets.remove(bucketKey, tat);
+                    break;
+                }
+                long retryAfterMillis = policy.retryAfterMillis(current, now);
+                if (retryAfterMillis > 0) {
+                    return retryAfterMillis;
+                }
+                if (tat.compareAndSet(current, policy.nextTat(current, now))) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "rate-limit-sweep");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                sweep(System.currentTimeMillis());
+            }
+        }, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * 达到容量时淘汰一个 key：取迭代顺序（按哈希分布）上的前若干个，淘汰其中第一个桶已满（TAT 不晚于当前时间）的
+     *
+     * @return 是否已淘汰
+     */
+    private boolean evictOne(long now) {
+        Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE && it.hasNext(); i++) {
+            Map.Entry<String, AtomicLong> entry = it.next();
+            AtomicLong tat = entry.getValue();
+            long current = tat.get();
+            if (current != REMOVED && current <= now && tat.compareAndSet(current, REMOVED)) {
+                buckets.remove(entry.getKey(), tat);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清理桶已满的 key（后台线程定时执行）
+     */
+    private void sweep(long now) {
+        Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, AtomicLong> entry = it.next();
+            AtomicLong tat = entry.getValue();
+            long current = tat.get();
+            if (current != REMOVED && current <= now && tat.compareAndSet(current, REMOVED)) {
+                buckets.remove(entry.getKey(), tat);
+            }
+        }
+    }
+}
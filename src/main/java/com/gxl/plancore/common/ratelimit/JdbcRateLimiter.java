@@ -0,0 +1,81 @@
+package com.gxl.plancore.common.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 数据库共享限流器（多节点部署）
+ * 每个 key 一行 rate_limit_bucket 记录保存 TAT，在独立事务中加行锁读改写：
+ *   - 独立事务（REQUIRES_NEW）：调用方事务回滚不撤销已扣减的次数
+ *   - 调用方须在自身事务开启前调用：在事务内调用会同时占用两个连接，高并发下可能耗尽连接池，此时记录告警
+ *   - 清理：按间隔删除桶已满的记录，删除与加锁读改写在行锁上串行，不会丢失扣减
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcRateLimiter.class);
+
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000L;
+    private static final int SWEEP_BATCH_SIZE = 1000;
+
+    private final RateLimitMapper rateLimitMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong nextSweepAtMillis = new AtomicLong();
+
+    public JdbcRateLimiter(RateLimitMapper rateLimitMapper, PlatformTransactionManager transactionManager) {
+        this.rateLimitMapper = rateLimitMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long tryAcquire(final RateLimitPolicy policy, String key) {
+        final String bucketKey = policy.bucketKey(key);
+        final long now = System.currentTimeMillis();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.warn("限流检查在事务内调用，将额外占用一个数据库连接: policy={}", policy.getName());
+        }
+        Long retryAfterMillis = transactionTemplate.execute(new TransactionCallback<Long>() {
+            @Override
+            public Long doInTransaction(TransactionStatus status) {
+                rateLimitMapper.insertIgnore(bucketKey, now);
+                Long tat = rateLimitMapper.selectTatForUpdate(bucketKey);
+                long current = tat != null ? tat : now;
+                long wait = policy.retryAfterMillis(current, now);
+                if (wait > 0) {
+                    return wait;
+                }
+                rateLimitMapper.updateTat(bucketKey, policy.nextTat(current, now));
+                return 0L;
+            }
+        });
+        sweepIfDue(now);
+        return retryAfterMillis != null ? retryAfterMillis : 0;
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweepAtMillis.get();
+        if (now < due || !nextSweepAtMillis.compareAndSet(due, now + SWEEP_INTERVAL_MILLIS)) {
+            return;
+        }
+        try {
+            int deleted = rateLimitMapper.deleteIdle(now, SWEEP_BATCH_SIZE);
+            if (deleted > 0) {
+                log.debug("清理限流桶: deleted={}", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("清理限流桶失败", e);
+        }
+    }
+}
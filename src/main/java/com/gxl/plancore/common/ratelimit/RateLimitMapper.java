@@ -0,0 +1,30 @@
+package com.gxl.plancore.common.ratelimit;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 限流桶 MyBatis Mapper（rate_limit_bucket）
+ */
+@Mapper
+public interface RateLimitMapper {
+
+    @Insert("INSERT IGNORE INTO rate_limit_bucket (limit_key, tat) VALUES (#{limitKey}, #{tat})")
+    int insertIgnore(@Param("limitKey") String limitKey, @Param("tat") long tat);
+
+    @Select("SELECT tat FROM rate_limit_bucket WHERE limit_key = #{limitKey} FOR UPDATE")
+    Long selectTatForUpdate(@Param("limitKey") String limitKey);
+
+    @Update("UPDATE rate_limit_bucket SET tat = #{tat} WHERE limit_key = #{limitKey}")
+    int updateTat(@Param("limitKey") String limitKey, @Param("tat") long tat);
+
+    /**
+     * 清理桶已满（TAT 不晚于当前时间）的记录
+     */
+    @Delete("DELETE FROM rate_limit_bucket WHERE tat <= #{now} LIMIT #{limit}")
+    int deleteIdle(@Param("now") long now, @Param("limit") int limit);
+}
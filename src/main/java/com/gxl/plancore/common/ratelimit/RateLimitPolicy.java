@@ -0,0 +1,62 @@
+package com.gxl.plancore.common.ratelimit;
+
+/**
+ * 限流策略值对象
+ * capacity 次 / window 毫秒；按 GCRA 以单个“理论到达时间”（TAT）表示桶状态：
+ *   - 发放间隔 T = window / capacity，突发容忍 τ = window - T
+ *   - 请求到达时 base = max(TAT, now)，base - now > τ 则限流，否则放行并令 TAT = base + T
+ *   - TAT 不晚于当前时间即桶已满，可安全清理
+ */
+public class RateLimitPolicy {
+
+    private final String name;
+    private final long emissionIntervalMillis;
+    private final long burstToleranceMillis;
+
+    /**
+     * @param name         策略名（作为限流键前缀）
+     * @param capacity     窗口内允许次数
+     * @param windowMillis 窗口长度（毫秒）
+     */
+    public RateLimitPolicy(String name, int capacity, long windowMillis) {
+        if (capacity <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("限流策略参数非法: capacity=" + capacity + ", windowMillis=" + windowMillis);
+        }
+        this.name = name;
+        this.emissionIntervalMillis = Math.max(1, windowMillis / capacity);
+        this.burstToleranceMillis = windowMillis - emissionIntervalMillis;
+    }
+
+    /**
+     * 计算需等待的毫秒数
+     *
+     * @param tat 当前理论到达时间
+     * @param now 当前时间
+     * @return 0 表示放行
+     */
+    public long retryAfterMillis(long tat, long now) {
+        return Math.max(0, Math.max(tat, now) - now - burstToleranceMillis);
+    }
+
+    /**
+     * 放行后的理论到达时间
+     */
+    public long nextTat(long tat, long now) {
+        return Math.max(tat, now) + emissionIntervalMillis;
+    }
+
+    /**
+     * 构建限流键
+     */
+    public String bucketKey(String key) {
+        return name + ":" + key;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getEmissionIntervalMillis() {
+        return emissionIntervalMillis;
+    }
+}
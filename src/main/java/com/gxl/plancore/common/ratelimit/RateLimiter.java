@@ -0,0 +1,19 @@
+package com.gxl.plancore.common.ratelimit;
+
+/**
+ * 限流器
+ * 令牌桶语义（GCRA 实现）：每个 key 最多突发 capacity 次，之后按 window / capacity 的间隔恢复一次
+ * 实现由 app.rate-limit.store 选择：memory（进程内，默认）/ jdbc（数据库共享，多节点部署）
+ * 应在业务事务开启前调用，被限流的请求不占用数据库连接
+ */
+public interface RateLimiter {
+
+    /**
+     * 尝试获取一次许可
+     *
+     * @param policy 限流策略
+     * @param key    业务键（如邮箱、IP）
+     * @return 0 表示放行；大于 0 表示被限流，值为需等待的毫秒数
+     */
+    long tryAcquire(RateLimitPolicy policy, String key);
+}
@@ -0,0 +1,168 @@
+package com.gxl.plancore.common.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.gxl.plancore.common.exception.BusinessException;
+import com.gxl.plancore.common.metrics.MetricsSource;
+import com.gxl.plancore.common.response.ErrorCode;
+
+/**
+ * 有界线程池密码编码器
+ * BCrypt 加密/校验是 CPU 密集操作，统一提交到固定大小的专用线程池执行，请求线程只等待结果：
+ *   - 并发上限：同时执行的 BCrypt 计算不超过线程数，登录高峰不会占满 CPU 拖慢其他接口
+ *   - 背压：等待队列满时立即拒绝（TOO_MANY_REQUESTS），等待超时同样拒绝
+ *   - 成本调整：{@link #upgradeEncoding} 在已存哈希的 cost 与当前配置不一致时返回 true，供登录成功后透明重新加密
+ *   - 指标：累计完成数、队列满拒绝数、等待超时数、平均耗时、当前排队数与执行数，经 {@link MetricsSource} 定期输出
+ * 等待结果期间不应持有数据库连接，调用方需在事务外调用
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MetricsSource, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    /** BCrypt 哈希格式：$2a$10$...，分组 1 为 cost */
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeoutMillis = timeoutMillis;
+        final AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "password-hash-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.AbortPolicy());
+        log.info("密码编码器初始化: strength={}, threads={}, queueCapacity={}, timeoutMillis={}",
+                strength, threads, queueCapacity, timeoutMillis);
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return execute(new Callable<String>() {
+            @Override
+            public String call() {
+                return delegate.encode(rawPassword);
+            }
+        });
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        return execute(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return delegate.matches(rawPassword, encodedPassword);
+            }
+        });
+    }
+
+    /**
+     * 已存哈希的 cost 与当前配置不一致（含调低）时需要重新加密
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    @Override
+    public String metricsName() {
+        return "passwordEncoder";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long completed = completedCount.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("completed", completed);
+        metrics.put("rejected", rejectedCount.get());
+        metrics.put("timeout", timeoutCount.get());
+        // 平均单次计算耗时（毫秒，不含排队）
+        metrics.put("avgMillis", completed == 0 ? 0 : totalNanos.get() / 1_000_000 / completed);
+        metrics.put("queueDepth", executor.getQueue().size());
+        metrics.put("active", executor.getActiveCount());
+        return metrics;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(final Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    long start = System.nanoTime();
+                    try {
+                        return work.call();
+                    } finally {
+                        totalNanos.addAndGet(System.nanoTime() - start);
+                        completedCount.incrementAndGet();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            log.warn("密码计算队列已满，拒绝请求: queueDepth={}", executor.getQueue().size());
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCount.incrementAndGet();
+            log.warn("密码计算等待超时: timeoutMillis={}, queueDepth={}", timeoutMillis, executor.getQueue().size());
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("密码计算被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("密码计算失败", cause);
+        }
+    }
+}
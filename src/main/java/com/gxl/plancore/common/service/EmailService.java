@@ -2,52 +2,57 @@ package com.gxl.plancore.common.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gxl.plancore.common.mail.MailOutboxDispatcher;
+import com.gxl.plancore.common.mail.MailOutboxMapper;
+import com.gxl.plancore.common.mail.MailOutboxPO;
 
 /**
  * 邮件发送服务
+ * 邮件先写入 mail_outbox（与调用方业务在同一事务内），事务提交后由 MailOutboxDispatcher 异步投递，
+ * 请求线程与数据库连接不再等待 SMTP，SMTP 失败也不会回滚业务数据
  */
 @Service
 public class EmailService {
     
     private static final Logger log = LoggerFactory.getLogger(EmailService.class);
     
-    private final JavaMailSender mailSender;
-    
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final MailOutboxMapper mailOutboxMapper;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
     
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(MailOutboxMapper mailOutboxMapper, MailOutboxDispatcher mailOutboxDispatcher) {
+        this.mailOutboxMapper = mailOutboxMapper;
+        this.mailOutboxDispatcher = mailOutboxDispatcher;
     }
     
     /**
-     * 发送找回密码邮件
+     * 发送找回密码邮件（写入发件箱，异步投递）
      * 
      * @param toEmail 收件人邮箱
      * @param newPassword 新密码
      */
     public void sendPasswordResetEmail(String toEmail, String newPassword) {
-        log.info("发送找回密码邮件: toEmail={}", toEmail);
-        
-        String subject = "MaidenPlan - Password Recovery";
-        String content = buildPasswordResetEmailContent(newPassword);
+        log.info("找回密码邮件入队: toEmail={}", toEmail);
         
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject(subject);
-        message.setText(content);
+        MailOutboxPO po = new MailOutboxPO();
+        po.setToEmail(toEmail);
+        po.setSubject("MaidenPlan - Password Recovery");
+        po.setContent(buildPasswordResetEmailContent(newPassword));
+        mailOutboxMapper.insert(po);
         
-        try {
-            mailSender.send(message);
-            log.info("找回密码邮件发送成功: toEmail={}", toEmail);
-        } catch (Exception e) {
-            log.error("找回密码邮件发送失败: toEmail={}, error={}", toEmail, e.getMessage(), e);
-            throw new RuntimeException("邮件发送失败", e);
+        // 事务提交后立即触发投递；无事务时直接触发
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mailOutboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            mailOutboxDispatcher.wakeUp();
         }
     }
     
@@ -0,0 +1,33 @@
+package com.gxl.plancore.focus.application.dto;
+
+/**
+ * 专注日统计 DTO
+ * 统计区间内单日计入的专注时长（无记录的日期补 0）
+ */
+public class FocusDayStat {
+
+    /** 日期 YYYY-MM-DD */
+    private final String date;
+    /** 计入的专注时长（秒） */
+    private final long focusSeconds;
+    /** 计入的会话次数 */
+    private final int sessionCount;
+
+    public FocusDayStat(String date, long focusSeconds, int sessionCount) {
+        this.date = date;
+        this.focusSeconds = focusSeconds;
+        this.sessionCount = sessionCount;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public long getFocusSeconds() {
+        return focusSeconds;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+}
@@ -0,0 +1,62 @@
+package com.gxl.plancore.focus.application.dto;
+
+import java.util.List;
+
+/**
+ * 专注统计结果 DTO
+ * 应用层返回给接口层
+ */
+public class FocusStatsResult {
+
+    /** 查询维度 WEEK / MONTH */
+    private final String dimension;
+    private final String startDate;
+    private final String endDate;
+    /** 区间内计入的专注总时长（秒） */
+    private final long totalSeconds;
+    /** 区间内计入的会话总次数 */
+    private final int sessionCount;
+    /** 按日统计（区间内每天一项） */
+    private final List<FocusDayStat> days;
+    /** 按专注类型统计（按时长降序） */
+    private final List<FocusTypeStat> types;
+
+    public FocusStatsResult(String dimension, String startDate, String endDate, long totalSeconds,
+                            int sessionCount, List<FocusDayStat> days, List<FocusTypeStat> types) {
+        this.dimension = dimension;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalSeconds = totalSeconds;
+        this.sessionCount = sessionCount;
+        this.days = days;
+        this.types = types;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public long getTotalSeconds() {
+        return totalSeconds;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    public List<FocusDayStat> getDays() {
+        return days;
+    }
+
+    public List<FocusTypeStat> getTypes() {
+        return types;
+    }
+}
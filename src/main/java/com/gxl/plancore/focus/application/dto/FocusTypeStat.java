@@ -0,0 +1,33 @@
+package com.gxl.plancore.focus.application.dto;
+
+/**
+ * 专注类型统计 DTO
+ * 统计区间内某专注类型计入的专注时长（只包含有记录的类型）
+ */
+public class FocusTypeStat {
+
+    /** 专注类型 */
+    private final String type;
+    /** 计入的专注时长（秒） */
+    private final long focusSeconds;
+    /** 计入的会话次数 */
+    private final int sessionCount;
+
+    public FocusTypeStat(String type, long focusSeconds, int sessionCount) {
+        this.type = type;
+        this.focusSeconds = focusSeconds;
+        this.sessionCount = sessionCount;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getFocusSeconds() {
+        return focusSeconds;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+}
@@ -5,12 +5,17 @@ import com.gxl.plancore.common.response.ErrorCode;
 import com.gxl.plancore.focus.application.command.EndFocusCommand;
 import com.gxl.plancore.focus.application.command.StartFocusCommand;
 import com.gxl.plancore.focus.application.dto.EndFocusResult;
+import com.gxl.plancore.focus.application.dto.FocusDayStat;
+import com.gxl.plancore.focus.application.dto.FocusStatsResult;
+import com.gxl.plancore.focus.application.dto.FocusTypeStat;
 import com.gxl.plancore.focus.application.dto.StartFocusResult;
 import com.gxl.plancore.focus.domain.entity.FocusSession;
 import com.gxl.plancore.focus.domain.entity.FocusStats;
+import com.gxl.plancore.focus.domain.repository.FocusRollupRepository;
 import com.gxl.plancore.focus.domain.repository.FocusSessionRepository;
 import com.gxl.plancore.focus.domain.repository.FocusStatsRepository;
 import com.gxl.plancore.focus.domain.valueobject.EndType;
+import com.gxl.plancore.focus.domain.valueobject.FocusDailyCount;
 import com.gxl.plancore.focus.domain.valueobject.FocusDuration;
 import com.gxl.plancore.focus.domain.valueobject.FocusType;
 import com.gxl.plancore.focus.domain.valueobject.SessionId;
@@ -20,6 +25,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -33,11 +46,14 @@ public class FocusApplicationService {
 
     private final FocusSessionRepository focusSessionRepository;
     private final FocusStatsRepository focusStatsRepository;
+    private final FocusRollupRepository focusRollupRepository;
 
     public FocusApplicationService(FocusSessionRepository focusSessionRepository,
-                                   FocusStatsRepository focusStatsRepository) {
+                                   FocusStatsRepository focusStatsRepository,
+                                   FocusRollupRepository focusRollupRepository) {
         this.focusSessionRepository = focusSessionRepository;
         this.focusStatsRepository = focusStatsRepository;
+        this.focusRollupRepository = focusRollupRepository;
     }
 
     /**
@@ -52,7 +68,8 @@ public class FocusApplicationService {
                 command.getUserId(), command.getDurationSeconds(), command.getType());
 
         // 1. 检查是否存在进行中的会话，如果有则自动结算
-        Optional<FocusSession> runningSession = focusSessionRepository.findRunningSession(command.getUserId());
+        // 加锁查库而非读缓存：缓存的“无进行中会话”可能已过时（其他节点已开始会话），漏掉会插入第二个进行中会话
+        Optional<FocusSession> runningSession = focusSessionRepository.lockRunningSession(command.getUserId());
         if (runningSession.isPresent()) {
             autoSettleStaleSession(runningSession.get());
         }
@@ -102,7 +119,7 @@ public class FocusApplicationService {
      * 1. 查询会话并校验状态
      * 2. 调用领域方法结束会话（含计入规则判断）
      * 3. 更新 focus_session 表
-     * 4. 如果本次计入（counted=true），累加到 user_focus_stats 表
+     * 4. 如果本次计入（counted=true），原子累加到 user_focus_stats 表（同一条语句带回累计总时长）与 focus_daily_rollup 表
      * 5. 返回结果（包含累计总专注时长）
      *
      * @param command 结束专注命令
@@ -134,13 +151,7 @@ public class FocusApplicationService {
         // 3. 幂等处理：如果会话已结束，直接返回已有结果
         if (session.isEnded()) {
             log.info("会话已结束（幂等）: sessionId={}", command.getSessionId());
-            long totalFocusTime = getTotalFocusTime(command.getUserId());
-            return new EndFocusResult(
-                    session.getSessionId().getValue(),
-                    session.isCounted(),
-                    session.getCountedSeconds(),
-                    totalFocusTime
-            );
+            return endedResult(session);
         }
 
         // 4. 校验结束类型
@@ -155,17 +166,22 @@ public class FocusApplicationService {
         // 5. 调用领域方法结束会话（包含计入规则判断）
         session.end(command.getElapsedSeconds(), endType);
 
-        // 6. 更新 focus_session 表
-        focusSessionRepository.update(session);
+        // 6. 更新 focus_session 表；并发下会话已被服务端自动结算时，按已结束会话幂等返回
+        // 加锁重读：普通查询读的是本事务第 1 步的快照，仍为 RUNNING，读不到刚提交的结算结果
+        if (!focusSessionRepository.update(session)) {
+            log.info("会话已被自动结算（幂等）: sessionId={}", command.getSessionId());
+            return endedResult(focusSessionRepository.lockBySessionId(sessionId).get());
+        }
 
-        // 7. 如果本次计入，累加到 user_focus_stats 表
+        // 7. 如果本次计入，原子累加到 user_focus_stats 表并带回累计总时长，同时累加专注日汇总；未计入时只查询总时长
+        long totalFocusTime;
         if (session.isCounted()) {
-            updateFocusStats(command.getUserId(), session.getCountedSeconds());
+            totalFocusTime = focusStatsRepository.addFocusTime(command.getUserId(), session.getCountedSeconds());
+            focusRollupRepository.add(session);
+        } else {
+            totalFocusTime = getTotalFocusTime(command.getUserId());
         }
 
-        // 8. 查询累计总专注时长
-        long totalFocusTime = getTotalFocusTime(command.getUserId());
-
         log.info("结束专注成功: userId={}, sessionId={}, counted={}, countedSeconds={}, totalFocusTime={}",
                 command.getUserId(), command.getSessionId(),
                 session.isCounted(), session.getCountedSeconds(), totalFocusTime);
@@ -182,6 +198,7 @@ public class FocusApplicationService {
      * 自动结算残留的 RUNNING 会话
      *
      * 场景：前端进程意外退出（崩溃/杀进程），导致会话未正常结束
+     * 超过预计结束时间 + 宽限期的会话通常已由 FocusSettlementJob 在服务端结算，这里兜底处理宽限期内重新开始专注的情况
      * 策略：
      * - 已超过预计结束时间 → 按"自然结束"结算，计入全部时长（durationSeconds）
      * - 未超过预计结束时间 → 按"手动结束"结算，已完成秒数 = 实际经过时间，按 50% 规则判断是否计入
@@ -204,32 +221,29 @@ public class FocusApplicationService {
                     staleSession.getSessionId().getValue(), elapsedSeconds, staleSession.isCounted());
         }
 
-        // 更新 focus_session 表
-        focusSessionRepository.update(staleSession);
+        // 更新 focus_session 表（已被服务端自动结算时跳过，避免重复计入）
+        if (!focusSessionRepository.update(staleSession)) {
+            log.info("残留会话已被自动结算: sessionId={}", staleSession.getSessionId().getValue());
+            return;
+        }
 
         // 如果本次计入，累加到 user_focus_stats 表
         if (staleSession.isCounted()) {
-            updateFocusStats(staleSession.getUserId(), staleSession.getCountedSeconds());
+            focusStatsRepository.addFocusTime(staleSession.getUserId(), staleSession.getCountedSeconds());
+            focusRollupRepository.add(staleSession);
         }
     }
 
     /**
-     * 更新用户专注统计（累加到 user_focus_stats）
+     * 已结束会话的结果（幂等返回）
      */
-    private void updateFocusStats(String userId, int countedSeconds) {
-        Optional<FocusStats> statsOptional = focusStatsRepository.findByUserId(userId);
-
-        if (statsOptional.isPresent()) {
-            // 已有统计记录，累加
-            FocusStats stats = statsOptional.get();
-            stats.addFocusTime(countedSeconds);
-            focusStatsRepository.update(stats);
-        } else {
-            // 首次专注，创建统计记录
-            FocusStats stats = FocusStats.create(userId);
-            stats.addFocusTime(countedSeconds);
-            focusStatsRepository.save(stats);
-        }
+    private EndFocusResult endedResult(FocusSession session) {
+        return new EndFocusResult(
+                session.getSessionId().getValue(),
+                session.isCounted(),
+                session.getCountedSeconds(),
+                getTotalFocusTime(session.getUserId())
+        );
     }
 
     /**
@@ -248,6 +262,93 @@ public class FocusApplicationService {
         return FocusStats.create(userId);
     }
 
+    /**
+     * 查询专注统计（周/月维度）
+     * 只读取 focus_daily_rollup 中区间内的汇总行（最多 天数 × 类型数 行），不扫描 focus_session
+     *
+     * @param userId    用户ID
+     * @param dimension 维度：WEEK（ISO 周，周一~周日）或 MONTH（自然月）
+     * @param dateStr   基准日期 YYYY-MM-DD，为空时取今天
+     * @return 区间总计、按日统计（每天一项，无记录补 0）、按类型统计（按时长降序）
+     */
+    public FocusStatsResult queryFocusStats(String userId, String dimension, String dateStr) {
+        log.info("查询专注统计: userId={}, dimension={}, date={}", userId, dimension, dateStr);
+
+        // 1. 校验参数，确定区间
+        if (!"WEEK".equals(dimension) && !"MONTH".equals(dimension)) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "维度参数必须为 WEEK 或 MONTH");
+        }
+        LocalDate date;
+        if (dateStr == null || dateStr.trim().isEmpty()) {
+            date = LocalDate.now();
+        } else {
+            try {
+                date = LocalDate.parse(dateStr.trim());
+            } catch (DateTimeParseException e) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "日期格式必须为 YYYY-MM-DD");
+            }
+        }
+        LocalDate startDate;
+        LocalDate endDate;
+        if ("WEEK".equals(dimension)) {
+            startDate = date.minusDays(date.getDayOfWeek().getValue() - 1);
+            endDate = startDate.plusDays(6);
+        } else {
+            startDate = date.withDayOfMonth(1);
+            endDate = date.withDayOfMonth(date.lengthOfMonth());
+        }
+
+        // 2. 读取汇总行，按日、按类型归并
+        List<FocusDailyCount> counts = focusRollupRepository.findByDateRange(userId, startDate, endDate);
+        Map<LocalDate, long[]> byDay = new HashMap<>();
+        Map<FocusType, long[]> byType = new EnumMap<>(FocusType.class);
+        long totalSeconds = 0;
+        int sessionCount = 0;
+        for (FocusDailyCount count : counts) {
+            addTo(byDay, count.getDate(), count);
+            addTo(byType, count.getType(), count);
+            totalSeconds += count.getFocusSeconds();
+            sessionCount += count.getSessionCount();
+        }
+
+        // 3. 按日补齐区间内每一天
+        List<FocusDayStat> days = new ArrayList<>();
+        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
+            long[] sum = byDay.get(d);
+            days.add(new FocusDayStat(d.toString(), sum != null ? sum[0] : 0, sum != null ? (int) sum[1] : 0));
+        }
+
+        // 4. 按类型统计，时长降序
+        List<FocusTypeStat> types = new ArrayList<>();
+        for (Map.Entry<FocusType, long[]> entry : byType.entrySet()) {
+            types.add(new FocusTypeStat(entry.getKey().name(), entry.getValue()[0], (int) entry.getValue()[1]));
+        }
+        types.sort(new Comparator<FocusTypeStat>() {
+            @Override
+            public int compare(FocusTypeStat a, FocusTypeStat b) {
+                return Long.compare(b.getFocusSeconds(), a.getFocusSeconds());
+            }
+        });
+
+        log.info("查询专注统计完成: userId={}, dimension={}, range=[{}, {}], rows={}, totalSeconds={}",
+                userId, dimension, startDate, endDate, counts.size(), totalSeconds);
+        return new FocusStatsResult(dimension, startDate.toString(), endDate.toString(),
+                totalSeconds, sessionCount, days, types);
+    }
+
+    /**
+     * 把一行汇总的时长与次数累加到分组 [秒数, 次数]
+     */
+    private static <K> void addTo(Map<K, long[]> groups, K key, FocusDailyCount count) {
+        long[] sum = groups.get(key);
+        if (sum == null) {
+            sum = new long[2];
+            groups.put(key, sum);
+        }
+        sum[0] += count.getFocusSeconds();
+        sum[1] += count.getSessionCount();
+    }
+
     /**
      * 获取用户累计总专注时长（秒）- 内部方法
      */
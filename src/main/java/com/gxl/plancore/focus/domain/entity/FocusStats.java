@@ -41,18 +41,6 @@ public class FocusStats {
         this.updatedAt = updatedAt;
     }
 
-    /**
-     * 增加专注时长（结束专注且 counted=true 时调用）
-     *
-     * @param countedSeconds 本次计入的秒数
-     */
-    public void addFocusTime(int countedSeconds) {
-        this.totalSeconds = this.totalSeconds + countedSeconds;
-        this.totalHours = (int) (this.totalSeconds / 3600);
-        this.sessionCount = this.sessionCount + 1;
-        this.updatedAt = Instant.now();
-    }
-
     // Getters
     public String getUserId() {
         return userId;
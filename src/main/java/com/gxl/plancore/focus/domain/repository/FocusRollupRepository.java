@@ -0,0 +1,31 @@
+package com.gxl.plancore.focus.domain.repository;
+
+import com.gxl.plancore.focus.domain.entity.FocusSession;
+import com.gxl.plancore.focus.domain.valueobject.FocusDailyCount;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 专注日汇总仓储接口
+ * 领域层定义，由基础设施层实现
+ */
+public interface FocusRollupRepository {
+
+    /**
+     * 累加一次已计入的会话到其开始日、类型对应的汇总行（无记录时创建）
+     *
+     * @param session 已结束且计入的专注会话
+     */
+    void add(FocusSession session);
+
+    /**
+     * 查询日期区间内的汇总行（只包含有计入记录的日期/类型）
+     *
+     * @param userId    用户ID
+     * @param startDate 起始日期（含）
+     * @param endDate   结束日期（含）
+     * @return 日计数列表
+     */
+    List<FocusDailyCount> findByDateRange(String userId, LocalDate startDate, LocalDate endDate);
+}
@@ -19,6 +19,15 @@ public interface FocusSessionRepository {
      */
     Optional<FocusSession> findBySessionId(SessionId sessionId);
 
+    /**
+     * 加锁查询会话（直接查库，不使用缓存，需在事务内调用）
+     * 条件更新失败后读取其他流程刚提交的结算结果时使用
+     *
+     * @param sessionId 会话ID
+     * @return 专注会话
+     */
+    Optional<FocusSession> lockBySessionId(SessionId sessionId);
+
     /**
      * 查询用户当前进行中的专注会话
      *
@@ -27,6 +36,15 @@ public interface FocusSessionRepository {
      */
     Optional<FocusSession> findRunningSession(String userId);
 
+    /**
+     * 加锁查询用户当前进行中的专注会话（直接查库，不使用缓存，需在事务内调用）
+     * 开始专注前确认无进行中会话时使用，其他节点开始的会话也能查到
+     *
+     * @param userId 用户ID
+     * @return 进行中的会话，如果没有则返回 empty
+     */
+    Optional<FocusSession> lockRunningSession(String userId);
+
     /**
      * 保存专注会话
      *
@@ -35,9 +53,10 @@ public interface FocusSessionRepository {
     void save(FocusSession session);
 
     /**
-     * 更新专注会话
+     * 更新专注会话（仅当会话仍在进行中时生效）
      *
      * @param session 专注会话实体
+     * @return false 表示会话已被其他流程（如服务端自动结算）结束，本次未更新
      */
-    void update(FocusSession session);
+    boolean update(FocusSession session);
 }
@@ -19,16 +19,11 @@ public interface FocusStatsRepository {
     Optional<FocusStats> findByUserId(String userId);
 
     /**
-     * 保存统计数据（新增）
+     * 原子累加一次计入的专注时长（无记录时创建），并发结束专注不会丢失累加
      *
-     * @param stats 专注统计实体
+     * @param userId         用户ID
+     * @param countedSeconds 本次计入的秒数
+     * @return 累加后的总专注时长（秒）
      */
-    void save(FocusStats stats);
-
-    /**
-     * 更新统计数据
-     *
-     * @param stats 专注统计实体
-     */
-    void update(FocusStats stats);
+    long addFocusTime(String userId, int countedSeconds);
 }
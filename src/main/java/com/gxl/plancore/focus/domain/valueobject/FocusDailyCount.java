@@ -0,0 +1,38 @@
+package com.gxl.plancore.focus.domain.valueobject;
+
+import java.time.LocalDate;
+
+/**
+ * 专注日计数值对象
+ * 表示某天、某专注类型下计入的专注时长与会话次数
+ */
+public class FocusDailyCount {
+
+    private final LocalDate date;
+    private final FocusType type;
+    private final long focusSeconds;
+    private final int sessionCount;
+
+    public FocusDailyCount(LocalDate date, FocusType type, long focusSeconds, int sessionCount) {
+        this.date = date;
+        this.type = type;
+        this.focusSeconds = focusSeconds;
+        this.sessionCount = sessionCount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public FocusType getType() {
+        return type;
+    }
+
+    public long getFocusSeconds() {
+        return focusSeconds;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+}
@@ -0,0 +1,192 @@
+package com.gxl.plancore.focus.infrastructure.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gxl.plancore.common.metrics.MetricsSource;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusSessionPO;
+
+/**
+ * 进行中专注会话本地缓存
+ * 以 userId 为 key 缓存用户当前进行中的会话（或“无进行中会话”），供结束专注与进行中会话查询免查库
+ *   - 填充：开始专注事务提交后写入进行中会话；结束/结算提交后写入“无进行中会话”；未命中时由仓储查库回填
+ *   - 会话反查索引：sessionId -> userId，结束专注按 sessionId 查询时使用
+ *   - 容量上限：超出后按 LRU 淘汰；过期时间：条目写入超过 TTL 后视为失效
+ *   - 失效版本号：任何写入/失效都会递增版本号，查库期间发生变更的结果不会回填，避免写入旧状态
+ *   - 指标：命中、未命中次数及当前条目数，经 {@link MetricsSource} 定期输出
+ * 缓存只存 PO 快照，每次命中由仓储转换为新的领域对象，不共享可变状态
+ * 【假设】PRD 未指定分布式缓存，使用进程内缓存；其他节点结束的会话在本节点可能仍显示进行中，
+ * 结束专注的更新带 status = 'RUNNING' 条件兜底；“无进行中会话”可能过时，开始专注不依赖它，改为加锁查库确认
+ */
+@Component
+public class RunningFocusSessionCache implements MetricsSource {
+
+    private final long ttlMillis;
+
+    /** userId -> 条目（access-order，用于 LRU 淘汰），由 this 锁保护 */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /** sessionId -> userId，仅包含当前已缓存的进行中会话，由 this 锁保护 */
+    private final Map<String, String> sessionIndex = new HashMap<>();
+
+    private long version;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public RunningFocusSessionCache(
+            @Value("${app.focus.running-cache.max-size:50000}") final int maxSize,
+            @Value("${app.focus.running-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxSize) {
+                    unindex(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 查询用户的缓存条目
+     *
+     * @return 条目（{@link Entry#getSession()} 为 null 表示无进行中会话），未命中或已过期返回 null
+     */
+    public synchronized Entry getByUserId(String userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null && System.currentTimeMillis() >= entry.expireAtMillis) {
+            remove(userId);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * 按 sessionId 查询缓存的进行中会话
+     *
+     * @return 会话快照，未命中或已过期返回 null
+     */
+    public synchronized FocusSessionPO getBySessionId(String sessionId) {
+        String userId = sessionIndex.get(sessionId);
+        if (userId == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        Entry entry = getByUserId(userId);
+        return entry != null ? entry.session : null;
+    }
+
+    public synchronized long currentVersion() {
+        return version;
+    }
+
+    /**
+     * 查库结果回填（加载期间发生过写入/失效则放弃）
+     *
+     * @param session 进行中会话，为 null 表示无进行中会话
+     * @param version 查库前通过 {@link #currentVersion()} 获取的版本号
+     */
+    public synchronized void putIfUnchanged(String userId, FocusSessionPO session, long version) {
+        if (version != this.version) {
+            return;
+        }
+        doPut(userId, session);
+    }
+
+    /**
+     * 写入用户当前状态（开始/结束事务提交后调用）
+     *
+     * @param session 进行中会话，为 null 表示无进行中会话
+     */
+    public synchronized void put(String userId, FocusSessionPO session) {
+        version++;
+        doPut(userId, session);
+    }
+
+    /**
+     * 会话结束后写入“无进行中会话”（结束/结算事务提交后调用）
+     * 仅当缓存的正是该会话时写入；缓存的是其他会话时保留，未缓存时不写入（下次查库确认）
+     */
+    public synchronized void markEnded(String userId, String sessionId) {
+        version++;
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.session == null || entry.session.getSessionId().equals(sessionId)) {
+            doPut(userId, null);
+        }
+    }
+
+    public synchronized void invalidate(String userId) {
+        version++;
+        remove(userId);
+    }
+
+    @Override
+    public String metricsName() {
+        return "runningFocusSessionCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hit", hitCount.get());
+        metrics.put("miss", missCount.get());
+        metrics.put("size", size());
+        return metrics;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void doPut(String userId, FocusSessionPO session) {
+        remove(userId);
+        Entry entry = new Entry(session, System.currentTimeMillis() + ttlMillis);
+        entries.put(userId, entry);
+        if (session != null) {
+            sessionIndex.put(session.getSessionId(), userId);
+        }
+    }
+
+    private void remove(String userId) {
+        Entry removed = entries.remove(userId);
+        if (removed != null) {
+            unindex(removed);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        if (entry.session != null) {
+            sessionIndex.remove(entry.session.getSessionId());
+        }
+    }
+
+    public static final class Entry {
+        private final FocusSessionPO session;
+        private final long expireAtMillis;
+
+        Entry(FocusSessionPO session, long expireAtMillis) {
+            this.session = session;
+            this.expireAtMillis = expireAtMillis;
+        }
+
+        public FocusSessionPO getSession() {
+            return session;
+        }
+    }
+}
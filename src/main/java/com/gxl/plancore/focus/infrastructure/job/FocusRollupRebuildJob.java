@@ -0,0 +1,120 @@
+package com.gxl.plancore.focus.infrastructure.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gxl.plancore.focus.infrastructure.persistence.converter.FocusDailyRollupConverter;
+import com.gxl.plancore.focus.infrastructure.persistence.mapper.FocusDailyRollupMapper;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusDailyRollupPO;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusSessionPO;
+
+/**
+ * focus_daily_rollup 汇总重建任务
+ * 以 focus_session 中已计入的会话为数据源，按用户逐个删除并重建日汇总，每个用户一个独立事务
+ *   - 存量数据回填：上线时开启 app.focus.rollup.rebuild-on-startup，应用启动后在后台线程执行一次
+ *   - 数据修复：汇总与会话不一致时可调用 rebuildUser 单独重建
+ * 日期按会话开始时间的本地日期在 Java 中计算，与增量累加使用同一规则
+ * 【假设】PRD 未指定定时任务框架，使用启动时一次性执行，回填完成后关闭开关
+ */
+@Component
+public class FocusRollupRebuildJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FocusRollupRebuildJob.class);
+
+    private final FocusDailyRollupMapper focusDailyRollupMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final int batchSize;
+
+    public FocusRollupRebuildJob(
+            FocusDailyRollupMapper focusDailyRollupMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.focus.rollup.rebuild-on-startup:false}") boolean rebuildOnStartup,
+            @Value("${app.focus.rollup.rebuild-batch-size:200}") int batchSize) {
+        this.focusDailyRollupMapper = focusDailyRollupMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                rebuildAll();
+            }
+        }, "focus-rollup-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 重建全部用户的日汇总（按 user_id 分批遍历）
+     *
+     * @return 重建的用户数
+     */
+    public int rebuildAll() {
+        log.info("开始重建专注日汇总: batchSize={}", batchSize);
+        long startMillis = System.currentTimeMillis();
+        int userCount = 0;
+        String afterUserId = null;
+        while (true) {
+            List<String> userIds = focusDailyRollupMapper.selectFocusUserIds(afterUserId, batchSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            for (String userId : userIds) {
+                try {
+                    rebuildUser(userId);
+                    userCount++;
+                } catch (RuntimeException e) {
+                    log.error("重建专注日汇总失败: userId={}", userId, e);
+                }
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+        }
+        log.info("重建专注日汇总完成: userCount={}, costMillis={}", userCount, System.currentTimeMillis() - startMillis);
+        return userCount;
+    }
+
+    /**
+     * 重建单个用户的日汇总（删除后由计入的会话重新聚合，同一事务内完成）
+     */
+    public void rebuildUser(final String userId) {
+        transactionTemplate.executeWithoutResult(new Consumer<TransactionStatus>() {
+            @Override
+            public void accept(TransactionStatus status) {
+                focusDailyRollupMapper.deleteByUserId(userId);
+                List<FocusSessionPO> sessions = focusDailyRollupMapper.selectCountedSessionsByUserId(userId);
+                if (sessions.isEmpty()) {
+                    return;
+                }
+                TreeMap<String, FocusDailyRollupPO> rollups = new TreeMap<>();
+                for (FocusSessionPO po : sessions) {
+                    FocusDailyRollupConverter.accumulate(rollups, userId, po.getStartAt(), po.getType(),
+                            po.getCountedSeconds());
+                }
+                List<FocusDailyRollupPO> rows = new ArrayList<>(rollups.values());
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    focusDailyRollupMapper.incrementBatch(rows.subList(from, Math.min(from + batchSize, rows.size())));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,238 @@
+package com.gxl.plancore.focus.infrastructure.job;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gxl.plancore.common.metrics.MetricsSource;
+import com.gxl.plancore.focus.infrastructure.cache.RunningFocusSessionCache;
+import com.gxl.plancore.focus.infrastructure.persistence.converter.FocusDailyRollupConverter;
+import com.gxl.plancore.focus.infrastructure.persistence.mapper.FocusDailyRollupMapper;
+import com.gxl.plancore.focus.infrastructure.persistence.mapper.FocusSessionMapper;
+import com.gxl.plancore.focus.infrastructure.persistence.mapper.FocusStatsMapper;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusDailyRollupPO;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusSessionPO;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusStatsPO;
+
+/**
+ * 专注会话自动结算任务
+ * 前端异常退出后残留的 RUNNING 会话由服务端在“预计结束时间 + 宽限期”后按自然结束结算（计入全部预设时长）
+ *   - 加载：启动时及每个重扫间隔按主键游标分页加载本分片的进行中会话登记到时间轮（覆盖其他节点开始的会话与重启前的会话）
+ *   - 结算：每个刻度取出到期会话，按批次在一个事务内执行：锁定仍在进行中的会话 → 一条 UPDATE 批量结算 →
+ *     按用户汇总后一条多行 upsert 累加专注统计 → 按 (用户, 日期, 类型) 汇总后一条多行 upsert 累加专注日汇总
+ *   - 防重：锁定与 UPDATE 均带 status = 'RUNNING' 条件，与结束专注、其他节点互斥，已结束的会话不会被重复结算或重复计入
+ *   - 缓存：事务提交后把已结算会话在进行中会话缓存中标记为结束
+ *   - 指标：累计结算会话数与时间轮中待结算会话数，经 {@link MetricsSource} 定期输出
+ * 【假设】PRD 未指定定时任务框架，使用单线程调度器
+ */
+@Component
+public class FocusSettlementJob implements ApplicationRunner, DisposableBean, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(FocusSettlementJob.class);
+
+    private final FocusSessionMapper focusSessionMapper;
+    private final FocusStatsMapper focusStatsMapper;
+    private final FocusDailyRollupMapper focusDailyRollupMapper;
+    private final FocusSettlementWheel wheel;
+    private final RunningFocusSessionCache runningFocusSessionCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long rescanIntervalSeconds;
+    private final int batchSize;
+
+    private final AtomicLong settledCount = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    public FocusSettlementJob(
+            FocusSessionMapper focusSessionMapper,
+            FocusStatsMapper focusStatsMapper,
+            FocusDailyRollupMapper focusDailyRollupMapper,
+            FocusSettlementWheel wheel,
+            RunningFocusSessionCache runningFocusSessionCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.focus.settlement.enabled:true}") boolean enabled,
+            @Value("${app.focus.settlement.rescan-interval-seconds:300}") long rescanIntervalSeconds,
+            @Value("${app.focus.settlement.batch-size:200}") int batchSize) {
+        this.focusSessionMapper = focusSessionMapper;
+        this.focusStatsMapper = focusStatsMapper;
+        this.focusDailyRollupMapper = focusDailyRollupMapper;
+        this.wheel = wheel;
+        this.runningFocusSessionCache = runningFocusSessionCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.rescanIntervalSeconds = rescanIntervalSeconds;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "focus-settlement");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // 加载与推进在同一线程执行，互不并发
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                loadRunning();
+            }
+        }, 0, rescanIntervalSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }, wheel.getTickMillis(), wheel.getTickMillis(), TimeUnit.MILLISECONDS);
+        log.info("专注自动结算已启动: shardCount={}, shardIndex={}, rescanIntervalSeconds={}",
+                wheel.getShardCount(), wheel.getShardIndex(), rescanIntervalSeconds);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "focusSettlement";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("settled", settledCount.get());
+        metrics.put("wheelSize", wheel.size());
+        return metrics;
+    }
+
+    /**
+     * 分页加载本分片的进行中会话登记到时间轮（已登记的忽略）
+     *
+     * @return 加载的会话数
+     */
+    public int loadRunning() {
+        int loaded = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                List<FocusSessionPO> page = focusSessionMapper.selectRunningForSettlement(
+                        afterId, wheel.getShardCount(), wheel.getShardIndex(), batchSize);
+                for (FocusSessionPO po : page) {
+                    wheel.schedule(po.getSessionId(), po.getUserId(),
+                            po.getStartAt().plusSeconds(po.getDurationSeconds()));
+                }
+                loaded += page.size();
+                if (page.size() < batchSize) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } catch (RuntimeException e) {
+            log.warn("加载进行中专注会话失败，等待下次重扫", e);
+        }
+        log.debug("加载进行中专注会话: loaded={}, wheelSize={}", loaded, wheel.size());
+        return loaded;
+    }
+
+    /**
+     * 推进时间轮并分批结算到期会话
+     * 结算失败的会话保持 RUNNING，由下次重扫重新登记
+     */
+    private void tick() {
+        List<String> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<String> batch = new ArrayList<>(due.subList(from, Math.min(from + batchSize, due.size())));
+            try {
+                int settled = settle(batch);
+                settledCount.addAndGet(settled);
+                if (settled > 0) {
+                    log.info("自动结算专注会话: due={}, settled={}", batch.size(), settled);
+                }
+            } catch (RuntimeException e) {
+                log.warn("自动结算专注会话失败: size={}", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 在一个事务内结算一批会话
+     *
+     * @return 实际结算的会话数（已被结束的会话不计）
+     */
+    public int settle(final List<String> sessionIds) {
+        Collections.sort(sessionIds);
+        List<FocusSessionPO> settled = transactionTemplate.execute(new TransactionCallback<List<FocusSessionPO>>() {
+            @Override
+            public List<FocusSessionPO> doInTransaction(TransactionStatus status) {
+                List<FocusSessionPO> running = focusSessionMapper.lockRunningBySessionIds(sessionIds);
+                if (running.isEmpty()) {
+                    return running;
+                }
+                List<String> runningIds = new ArrayList<>(running.size());
+                Instant now = Instant.now();
+                TreeMap<String, FocusStatsPO> statsByUser = new TreeMap<>();
+                TreeMap<String, FocusDailyRollupPO> rollups = new TreeMap<>();
+                for (FocusSessionPO po : running) {
+                    runningIds.add(po.getSessionId());
+                    FocusStatsPO stats = statsByUser.get(po.getUserId());
+                    if (stats == null) {
+                        stats = new FocusStatsPO();
+                        stats.setUserId(po.getUserId());
+                        stats.setTotalSeconds(0L);
+                        stats.setSessionCount(0);
+                        stats.setCreatedAt(now);
+                        stats.setUpdatedAt(now);
+                        statsByUser.put(po.getUserId(), stats);
+                    }
+                    stats.setTotalSeconds(stats.getTotalSeconds() + po.getDurationSeconds());
+                    stats.setTotalHours((int) (stats.getTotalSeconds() / 3600));
+                    stats.setSessionCount(stats.getSessionCount() + 1);
+                    FocusDailyRollupConverter.accumulate(rollups, po.getUserId(), po.getStartAt(), po.getType(),
+                            po.getDurationSeconds());
+                }
+                focusSessionMapper.settleNaturalBySessionIds(runningIds, now);
+                focusStatsMapper.incrementBatch(new ArrayList<>(statsByUser.values()));
+                focusDailyRollupMapper.incrementBatch(new ArrayList<>(rollups.values()));
+                return running;
+            }
+        });
+        if (settled == null) {
+            return 0;
+        }
+        for (FocusSessionPO po : settled) {
+            runningFocusSessionCache.markEnded(po.getUserId(), po.getSessionId());
+        }
+        return settled.size();
+    }
+}
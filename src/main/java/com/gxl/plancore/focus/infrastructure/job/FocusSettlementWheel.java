@@ -0,0 +1,151 @@
+package com.gxl.plancore.focus.infrastructure.job;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 专注会话结算时间轮（哈希时间轮）
+ * 以“预计结束时间 + 宽限期”为到期时间登记进行中的会话，由 {@link FocusSettlementJob} 每个刻度推进并取出到期会话
+ *   - 刻度：一个槽对应一个刻度，槽位 = 到期刻度 & (槽数 - 1)；槽数覆盖的时长大于最长专注时长，绝大多数会话在第一圈到期
+ *   - 登记/取消：O(1)；开始专注时登记，结束专注时取消（槽内条目惰性移除）
+ *   - 分片：只登记本节点分片（CRC32(user_id) % shardCount = shardIndex）的会话，与加载查询的分片规则一致
+ * 【假设】PRD 未指定分布式调度，按静态分片配置划分节点职责；即使分片配置重叠，结算时的行锁与状态条件也保证不会重复结算
+ */
+@Component
+public class FocusSettlementWheel {
+
+    /** 槽数（2 的幂），刻度为 1 秒时一圈约 68 分钟 */
+    private static final int WHEEL_SIZE = 4096;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final long graceMillis;
+    private final int shardCount;
+    private final int shardIndex;
+
+    /** 由 this 锁保护 */
+    private final List<List<Entry>> slots = new ArrayList<>(WHEEL_SIZE);
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    public FocusSettlementWheel(
+            @Value("${app.focus.settlement.tick-millis:1000}") long tickMillis,
+            @Value("${app.focus.settlement.grace-seconds:120}") long graceSeconds,
+            @Value("${app.focus.settlement.shard-count:1}") int shardCount,
+            @Value("${app.focus.settlement.shard-index:0}") int shardIndex) {
+        if (shardCount <= 0 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("专注结算分片配置无效: shardCount=" + shardCount
+                    + ", shardIndex=" + shardIndex);
+        }
+        this.tickMillis = tickMillis;
+        this.graceMillis = graceSeconds * 1000L;
+        this.shardCount = shardCount;
+        this.shardIndex = shardIndex;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            slots.add(new ArrayList<Entry>());
+        }
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * 判断用户是否属于本节点分片
+     */
+    public boolean owns(String userId) {
+        CRC32 crc = new CRC32();
+        crc.update(userId.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue() % shardCount == shardIndex;
+    }
+
+    /**
+     * 登记进行中的会话（非本分片或已登记时忽略）
+     *
+     * @param sessionId     会话ID
+     * @param userId        用户ID
+     * @param expectedEndAt 预计结束时间
+     */
+    public synchronized void schedule(String sessionId, String userId, Instant expectedEndAt) {
+        if (!owns(userId) || entries.containsKey(sessionId)) {
+            return;
+        }
+        long deadlineTick = Math.max((expectedEndAt.toEpochMilli() + graceMillis) / tickMillis, currentTick + 1);
+        Entry entry = new Entry(sessionId, deadlineTick);
+        entries.put(sessionId, entry);
+        slots.get((int) (deadlineTick & MASK)).add(entry);
+    }
+
+    /**
+     * 取消登记（会话已结束）
+     */
+    public synchronized void cancel(String sessionId) {
+        Entry entry = entries.remove(sessionId);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * 推进到当前时间，取出到期的会话ID
+     * 落后超过一圈时只需遍历一圈槽位
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @return 到期会话ID
+     */
+    public synchronized List<String> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<String> due = new ArrayList<>();
+        if (nowTick <= currentTick) {
+            return due;
+        }
+        long fromTick = Math.max(currentTick + 1, nowTick - MASK);
+        for (long tick = fromTick; tick <= nowTick; tick++) {
+            Iterator<Entry> it = slots.get((int) (tick & MASK)).iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.cancelled) {
+                    it.remove();
+                } else if (entry.deadlineTick <= nowTick) {
+                    it.remove();
+                    entries.remove(entry.sessionId);
+                    due.add(entry.sessionId);
+                }
+            }
+        }
+        currentTick = nowTick;
+        return due;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final String sessionId;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        Entry(String sessionId, long deadlineTick) {
+            this.sessionId = sessionId;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
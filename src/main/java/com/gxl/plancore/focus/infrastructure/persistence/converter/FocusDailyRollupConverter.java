@@ -0,0 +1,60 @@
+package com.gxl.plancore.focus.infrastructure.persistence.converter;
+
+import com.gxl.plancore.focus.domain.valueobject.FocusDailyCount;
+import com.gxl.plancore.focus.domain.valueobject.FocusType;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusDailyRollupPO;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * 专注日汇总 PO/值对象转换器
+ */
+public class FocusDailyRollupConverter {
+
+    private FocusDailyRollupConverter() {
+    }
+
+    /**
+     * 会话归属日期：开始时间所在的本地日期（与任务/打卡的“今天”使用同一时区）
+     */
+    public static LocalDate dateOf(Instant startAt) {
+        return startAt.atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * 把一次计入的会话累加到按 (userId, date, type) 归并的增量中
+     * key 与 uk_user_date_type 列顺序一致，使用 TreeMap 时按 values() 顺序写入即可保证加锁顺序一致
+     */
+    public static void accumulate(Map<String, FocusDailyRollupPO> deltas, String userId, Instant startAt,
+                                  String type, long countedSeconds) {
+        String date = dateOf(startAt).toString();
+        String key = userId + "|" + date + "|" + type;
+        FocusDailyRollupPO po = deltas.get(key);
+        if (po == null) {
+            po = new FocusDailyRollupPO();
+            po.setUserId(userId);
+            po.setDate(date);
+            po.setType(type);
+            po.setFocusSeconds(0L);
+            po.setSessionCount(0);
+            deltas.put(key, po);
+        }
+        po.setFocusSeconds(po.getFocusSeconds() + countedSeconds);
+        po.setSessionCount(po.getSessionCount() + 1);
+    }
+
+    /**
+     * PO 转 值对象
+     */
+    public static FocusDailyCount toDomain(FocusDailyRollupPO po) {
+        return new FocusDailyCount(
+                LocalDate.parse(po.getDate()),
+                FocusType.valueOf(po.getType()),
+                po.getFocusSeconds() != null ? po.getFocusSeconds() : 0,
+                po.getSessionCount() != null ? po.getSessionCount() : 0
+        );
+    }
+}
@@ -0,0 +1,63 @@
+package com.gxl.plancore.focus.infrastructure.persistence.mapper;
+
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusDailyRollupPO;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusSessionPO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 专注日汇总 MyBatis Mapper
+ * 对应 focus_daily_rollup 表（按 user + date + type 维护的计入专注时长投影）
+ */
+@Mapper
+public interface FocusDailyRollupMapper {
+
+    /**
+     * 批量原子累加（多行 upsert）
+     * 调用方需按 key 排序传入，保证并发事务的加锁顺序一致
+     */
+    @Insert({"<script>",
+            "INSERT INTO focus_daily_rollup (user_id, date, type, focus_seconds, session_count) VALUES ",
+            "<foreach collection='list' item='r' separator=','>",
+            "(#{r.userId}, #{r.date}, #{r.type}, #{r.focusSeconds}, #{r.sessionCount})",
+            "</foreach>",
+            " ON DUPLICATE KEY UPDATE focus_seconds = focus_seconds + VALUES(focus_seconds), ",
+            "session_count = session_count + VALUES(session_count)",
+            "</script>"})
+    int incrementBatch(@Param("list") List<FocusDailyRollupPO> list);
+
+    /**
+     * 查询日期区间内的汇总行（走 uk_user_date_type 前缀范围扫描，最多 天数 × 类型数 行）
+     */
+    @Select("SELECT date, type, focus_seconds, session_count FROM focus_daily_rollup " +
+            "WHERE user_id = #{userId} AND date >= #{startDate} AND date <= #{endDate}")
+    List<FocusDailyRollupPO> selectByUserIdAndDateRange(@Param("userId") String userId,
+                                                        @Param("startDate") String startDate,
+                                                        @Param("endDate") String endDate);
+
+    /**
+     * 删除用户全部汇总行（重建前调用）
+     */
+    @Delete("DELETE FROM focus_daily_rollup WHERE user_id = #{userId}")
+    int deleteByUserId(@Param("userId") String userId);
+
+    /**
+     * 按 user_id 游标分页查询有专注会话的用户（重建遍历用）
+     */
+    @Select("<script>SELECT DISTINCT user_id FROM focus_session " +
+            "<if test='afterUserId != null'>WHERE user_id &gt; #{afterUserId} </if>" +
+            "ORDER BY user_id LIMIT #{limit}</script>")
+    List<String> selectFocusUserIds(@Param("afterUserId") String afterUserId, @Param("limit") int limit);
+
+    /**
+     * 查询用户全部计入的会话（重建用，只取聚合所需列）
+     */
+    @Select("SELECT type, start_at, counted_seconds FROM focus_session " +
+            "WHERE user_id = #{userId} AND counted = 1")
+    List<FocusSessionPO> selectCountedSessionsByUserId(@Param("userId") String userId);
+}
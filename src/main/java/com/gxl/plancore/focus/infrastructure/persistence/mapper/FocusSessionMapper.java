@@ -7,6 +7,9 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.time.Instant;
+import java.util.List;
+
 /**
  * 专注会话 MyBatis Mapper
  */
@@ -19,6 +22,15 @@ public interface FocusSessionMapper {
             "FROM focus_session WHERE session_id = #{sessionId}")
     FocusSessionPO findBySessionId(@Param("sessionId") String sessionId);
 
+    /**
+     * 加锁读取会话（当前读，可见事务快照之后其他事务已提交的结算结果）
+     */
+    @Select("SELECT id, session_id, user_id, duration_seconds, type, status, " +
+            "start_at, end_at, elapsed_seconds, end_type, counted, counted_seconds, " +
+            "created_at, updated_at " +
+            "FROM focus_session WHERE session_id = #{sessionId} FOR UPDATE")
+    FocusSessionPO lockBySessionId(@Param("sessionId") String sessionId);
+
     @Select("SELECT id, session_id, user_id, duration_seconds, type, status, " +
             "start_at, end_at, elapsed_seconds, end_type, counted, counted_seconds, " +
             "created_at, updated_at " +
@@ -26,6 +38,16 @@ public interface FocusSessionMapper {
             "ORDER BY created_at DESC LIMIT 1")
     FocusSessionPO findRunningSession(@Param("userId") String userId);
 
+    /**
+     * 加锁读取用户进行中的会话（当前读，锁住该用户 RUNNING 范围，并发开始专注在此串行）
+     */
+    @Select("SELECT id, session_id, user_id, duration_seconds, type, status, " +
+            "start_at, end_at, elapsed_seconds, end_type, counted, counted_seconds, " +
+            "created_at, updated_at " +
+            "FROM focus_session WHERE user_id = #{userId} AND status = 'RUNNING' " +
+            "ORDER BY created_at DESC LIMIT 1 FOR UPDATE")
+    FocusSessionPO lockRunningSession(@Param("userId") String userId);
+
     @Insert("INSERT INTO focus_session (session_id, user_id, duration_seconds, type, status, " +
             "start_at, end_at, elapsed_seconds, end_type, counted, counted_seconds, " +
             "created_at, updated_at) " +
@@ -38,6 +60,42 @@ public interface FocusSessionMapper {
             "elapsed_seconds = #{elapsedSeconds}, end_type = #{endType}, " +
             "counted = #{counted}, counted_seconds = #{countedSeconds}, " +
             "updated_at = #{updatedAt} " +
-            "WHERE session_id = #{sessionId}")
+            "WHERE session_id = #{sessionId} AND status = 'RUNNING'")
     int update(FocusSessionPO po);
+
+    /**
+     * 分页查询本分片的进行中会话（自动结算加载用，按主键游标翻页）
+     * 分片规则：CRC32(user_id) % shardCount = shardIndex
+     */
+    @Select("SELECT id, session_id, user_id, duration_seconds, start_at FROM focus_session " +
+            "WHERE status = 'RUNNING' AND id > #{afterId} " +
+            "AND MOD(CRC32(user_id), #{shardCount}) = #{shardIndex} " +
+            "ORDER BY id LIMIT #{limit}")
+    List<FocusSessionPO> selectRunningForSettlement(@Param("afterId") long afterId,
+                                                    @Param("shardCount") int shardCount,
+                                                    @Param("shardIndex") int shardIndex,
+                                                    @Param("limit") int limit);
+
+    /**
+     * 锁定仍在进行中的会话（调用方按 sessionId 排序传入，保证加锁顺序一致）
+     */
+    @Select({"<script>",
+            "SELECT session_id, user_id, duration_seconds, type, start_at FROM focus_session ",
+            "WHERE status = 'RUNNING' AND session_id IN ",
+            "<foreach collection='sessionIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            " FOR UPDATE",
+            "</script>"})
+    List<FocusSessionPO> lockRunningBySessionIds(@Param("sessionIds") List<String> sessionIds);
+
+    /**
+     * 批量按“自然结束”结算：已完成秒数与计入秒数均为预设时长
+     */
+    @Update({"<script>",
+            "UPDATE focus_session SET status = 'COMPLETED', end_at = #{now}, ",
+            "elapsed_seconds = duration_seconds, end_type = 'NATURAL', ",
+            "counted = 1, counted_seconds = duration_seconds, updated_at = #{now} ",
+            "WHERE status = 'RUNNING' AND session_id IN ",
+            "<foreach collection='sessionIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    int settleNaturalBySessionIds(@Param("sessionIds") List<String> sessionIds, @Param("now") Instant now);
 }
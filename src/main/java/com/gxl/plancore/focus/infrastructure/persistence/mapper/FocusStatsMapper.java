@@ -5,7 +5,9 @@ import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
-import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.annotations.SelectKey;
+
+import java.util.List;
 
 /**
  * 用户专注统计 MyBatis Mapper
@@ -18,15 +20,34 @@ public interface FocusStatsMapper {
             "FROM user_focus_stats WHERE user_id = #{userId}")
     FocusStatsPO findByUserId(@Param("userId") String userId);
 
+    /**
+     * 原子累加专注时长（首次专注时插入，已有记录时在原值上累加）
+     * 更新分支通过 LAST_INSERT_ID(expr) 把累加后的总秒数带回，由 SelectKey 在同一连接读取（不访问表）写回 po.totalSeconds；
+     * 插入分支 LAST_INSERT_ID() 为自增主键，调用方需按返回的影响行数区分：1=插入，2=更新
+     */
     @Insert("INSERT INTO user_focus_stats (user_id, total_seconds, total_hours, session_count, " +
             "created_at, updated_at) " +
-            "VALUES (#{userId}, #{totalSeconds}, #{totalHours}, #{sessionCount}, " +
-            "#{createdAt}, #{updatedAt})")
-    int insert(FocusStatsPO po);
+            "VALUES (#{userId}, #{totalSeconds}, #{totalHours}, 1, #{createdAt}, #{updatedAt}) " +
+            "ON DUPLICATE KEY UPDATE total_seconds = LAST_INSERT_ID(total_seconds + VALUES(total_seconds)), " +
+            "total_hours = total_seconds DIV 3600, session_count = session_count + 1, " +
+            "updated_at = VALUES(updated_at)")
+    @SelectKey(statement = "SELECT LAST_INSERT_ID()", keyProperty = "totalSeconds",
+            before = false, resultType = Long.class)
+    int upsertAddFocusTime(FocusStatsPO po);
 
-    @Update("UPDATE user_focus_stats SET total_seconds = #{totalSeconds}, " +
-            "total_hours = #{totalHours}, session_count = #{sessionCount}, " +
-            "updated_at = #{updatedAt} " +
-            "WHERE user_id = #{userId}")
-    int update(FocusStatsPO po);
+    /**
+     * 批量原子累加专注时长（多行 upsert，自动结算使用）
+     * 调用方需按 userId 排序传入，保证并发事务的加锁顺序一致
+     */
+    @Insert({"<script>",
+            "INSERT INTO user_focus_stats (user_id, total_seconds, total_hours, session_count, ",
+            "created_at, updated_at) VALUES ",
+            "<foreach collection='list' item='s' separator=','>",
+            "(#{s.userId}, #{s.totalSeconds}, #{s.totalHours}, #{s.sessionCount}, #{s.createdAt}, #{s.updatedAt})",
+            "</foreach>",
+            " ON DUPLICATE KEY UPDATE total_seconds = total_seconds + VALUES(total_seconds), ",
+            "total_hours = total_seconds DIV 3600, session_count = session_count + VALUES(session_count), ",
+            "updated_at = VALUES(updated_at)",
+            "</script>"})
+    int incrementBatch(@Param("list") List<FocusStatsPO> list);
 }
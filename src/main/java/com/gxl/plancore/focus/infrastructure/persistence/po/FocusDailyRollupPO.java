@@ -0,0 +1,55 @@
+package com.gxl.plancore.focus.infrastructure.persistence.po;
+
+/**
+ * 专注日汇总持久化对象
+ * 对应数据库 focus_daily_rollup 表
+ */
+public class FocusDailyRollupPO {
+
+    private String userId;
+    private String date;
+    private String type;
+    private Long focusSeconds;
+    private Integer sessionCount;
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getFocusSeconds() {
+        return focusSeconds;
+    }
+
+    public void setFocusSeconds(Long focusSeconds) {
+        this.focusSeconds = focusSeconds;
+    }
+
+    public Integer getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(Integer sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+}
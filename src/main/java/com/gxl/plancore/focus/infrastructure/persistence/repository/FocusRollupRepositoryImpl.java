@@ -0,0 +1,46 @@
+package com.gxl.plancore.focus.infrastructure.persistence.repository;
+
+import com.gxl.plancore.focus.domain.entity.FocusSession;
+import com.gxl.plancore.focus.domain.repository.FocusRollupRepository;
+import com.gxl.plancore.focus.domain.valueobject.FocusDailyCount;
+import com.gxl.plancore.focus.infrastructure.persistence.converter.FocusDailyRollupConverter;
+import com.gxl.plancore.focus.infrastructure.persistence.mapper.FocusDailyRollupMapper;
+import com.gxl.plancore.focus.infrastructure.persistence.po.FocusDailyRollupPO;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * 专注日汇总仓储实现
+ */
+@Repository
+public class FocusRollupRepositoryImpl implements FocusRollupRepository {
+
+    private final FocusDailyRollupMapper focusDailyRollupMapper;
+
+    public FocusRollupRepositoryImpl(FocusDailyRollupMapper focusDailyRollupMapper) {
+        this.focusDailyRollupMapper = focusDailyRollupMapper;
+    }
+
+    @Override
+    public void add(FocusSession session) {
+        TreeMap<String, FocusDailyRollupPO> deltas = new TreeMap<>();
+        FocusDailyRollupConverter.accumulate(deltas, session.getUserId(), session.getStartAt(),
+                session.getType().name(), session.getCountedSeconds());
+        focusDailyRollupMapper.incrementBatch(new ArrayList<>(deltas.values()));
+    }
+
+    @Override
+    public List<FocusDailyCount> findByDateRange(String userId, LocalDate startDate, LocalDate endDate) {
+        List<FocusDailyRollupPO> poList = focusDailyRollupMapper.selectByUserIdAndDateRange(
+                userId, startDate.toString(), endDate.toString());
+        List<FocusDailyCount> result = new ArrayList<>(poList.size());
+        for (FocusDailyRollupPO po : poList) {
+            result.add(FocusDailyRollupConverter.toDomain(po));
+        }
+        return result;
+    }
+}
@@ -3,46 +3,123 @@ package com.gxl.plancore.focus.infrastructure.persistence.repository;
 import com.gxl.plancore.focus.domain.entity.FocusSession;
 import com.gxl.plancore.focus.domain.repository.FocusSessionRepository;
 import com.gxl.plancore.focus.domain.valueobject.SessionId;
+import com.gxl.plancore.focus.infrastructure.cache.RunningFocusSessionCache;
+import com.gxl.plancore.focus.infrastructure.job.FocusSettlementWheel;
 import com.gxl.plancore.focus.infrastructure.persistence.converter.FocusSessionConverter;
 import com.gxl.plancore.focus.infrastructure.persistence.mapper.FocusSessionMapper;
 import com.gxl.plancore.focus.infrastructure.persistence.po.FocusSessionPO;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
 /**
  * 专注会话仓储实现
+ * 新会话登记到结算时间轮，会话结束时取消登记
+ * 进行中会话查询优先读取 {@link RunningFocusSessionCache}，缓存写入在事务提交后进行，回滚时失效
  */
 @Repository
 public class FocusSessionRepositoryImpl implements FocusSessionRepository {
 
     private final FocusSessionMapper focusSessionMapper;
+    private final FocusSettlementWheel focusSettlementWheel;
+    private final RunningFocusSessionCache runningFocusSessionCache;
 
-    public FocusSessionRepositoryImpl(FocusSessionMapper focusSessionMapper) {
+    public FocusSessionRepositoryImpl(FocusSessionMapper focusSessionMapper,
+                                      FocusSettlementWheel focusSettlementWheel,
+                                      RunningFocusSessionCache runningFocusSessionCache) {
         this.focusSessionMapper = focusSessionMapper;
+        this.focusSettlementWheel = focusSettlementWheel;
+        this.runningFocusSessionCache = runningFocusSessionCache;
     }
 
     @Override
     public Optional<FocusSession> findBySessionId(SessionId sessionId) {
-        FocusSessionPO po = focusSessionMapper.findBySessionId(sessionId.getValue());
+        FocusSessionPO po = runningFocusSessionCache.getBySessionId(sessionId.getValue());
+        if (po == null) {
+            po = focusSessionMapper.findBySessionId(sessionId.getValue());
+        }
         return Optional.ofNullable(FocusSessionConverter.toDomain(po));
     }
 
+    @Override
+    public Optional<FocusSession> lockBySessionId(SessionId sessionId) {
+        return Optional.ofNullable(FocusSessionConverter.toDomain(focusSessionMapper.lockBySessionId(sessionId.getValue())));
+    }
+
     @Override
     public Optional<FocusSession> findRunningSession(String userId) {
+        RunningFocusSessionCache.Entry cached = runningFocusSessionCache.getByUserId(userId);
+        if (cached != null) {
+            return Optional.ofNullable(FocusSessionConverter.toDomain(cached.getSession()));
+        }
+        long version = runningFocusSessionCache.currentVersion();
         FocusSessionPO po = focusSessionMapper.findRunningSession(userId);
+        runningFocusSessionCache.putIfUnchanged(userId, po, version);
         return Optional.ofNullable(FocusSessionConverter.toDomain(po));
     }
 
+    @Override
+    public Optional<FocusSession> lockRunningSession(String userId) {
+        return Optional.ofNullable(FocusSessionConverter.toDomain(focusSessionMapper.lockRunningSession(userId)));
+    }
+
     @Override
     public void save(FocusSession session) {
-        FocusSessionPO po = FocusSessionConverter.toPO(session);
+        final FocusSessionPO po = FocusSessionConverter.toPO(session);
         focusSessionMapper.insert(po);
+        focusSettlementWheel.schedule(session.getSessionId().getValue(), session.getUserId(),
+                session.getExpectedEndAt());
+        final String userId = session.getUserId();
+        afterCompletion(userId, new Runnable() {
+            @Override
+            public void run() {
+                runningFocusSessionCache.put(userId, po);
+            }
+        });
     }
 
     @Override
-    public void update(FocusSession session) {
+    public boolean update(FocusSession session) {
         FocusSessionPO po = FocusSessionConverter.toPO(session);
-        focusSessionMapper.update(po);
+        boolean updated = focusSessionMapper.update(po) > 0;
+        final String userId = session.getUserId();
+        final String sessionId = session.getSessionId().getValue();
+        if (session.isEnded()) {
+            focusSettlementWheel.cancel(sessionId);
+        }
+        if (!updated) {
+            // 缓存中的会话已被其他流程结束，失效后由调用方重新查库
+            runningFocusSessionCache.invalidate(userId);
+        } else if (session.isEnded()) {
+            afterCompletion(userId, new Runnable() {
+                @Override
+                public void run() {
+                    runningFocusSessionCache.markEnded(userId, sessionId);
+                }
+            });
+        }
+        return updated;
+    }
+
+    /**
+     * 事务提交后执行缓存写入，回滚时失效该用户缓存；不在事务中时立即写入
+     */
+    private void afterCompletion(final String userId, final Runnable onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    runningFocusSessionCache.invalidate(userId);
+                }
+            }
+        });
     }
 }
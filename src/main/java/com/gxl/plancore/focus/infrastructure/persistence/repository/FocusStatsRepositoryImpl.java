@@ -7,6 +7,7 @@ import com.gxl.plancore.focus.infrastructure.persistence.mapper.FocusStatsMapper
 import com.gxl.plancore.focus.infrastructure.persistence.po.FocusStatsPO;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -28,14 +29,16 @@ public class FocusStatsRepositoryImpl implements FocusStatsRepository {
     }
 
     @Override
-    public void save(FocusStats stats) {
-        FocusStatsPO po = FocusStatsConverter.toPO(stats);
-        focusStatsMapper.insert(po);
-    }
-
-    @Override
-    public void update(FocusStats stats) {
-        FocusStatsPO po = FocusStatsConverter.toPO(stats);
-        focusStatsMapper.update(po);
+    public long addFocusTime(String userId, int countedSeconds) {
+        Instant now = Instant.now();
+        FocusStatsPO po = new FocusStatsPO();
+        po.setUserId(userId);
+        po.setTotalSeconds((long) countedSeconds);
+        po.setTotalHours(countedSeconds / 3600);
+        po.setCreatedAt(now);
+        po.setUpdatedAt(now);
+        int affectedRows = focusStatsMapper.upsertAddFocusTime(po);
+        // 1=首次插入，总时长即本次秒数；2=在已有记录上累加，总时长由 LAST_INSERT_ID 带回
+        return affectedRows == 1 ? countedSeconds : po.getTotalSeconds();
     }
 }
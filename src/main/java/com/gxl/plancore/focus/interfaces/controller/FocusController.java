@@ -4,17 +4,25 @@ import com.gxl.plancore.common.response.ApiResponse;
 import com.gxl.plancore.focus.application.command.EndFocusCommand;
 import com.gxl.plancore.focus.application.command.StartFocusCommand;
 import com.gxl.plancore.focus.application.dto.EndFocusResult;
+import com.gxl.plancore.focus.application.dto.FocusDayStat;
+import com.gxl.plancore.focus.application.dto.FocusStatsResult;
+import com.gxl.plancore.focus.application.dto.FocusTypeStat;
 import com.gxl.plancore.focus.application.dto.StartFocusResult;
 import com.gxl.plancore.focus.application.service.FocusApplicationService;
 import com.gxl.plancore.focus.domain.entity.FocusStats;
 import com.gxl.plancore.focus.interfaces.dto.EndFocusRequest;
 import com.gxl.plancore.focus.interfaces.dto.EndFocusResponse;
+import com.gxl.plancore.focus.interfaces.dto.FocusDayStatResponse;
+import com.gxl.plancore.focus.interfaces.dto.FocusStatsResponse;
+import com.gxl.plancore.focus.interfaces.dto.FocusTypeStatResponse;
 import com.gxl.plancore.focus.interfaces.dto.StartFocusRequest;
 import com.gxl.plancore.focus.interfaces.dto.StartFocusResponse;
 import com.gxl.plancore.focus.interfaces.dto.TotalFocusTimeResponse;
 import com.gxl.plancore.user.application.service.AuthService;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -25,6 +33,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -130,4 +139,42 @@ public class FocusController {
 
                 return ApiResponse.success(response);
         }
+
+        /**
+         * 查询专注统计（周/月图表与类型分布）
+         * GET /api/v1/focus/stats?dimension=WEEK&date=2026-02-12
+         */
+        @GetMapping("/stats")
+        public ApiResponse<FocusStatsResponse> getFocusStats(
+                        HttpServletRequest httpRequest,
+                        @RequestParam("dimension") String dimension,
+                        @RequestParam(value = "date", required = false) String date) {
+                log.info("收到查询专注统计请求: dimension={}, date={}", dimension, date);
+
+                // 从拦截器设置的请求属性中获取用户ID
+                String userId = (String) httpRequest.getAttribute("userId");
+
+                FocusStatsResult result = focusApplicationService.queryFocusStats(userId, dimension, date);
+
+                // 构建响应
+                List<FocusDayStatResponse> days = new ArrayList<>();
+                for (FocusDayStat day : result.getDays()) {
+                        days.add(new FocusDayStatResponse(day.getDate(), day.getFocusSeconds(), day.getSessionCount()));
+                }
+                List<FocusTypeStatResponse> types = new ArrayList<>();
+                for (FocusTypeStat type : result.getTypes()) {
+                        types.add(new FocusTypeStatResponse(type.getType(), type.getFocusSeconds(),
+                                        type.getSessionCount()));
+                }
+                FocusStatsResponse response = new FocusStatsResponse(
+                                result.getDimension(),
+                                result.getStartDate(),
+                                result.getEndDate(),
+                                result.getTotalSeconds(),
+                                result.getSessionCount(),
+                                days,
+                                types);
+
+                return ApiResponse.success(response);
+        }
 }
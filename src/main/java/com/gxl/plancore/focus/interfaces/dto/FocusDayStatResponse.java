@@ -0,0 +1,47 @@
+package com.gxl.plancore.focus.interfaces.dto;
+
+/**
+ * 专注日统计响应 DTO
+ */
+public class FocusDayStatResponse {
+
+    /** 日期 YYYY-MM-DD */
+    private String date;
+    /** 计入的专注时长（秒） */
+    private long focusSeconds;
+    /** 计入的会话次数 */
+    private int sessionCount;
+
+    public FocusDayStatResponse() {
+    }
+
+    public FocusDayStatResponse(String date, long focusSeconds, int sessionCount) {
+        this.date = date;
+        this.focusSeconds = focusSeconds;
+        this.sessionCount = sessionCount;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public long getFocusSeconds() {
+        return focusSeconds;
+    }
+
+    public void setFocusSeconds(long focusSeconds) {
+        this.focusSeconds = focusSeconds;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(int sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+}
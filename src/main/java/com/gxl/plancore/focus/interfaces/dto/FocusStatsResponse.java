@@ -0,0 +1,94 @@
+package com.gxl.plancore.focus.interfaces.dto;
+
+import java.util.List;
+
+/**
+ * 专注统计响应 DTO
+ */
+public class FocusStatsResponse {
+
+    /** 查询维度 WEEK / MONTH */
+    private String dimension;
+    /** 区间起始日期 */
+    private String startDate;
+    /** 区间结束日期 */
+    private String endDate;
+    /** 区间内计入的专注总时长（秒） */
+    private long totalSeconds;
+    /** 区间内计入的会话总次数 */
+    private int sessionCount;
+    /** 按日统计（区间内每天一项） */
+    private List<FocusDayStatResponse> days;
+    /** 按专注类型统计（按时长降序） */
+    private List<FocusTypeStatResponse> types;
+
+    public FocusStatsResponse() {
+    }
+
+    public FocusStatsResponse(String dimension, String startDate, String endDate, long totalSeconds,
+                              int sessionCount, List<FocusDayStatResponse> days, List<FocusTypeStatResponse> types) {
+        this.dimension = dimension;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalSeconds = totalSeconds;
+        this.sessionCount = sessionCount;
+        this.days = days;
+        this.types = types;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(String endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getTotalSeconds() {
+        return totalSeconds;
+    }
+
+    public void setTotalSeconds(long totalSeconds) {
+        this.totalSeconds = totalSeconds;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(int sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+
+    public List<FocusDayStatResponse> getDays() {
+        return days;
+    }
+
+    public void setDays(List<FocusDayStatResponse> days) {
+        this.days = days;
+    }
+
+    public List<FocusTypeStatResponse> getTypes() {
+        return types;
+    }
+
+    public void setTypes(List<FocusTypeStatResponse> types) {
+        this.types = types;
+    }
+}
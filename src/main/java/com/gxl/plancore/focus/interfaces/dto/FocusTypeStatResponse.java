@@ -0,0 +1,47 @@
+package com.gxl.plancore.focus.interfaces.dto;
+
+/**
+ * 专注类型统计响应 DTO
+ */
+public class FocusTypeStatResponse {
+
+    /** 专注类型 */
+    private String type;
+    /** 计入的专注时长（秒） */
+    private long focusSeconds;
+    /** 计入的会话次数 */
+    private int sessionCount;
+
+    public FocusTypeStatResponse() {
+    }
+
+    public FocusTypeStatResponse(String type, long focusSeconds, int sessionCount) {
+        this.type = type;
+        this.focusSeconds = focusSeconds;
+        this.sessionCount = sessionCount;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getFocusSeconds() {
+        return focusSeconds;
+    }
+
+    public void setFocusSeconds(long focusSeconds) {
+        this.focusSeconds = focusSeconds;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(int sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+}
@@ -0,0 +1,25 @@
+package com.gxl.plancore.task.application.command;
+
+import java.util.List;
+
+/**
+ * 批量任务操作命令
+ */
+public class BatchTaskCommand {
+
+    private final String userId;
+    private final List<BatchTaskOperation> operations;
+
+    public BatchTaskCommand(String userId, List<BatchTaskOperation> operations) {
+        this.userId = userId;
+        this.operations = operations;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public List<BatchTaskOperation> getOperations() {
+        return operations;
+    }
+}
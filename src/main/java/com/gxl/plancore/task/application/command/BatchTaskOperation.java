@@ -0,0 +1,49 @@
+package com.gxl.plancore.task.application.command;
+
+/**
+ * 批量任务操作项
+ * type 取值：CREATE / UPDATE / TOGGLE / DELETE，其余字段按类型取用
+ */
+public class BatchTaskOperation {
+
+    private final String type;
+    private final String taskId;
+    private final String title;
+    private final String priority;
+    private final String date;
+    private final Boolean completed;
+
+    public BatchTaskOperation(String type, String taskId, String title,
+                              String priority, String date, Boolean completed) {
+        this.type = type;
+        this.taskId = taskId;
+        this.title = title;
+        this.priority = priority;
+        this.date = date;
+        this.completed = completed;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+}
@@ -9,12 +9,21 @@ public class CreateTaskCommand {
     private final String title;
     private final String priority;
     private final String date;
+    private final String repeatType;
+    private final String repeatConfig;
 
     public CreateTaskCommand(String userId, String title, String priority, String date) {
+        this(userId, title, priority, date, null, null);
+    }
+
+    public CreateTaskCommand(String userId, String title, String priority, String date,
+                             String repeatType, String repeatConfig) {
         this.userId = userId;
         this.title = title;
         this.priority = priority;
         this.date = date;
+        this.repeatType = repeatType;
+        this.repeatConfig = repeatConfig;
     }
 
     public String getUserId() {
@@ -32,4 +41,12 @@ public class CreateTaskCommand {
     public String getDate() {
         return date;
     }
+
+    public String getRepeatType() {
+        return repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
 }
@@ -0,0 +1,57 @@
+package com.gxl.plancore.task.application.dto;
+
+import com.gxl.plancore.common.response.ErrorCode;
+
+/**
+ * 批量操作单项结果 DTO
+ */
+public class BatchOperationResult {
+
+    /** 操作在请求列表中的下标 */
+    private final int index;
+    /** 操作类型 */
+    private final String type;
+    /** 任务ID（CREATE 为新生成的任务ID） */
+    private final String taskId;
+    /** 结果码，0 表示成功 */
+    private final int code;
+    /** 结果描述 */
+    private final String message;
+
+    public BatchOperationResult(int index, String type, String taskId, int code, String message) {
+        this.index = index;
+        this.type = type;
+        this.taskId = taskId;
+        this.code = code;
+        this.message = message;
+    }
+
+    public static BatchOperationResult success(int index, String type, String taskId) {
+        return new BatchOperationResult(index, type, taskId,
+                ErrorCode.SUCCESS.getCode(), ErrorCode.SUCCESS.getMessage());
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isSuccess() {
+        return code == ErrorCode.SUCCESS.getCode();
+    }
+}
@@ -0,0 +1,31 @@
+package com.gxl.plancore.task.application.dto;
+
+import java.util.List;
+
+/**
+ * 批量任务操作结果 DTO
+ */
+public class BatchTaskResult {
+
+    private final int successCount;
+    private final int failureCount;
+    private final List<BatchOperationResult> results;
+
+    public BatchTaskResult(int successCount, int failureCount, List<BatchOperationResult> results) {
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+        this.results = results;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    public List<BatchOperationResult> getResults() {
+        return results;
+    }
+}
@@ -15,15 +15,20 @@ public class CreateTaskResult {
     private final String status;
     private final LocalDate date;
     private final Instant createdAt;
+    private final String repeatType;
+    private final String repeatConfig;
 
     public CreateTaskResult(String taskId, String title, String priority,
-                            String status, LocalDate date, Instant createdAt) {
+                            String status, LocalDate date, Instant createdAt,
+                            String repeatType, String repeatConfig) {
         this.taskId = taskId;
         this.title = title;
         this.priority = priority;
         this.status = status;
         this.date = date;
         this.createdAt = createdAt;
+        this.repeatType = repeatType;
+        this.repeatConfig = repeatConfig;
     }
 
     public String getTaskId() {
@@ -49,4 +54,12 @@ public class CreateTaskResult {
     public Instant getCreatedAt() {
         return createdAt;
     }
+
+    public String getRepeatType() {
+        return repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
 }
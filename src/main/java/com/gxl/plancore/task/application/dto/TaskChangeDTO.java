@@ -0,0 +1,104 @@
+package com.gxl.plancore.task.application.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * 任务变更 DTO
+ * 增量同步中的单条变更；deleted 为 true 时为墓碑记录，仅携带 taskId、date、updatedAt、deletedAt 及重复实例标识
+ * 重复模板（repeatType != NONE）以普通变更下发，客户端据此在本地展开；
+ * 重复实例携带 repeatParentId、repeatDate，客户端在该天不再展开对应模板
+ */
+public class TaskChangeDTO {
+
+    private final String taskId;
+    private final boolean deleted;
+    private final String title;
+    private final String priority;
+    private final String status;
+    private final LocalDate date;
+    private final Instant createdAt;
+    private final Instant completedAt;
+    private final Instant updatedAt;
+    private final Instant deletedAt;
+    private final String repeatType;
+    private final String repeatConfig;
+    private final String repeatParentId;
+    private final LocalDate repeatDate;
+
+    public TaskChangeDTO(String taskId, boolean deleted, String title, String priority, String status,
+                         LocalDate date, Instant createdAt, Instant completedAt,
+                         Instant updatedAt, Instant deletedAt,
+                         String repeatType, String repeatConfig, String repeatParentId, LocalDate repeatDate) {
+        this.taskId = taskId;
+        this.deleted = deleted;
+        this.title = title;
+        this.priority = priority;
+        this.status = status;
+        this.date = date;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.updatedAt = updatedAt;
+        this.deletedAt = deletedAt;
+        this.repeatType = repeatType;
+        this.repeatConfig = repeatConfig;
+        this.repeatParentId = repeatParentId;
+        this.repeatDate = repeatDate;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public String getRepeatType() {
+        return repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
+
+    public String getRepeatParentId() {
+        return repeatParentId;
+    }
+
+    public LocalDate getRepeatDate() {
+        return repeatDate;
+    }
+}
@@ -0,0 +1,31 @@
+package com.gxl.plancore.task.application.dto;
+
+import java.util.List;
+
+/**
+ * 任务增量同步结果 DTO
+ */
+public class TaskChangesResult {
+
+    private final List<TaskChangeDTO> changes;
+    private final String nextCursor;
+    private final boolean hasMore;
+
+    public TaskChangesResult(List<TaskChangeDTO> changes, String nextCursor, boolean hasMore) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<TaskChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
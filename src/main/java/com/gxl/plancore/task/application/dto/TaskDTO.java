@@ -16,9 +16,10 @@ public class TaskDTO {
     private final LocalDate date;
     private final Instant createdAt;
     private final Instant completedAt;
+    private final boolean repeat;
 
     public TaskDTO(String taskId, String title, String priority, String status,
-                   LocalDate date, Instant createdAt, Instant completedAt) {
+                   LocalDate date, Instant createdAt, Instant completedAt, boolean repeat) {
         this.taskId = taskId;
         this.title = title;
         this.priority = priority;
@@ -26,6 +27,7 @@ public class TaskDTO {
         this.date = date;
         this.createdAt = createdAt;
         this.completedAt = completedAt;
+        this.repeat = repeat;
     }
 
     public String getTaskId() {
@@ -55,4 +57,8 @@ public class TaskDTO {
     public Instant getCompletedAt() {
         return completedAt;
     }
+
+    public boolean isRepeat() {
+        return repeat;
+    }
 }
@@ -0,0 +1,31 @@
+package com.gxl.plancore.task.application.dto;
+
+import java.util.List;
+
+/**
+ * 任务分页结果 DTO
+ */
+public class TaskPageResult {
+
+    private final List<TaskDTO> tasks;
+    private final String nextCursor;
+    private final boolean hasMore;
+
+    public TaskPageResult(List<TaskDTO> tasks, String nextCursor, boolean hasMore) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<TaskDTO> getTasks() {
+        return tasks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
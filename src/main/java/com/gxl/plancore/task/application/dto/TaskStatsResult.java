@@ -26,11 +26,16 @@ public class TaskStatsResult {
     private final List<TaskDTO> completedTasks;
     /** 未完成任务列表 */
     private final List<TaskDTO> incompleteTasks;
+    /** 已完成任务列表下一页游标（无下一页为 null） */
+    private final String completedNextCursor;
+    /** 未完成任务列表下一页游标（无下一页为 null） */
+    private final String incompleteNextCursor;
 
     public TaskStatsResult(String dimension, String startDate, String endDate,
                            int totalCompleted, int totalTasks, double totalCompletionRate,
                            List<ChartDataItem> chartData,
-                           List<TaskDTO> completedTasks, List<TaskDTO> incompleteTasks) {
+                           List<TaskDTO> completedTasks, List<TaskDTO> incompleteTasks,
+                           String completedNextCursor, String incompleteNextCursor) {
         this.dimension = dimension;
         this.startDate = startDate;
         this.endDate = endDate;
@@ -40,6 +45,8 @@ public class TaskStatsResult {
         this.chartData = chartData;
         this.completedTasks = completedTasks;
         this.incompleteTasks = incompleteTasks;
+        this.completedNextCursor = completedNextCursor;
+        this.incompleteNextCursor = incompleteNextCursor;
     }
 
     public String getDimension() {
@@ -77,4 +84,12 @@ public class TaskStatsResult {
     public List<TaskDTO> getIncompleteTasks() {
         return incompleteTasks;
     }
+
+    public String getCompletedNextCursor() {
+        return completedNextCursor;
+    }
+
+    public String getIncompleteNextCursor() {
+        return incompleteNextCursor;
+    }
 }
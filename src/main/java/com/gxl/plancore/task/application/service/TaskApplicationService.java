@@ -1,38 +1,57 @@
 package com.gxl.plancore.task.application.service;
 
 import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.gxl.plancore.common.exception.BusinessException;
 import com.gxl.plancore.common.response.ErrorCode;
+import com.gxl.plancore.task.application.command.BatchTaskCommand;
+import com.gxl.plancore.task.application.command.BatchTaskOperation;
 import com.gxl.plancore.task.application.command.CreateTaskCommand;
 import com.gxl.plancore.task.application.command.UpdateTaskCommand;
+import com.gxl.plancore.task.application.dto.BatchOperationResult;
+import com.gxl.plancore.task.application.dto.BatchTaskResult;
 import com.gxl.plancore.task.application.dto.ChartDataItem;
 import com.gxl.plancore.task.application.dto.CreateTaskResult;
 import com.gxl.plancore.task.application.dto.DeleteTaskResult;
 import com.gxl.plancore.task.application.dto.PerDateTaskData;
+import com.gxl.plancore.task.application.dto.TaskChangeDTO;
+import com.gxl.plancore.task.application.dto.TaskChangesResult;
 import com.gxl.plancore.task.application.dto.TaskDTO;
 import com.gxl.plancore.task.application.dto.TaskListResult;
+import com.gxl.plancore.task.application.dto.TaskPageResult;
 import com.gxl.plancore.task.application.dto.TaskStatsResult;
 import com.gxl.plancore.task.application.dto.ToggleCompleteResult;
 import com.gxl.plancore.task.application.dto.UpdateTaskResult;
 import com.gxl.plancore.task.domain.entity.Task;
 import com.gxl.plancore.task.domain.repository.TaskRepository;
+import com.gxl.plancore.task.domain.valueobject.RepeatRule;
+import com.gxl.plancore.task.domain.valueobject.RepeatType;
+import com.gxl.plancore.task.domain.valueobject.TaskCountMatrix;
 import com.gxl.plancore.task.domain.valueobject.TaskDateCount;
+import com.gxl.plancore.task.domain.valueobject.TaskPageCursor;
 import com.gxl.plancore.task.domain.valueobject.TaskPriority;
+import com.gxl.plancore.task.domain.valueobject.TaskRangeVersion;
 import com.gxl.plancore.task.domain.valueobject.TaskStatus;
+import com.gxl.plancore.task.domain.valueobject.TaskSyncCursor;
+import com.gxl.plancore.task.domain.valueobject.VirtualTaskId;
 
 /**
  * 任务应用服务
@@ -52,8 +71,37 @@ public class TaskApplicationService {
     /** 单日任务数上限 */
     private static final int DAILY_TASK_LIMIT = 50;
 
+    /** 批量操作单次上限 */
+    private static final int BATCH_MAX_OPERATIONS = 100;
+
+    /** 批量操作类型 */
+    private static final String BATCH_CREATE = "CREATE";
+    private static final String BATCH_UPDATE = "UPDATE";
+    private static final String BATCH_TOGGLE = "TOGGLE";
+    private static final String BATCH_DELETE = "DELETE";
+
+    /** 增量同步单页默认条数 / 上限 */
+    private static final int CHANGES_DEFAULT_LIMIT = 200;
+    private static final int CHANGES_MAX_LIMIT = 500;
+
+    /** 统计视图任务明细默认每页条数 */
+    private static final int STATS_PAGE_DEFAULT_LIMIT = 50;
+
+    /** 统计视图任务明细最大每页条数 */
+    private static final int STATS_PAGE_MAX_LIMIT = 200;
+
+    /** 导出区间最大天数 */
+    private static final int EXPORT_MAX_DAYS = 366;
+
     private final TaskRepository taskRepository;
 
+    /**
+     * 增量同步沉淀窗口（毫秒）：只返回 updated_at 早于 now - 窗口的变更
+     * 避免并发事务晚提交、updated_at 较小的变更落在已下发游标之前而被漏掉
+     */
+    @Value("${app.task.changes.settle-millis:1000}")
+    private long changesSettleMillis;
+
     public TaskApplicationService(TaskRepository taskRepository) {
         this.taskRepository = taskRepository;
     }
@@ -78,7 +126,14 @@ public class TaskApplicationService {
         // 3. 校验日期
         LocalDate date = validateDate(command.getDate());
 
-        // 4. 校验单日任务数上限
+        // 4. 校验重复设置（重复模板只存 1 行，查询时虚拟展开）
+        RepeatType repeatType = validateRepeatType(command.getRepeatType());
+        String repeatConfig = null;
+        if (repeatType != RepeatType.NONE) {
+            repeatConfig = validateRepeatRule(repeatType, command.getRepeatConfig(), date).normalizedConfig();
+        }
+
+        // 5. 校验单日任务数上限
         int count = taskRepository.countByUserIdAndDate(command.getUserId(), date.toString());
         if (count >= DAILY_TASK_LIMIT) {
             log.warn("创建任务失败: 单日任务数超出上限, userId={}, date={}, count={}",
@@ -86,22 +141,25 @@ public class TaskApplicationService {
             throw new BusinessException(ErrorCode.TASK_DAILY_LIMIT);
         }
 
-        // 5. 创建任务实体
-        Task task = Task.create(command.getUserId(), command.getTitle().trim(), priority, date);
+        // 6. 创建任务实体
+        Task task = Task.create(command.getUserId(), command.getTitle().trim(), priority, date,
+                repeatType, repeatConfig);
 
-        // 6. 持久化
+        // 7. 持久化
         taskRepository.save(task);
 
-        log.info("创建任务成功: taskId={}, userId={}", task.getTaskId(), task.getUserId());
+        log.info("创建任务成功: taskId={}, userId={}, repeatType={}", task.getTaskId(), task.getUserId(), repeatType);
 
-        // 7. 构建结果
+        // 8. 构建结果
         return new CreateTaskResult(
                 task.getTaskId(),
                 task.getTitle(),
                 task.getPriority().name(),
                 task.getStatus().name(),
                 task.getDate(),
-                task.getCreatedAt()
+                task.getCreatedAt(),
+                task.getRepeatType().name(),
+                task.getRepeatConfig()
         );
     }
 
@@ -156,7 +214,8 @@ public class TaskApplicationService {
                     task.getStatus().name(),
                     task.getDate(),
                     task.getCreatedAt(),
-                    task.getCompletedAt()
+                    task.getCompletedAt(),
+                    task.isVirtual() || task.isRepeatInstance()
             );
             tasksMap.get(priorityKey).add(dto);
         }
@@ -261,7 +320,8 @@ public class TaskApplicationService {
                         task.getStatus().name(),
                         task.getDate(),
                         task.getCreatedAt(),
-                        task.getCompletedAt()
+                        task.getCompletedAt(),
+                        task.isVirtual() || task.isRepeatInstance()
                 );
                 tasksMap.get(priorityKey).add(dto);
             }
@@ -274,6 +334,50 @@ public class TaskApplicationService {
         return new TaskListResult(dataByDate);
     }
 
+    /**
+     * 流式导出日期区间内的任务（含重复模板展开的虚拟任务）
+     * 分批读取、逐条回调，不在内存中汇总整个区间；不开启事务，写出到客户端期间不占用数据库连接
+     *
+     * @param userId       用户ID
+     * @param startDateStr 起始日期 YYYY-MM-DD
+     * @param endDateStr   结束日期 YYYY-MM-DD（区间最长 366 天）
+     * @param sink         逐条接收任务 DTO
+     * @return 导出条数
+     */
+    public int exportTasks(String userId, String startDateStr, String endDateStr, final Consumer<TaskDTO> sink) {
+        log.info("导出任务: userId={}, startDate={}, endDate={}", userId, startDateStr, endDateStr);
+
+        // 1. 校验日期区间
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            startDate = LocalDate.parse(startDateStr);
+            endDate = LocalDate.parse(endDateStr);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "日期格式必须为 YYYY-MM-DD");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "endDate 不能早于 startDate");
+        }
+        if (startDate.plusDays(EXPORT_MAX_DAYS - 1).isBefore(endDate)) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "导出区间最长 " + EXPORT_MAX_DAYS + " 天");
+        }
+
+        // 2. 逐条转换并回调
+        final int[] count = {0};
+        taskRepository.streamByUserIdAndDateRange(userId, startDate.toString(), endDate.toString(),
+                new Consumer<Task>() {
+                    @Override
+                    public void accept(Task task) {
+                        sink.accept(toTaskDTO(task));
+                        count[0]++;
+                    }
+                });
+
+        log.info("导出任务完成: userId={}, count={}", userId, count[0]);
+        return count[0];
+    }
+
     /**
      * 更新任务
      *
@@ -284,8 +388,8 @@ public class TaskApplicationService {
     public UpdateTaskResult updateTask(UpdateTaskCommand command) {
         log.info("更新任务: userId={}, taskId={}", command.getUserId(), command.getTaskId());
 
-        // 1. 查找任务
-        java.util.Optional<Task> taskOpt = taskRepository.findByTaskId(command.getTaskId());
+        // 1. 查找任务（虚拟任务按需实例化）
+        java.util.Optional<Task> taskOpt = findTaskForMutation(command.getUserId(), command.getTaskId());
         if (taskOpt.isEmpty()) {
             log.warn("更新任务失败: 任务不存在, taskId={}", command.getTaskId());
             throw new BusinessException(ErrorCode.TASK_NOT_FOUND);
@@ -323,7 +427,7 @@ public class TaskApplicationService {
         // 5. 持久化
         taskRepository.update(task);
 
-        log.info("更新任务成功: taskId={}", task.getTaskId());
+        log.info("更新任务成功: taskId={}, requestTaskId={}", task.getTaskId(), command.getTaskId());
 
         return new UpdateTaskResult(
                 task.getTaskId(),
@@ -345,8 +449,8 @@ public class TaskApplicationService {
     public DeleteTaskResult deleteTask(String userId, String taskId) {
         log.info("删除任务: userId={}, taskId={}", userId, taskId);
 
-        // 1. 查找任务（不存在视为已删除，幂等返回成功）
-        java.util.Optional<Task> taskOpt = taskRepository.findByTaskId(taskId);
+        // 1. 查找任务（不存在视为已删除，幂等返回成功；虚拟任务按需实例化后删除，作为该天的墓碑）
+        java.util.Optional<Task> taskOpt = findTaskForMutation(userId, taskId);
         if (taskOpt.isEmpty()) {
             log.info("删除任务: 任务不存在或已删除, taskId={}", taskId);
             return new DeleteTaskResult(0);
@@ -361,7 +465,7 @@ public class TaskApplicationService {
         }
 
         // 3. 逻辑删除
-        int deletedCount = taskRepository.softDelete(taskId);
+        int deletedCount = taskRepository.softDelete(userId, task.getTaskId());
 
         log.info("删除任务成功: taskId={}, deletedCount={}", taskId, deletedCount);
         return new DeleteTaskResult(deletedCount);
@@ -379,8 +483,8 @@ public class TaskApplicationService {
     public ToggleCompleteResult toggleComplete(String userId, String taskId, boolean completed) {
         log.info("完成/反完成任务: userId={}, taskId={}, completed={}", userId, taskId, completed);
 
-        // 1. 查找任务
-        java.util.Optional<Task> taskOpt = taskRepository.findByTaskId(taskId);
+        // 1. 查找任务（虚拟任务按需实例化）
+        java.util.Optional<Task> taskOpt = findTaskForMutation(userId, taskId);
         if (taskOpt.isEmpty()) {
             log.warn("完成/反完成任务失败: 任务不存在, taskId={}", taskId);
             throw new BusinessException(ErrorCode.TASK_NOT_FOUND);
@@ -393,6 +497,7 @@ public class TaskApplicationService {
             log.warn("完成/反完成任务失败: 任务不属于当前用户, taskId={}, userId={}", taskId, userId);
             throw new BusinessException(ErrorCode.TASK_NOT_FOUND);
         }
+        assertNotRepeatTemplate(task);
 
         // 3. 切换完成状态
         if (completed) {
@@ -404,7 +509,7 @@ public class TaskApplicationService {
         // 4. 持久化
         taskRepository.update(task);
 
-        log.info("完成/反完成任务成功: taskId={}, status={}", taskId, task.getStatus().name());
+        log.info("完成/反完成任务成功: taskId={}, status={}", task.getTaskId(), task.getStatus().name());
 
         return new ToggleCompleteResult(
                 task.getTaskId(),
@@ -413,105 +518,329 @@ public class TaskApplicationService {
         );
     }
 
+    /**
+     * 批量任务操作（单事务）
+     * 适用于客户端离线后回放多个创建/更新/完成/删除操作：
+     *   1. 一次 IN 查询加载所有目标任务，内存中校验归属
+     *   2. 按请求顺序在内存中逐条应用，单条校验失败只记录该条结果，不影响其他操作
+     *   3. 统一刷写：多行 INSERT + CASE 多行 UPDATE + 批量逻辑删除
+     *
+     * @param command 批量操作命令
+     * @return 逐条操作结果
+     */
+    @Transactional
+    public BatchTaskResult batchMutate(BatchTaskCommand command) {
+        String userId = command.getUserId();
+        List<BatchTaskOperation> operations = command.getOperations();
+        if (operations == null || operations.isEmpty()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "operations 不能为空");
+        }
+        if (operations.size() > BATCH_MAX_OPERATIONS) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "单次最多 " + BATCH_MAX_OPERATIONS + " 个操作");
+        }
+
+        log.info("批量任务操作: userId={}, operationCount={}", userId, operations.size());
+
+        // 1. 一次查询加载所有目标任务，过滤非本人任务；虚拟任务逐个按需实例化，以虚拟ID为 key
+        Set<String> targetTaskIds = new LinkedHashSet<>();
+        Set<String> virtualTaskIds = new LinkedHashSet<>();
+        for (BatchTaskOperation op : operations) {
+            if (!BATCH_CREATE.equals(op.getType()) && op.getTaskId() != null) {
+                if (VirtualTaskId.parse(op.getTaskId()) != null) {
+                    virtualTaskIds.add(op.getTaskId());
+                } else {
+                    targetTaskIds.add(op.getTaskId());
+                }
+            }
+        }
+        Map<String, Task> taskMap = new HashMap<>();
+        for (Task task : taskRepository.findByTaskIds(new ArrayList<>(targetTaskIds))) {
+            if (task.getUserId().equals(userId)) {
+                taskMap.put(task.getTaskId(), task);
+            }
+        }
+        for (String virtualTaskId : virtualTaskIds) {
+            Task instance = loadOccurrence(userId, VirtualTaskId.parse(virtualTaskId));
+            if (instance != null) {
+                taskMap.put(virtualTaskId, instance);
+            }
+        }
+
+        // 2. 内存中逐条应用
+        BatchContext context = new BatchContext(userId, taskMap);
+        List<BatchOperationResult> results = new ArrayList<>();
+        int successCount = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            BatchTaskOperation op = operations.get(i);
+            try {
+                String taskId = applyBatchOperation(context, op);
+                results.add(BatchOperationResult.success(i, op.getType(), taskId));
+                successCount++;
+            } catch (BusinessException e) {
+                log.warn("批量任务操作单项失败: userId={}, index={}, type={}, taskId={}, code={}",
+                        userId, i, op.getType(), op.getTaskId(), e.getCode());
+                results.add(new BatchOperationResult(i, op.getType(), op.getTaskId(), e.getCode(), e.getMessage()));
+            }
+        }
+
+        // 3. 统一刷写（已删除的任务不再单独更新）
+        for (String taskId : context.deletedTaskIds) {
+            context.dirtyTasks.remove(taskId);
+        }
+        taskRepository.saveAll(context.createdTasks);
+        taskRepository.updateAll(new ArrayList<>(context.dirtyTasks.values()));
+        taskRepository.softDeleteAll(userId, new ArrayList<>(context.deletedTaskIds));
+
+        log.info("批量任务操作完成: userId={}, created={}, updated={}, deleted={}, success={}, failure={}",
+                userId, context.createdTasks.size(), context.dirtyTasks.size(), context.deletedTaskIds.size(),
+                successCount, operations.size() - successCount);
+        return new BatchTaskResult(successCount, operations.size() - successCount, results);
+    }
+
+    /**
+     * 在内存中应用单个批量操作
+     *
+     * @return 操作涉及的任务ID
+     */
+    private String applyBatchOperation(BatchContext context, BatchTaskOperation op) {
+        String type = op.getType();
+        if (BATCH_CREATE.equals(type)) {
+            validateTitle(op.getTitle());
+            TaskPriority priority = validatePriority(op.getPriority());
+            LocalDate date = validateDate(op.getDate());
+
+            String dateKey = date.toString();
+            Integer count = context.dailyCounts.get(dateKey);
+            if (count == null) {
+                count = taskRepository.countByUserIdAndDate(context.userId, dateKey);
+            }
+            if (count >= DAILY_TASK_LIMIT) {
+                throw new BusinessException(ErrorCode.TASK_DAILY_LIMIT);
+            }
+            context.dailyCounts.put(dateKey, count + 1);
+
+            Task task = Task.create(context.userId, op.getTitle().trim(), priority, date);
+            context.createdTasks.add(task);
+            return task.getTaskId();
+        }
+
+        if (BATCH_DELETE.equals(type)) {
+            if (op.getTaskId() == null) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "taskId 不能为空");
+            }
+            // 幂等：不存在或已删除视为成功
+            Task removed = context.taskMap.remove(op.getTaskId());
+            if (removed != null) {
+                context.deletedTaskIds.add(removed.getTaskId());
+                return removed.getTaskId();
+            }
+            return op.getTaskId();
+        }
+
+        if (BATCH_UPDATE.equals(type)) {
+            Task task = requireBatchTask(context, op.getTaskId());
+
+            String newTitle = null;
+            if (op.getTitle() != null && !op.getTitle().trim().isEmpty()) {
+                validateTitle(op.getTitle());
+                newTitle = op.getTitle().trim();
+            }
+            TaskPriority newPriority = null;
+            if (op.getPriority() != null) {
+                newPriority = validatePriority(op.getPriority());
+            }
+            LocalDate newDate = null;
+            if (op.getDate() != null) {
+                newDate = validateDate(op.getDate());
+            }
+
+            task.updateInfo(newTitle, newPriority, newDate);
+            context.dirtyTasks.put(task.getTaskId(), task);
+            return task.getTaskId();
+        }
+
+        if (BATCH_TOGGLE.equals(type)) {
+            if (op.getCompleted() == null) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "completed 不能为空");
+            }
+            Task task = requireBatchTask(context, op.getTaskId());
+            assertNotRepeatTemplate(task);
+            if (op.getCompleted()) {
+                task.complete();
+            } else {
+                task.uncomplete();
+            }
+            context.dirtyTasks.put(task.getTaskId(), task);
+            return task.getTaskId();
+        }
+
+        throw new BusinessException(ErrorCode.BAD_REQUEST, "操作类型必须为 CREATE/UPDATE/TOGGLE/DELETE");
+    }
+
+    /**
+     * 查找待修改的任务
+     *   - 普通任务ID：按ID查询（不含已删除）
+     *   - 虚拟任务ID：返回该天的重复实例，尚未实例化时先实例化落库
+     */
+    private java.util.Optional<Task> findTaskForMutation(String userId, String taskId) {
+        VirtualTaskId virtualId = VirtualTaskId.parse(taskId);
+        if (virtualId == null) {
+            return taskRepository.findByTaskId(taskId);
+        }
+        return java.util.Optional.ofNullable(loadOccurrence(userId, virtualId));
+    }
+
+    /**
+     * 加载虚拟任务对应的重复实例，尚未实例化时实例化并落库
+     *
+     * @return 重复实例；模板不存在/已删除/不属于当前用户、该天不在规则内或该天实例已删除时返回 null
+     */
+    private Task loadOccurrence(String userId, VirtualTaskId virtualId) {
+        java.util.Optional<Task> templateOpt = taskRepository.findByTaskId(virtualId.getTemplateId());
+        if (templateOpt.isEmpty()) {
+            return null;
+        }
+        Task template = templateOpt.get();
+        if (!template.getUserId().equals(userId) || !template.isRepeatTemplate()
+                || !template.repeatRule().matches(virtualId.getDate())) {
+            return null;
+        }
+
+        java.util.Optional<Task> instanceOpt = taskRepository.findRepeatInstance(
+                template.getTaskId(), virtualId.getDate());
+        if (instanceOpt.isPresent()) {
+            Task instance = instanceOpt.get();
+            return instance.isDeleted() ? null : instance;
+        }
+
+        Task instance = Task.materialize(template, virtualId.getDate());
+        Task saved = taskRepository.saveRepeatInstanceIfAbsent(instance);
+        if (saved != instance) {
+            log.info("重复任务已被并发实例化: templateId={}, date={}, taskId={}",
+                    template.getTaskId(), virtualId.getDate(), saved.getTaskId());
+            return saved.isDeleted() ? null : saved;
+        }
+        log.info("实例化重复任务: templateId={}, date={}, taskId={}",
+                template.getTaskId(), virtualId.getDate(), instance.getTaskId());
+        return instance;
+    }
+
+    /**
+     * 重复模板只代表规则，不能直接完成/反完成（应操作具体某天的虚拟任务或实例）
+     */
+    private void assertNotRepeatTemplate(Task task) {
+        if (task.isRepeatTemplate()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "重复任务模板不能直接完成，请操作具体日期的任务");
+        }
+    }
+
+    /**
+     * 获取批量操作的目标任务（不存在、已删除或不属于当前用户均视为不存在）
+     */
+    private Task requireBatchTask(BatchContext context, String taskId) {
+        Task task = null;
+        if (taskId != null) {
+            task = context.taskMap.get(taskId);
+        }
+        if (task == null) {
+            throw new BusinessException(ErrorCode.TASK_NOT_FOUND);
+        }
+        return task;
+    }
+
+    /**
+     * 批量操作上下文（内存中的待刷写状态）
+     */
+    private static class BatchContext {
+
+        private final String userId;
+        /** 已加载的本人任务（删除后移除） */
+        private final Map<String, Task> taskMap;
+        /** 已查询/累加的单日任务数 */
+        private final Map<String, Integer> dailyCounts = new HashMap<>();
+        private final List<Task> createdTasks = new ArrayList<>();
+        private final Map<String, Task> dirtyTasks = new LinkedHashMap<>();
+        private final Set<String> deletedTaskIds = new LinkedHashSet<>();
+
+        BatchContext(String userId, Map<String, Task> taskMap) {
+            this.userId = userId;
+            this.taskMap = taskMap;
+        }
+    }
+
     /**
      * 查询任务统计视图（周/月维度）
      * 拆分为两次独立数据库查询以降低服务器压力：
-     *   查询1：COUNT + GROUP BY 聚合统计（轻量，仅返回计数）
-     *   查询2：仅查询当天（date 参数指定的那一天）的任务明细
+     *   查询1：周维度读取 task_daily_counter 日计数，月维度读取 task_rollup 周段汇总，单遍折叠为计数矩阵
+     *   查询2：已完成/未完成任务明细各取第一页（includeTasks = false 时跳过），后续页见 queryTaskStatsTasks
      *
      * @param userId       用户ID
-     * @param dateStr      基准日期字符串 YYYY-MM-DD（同时用于确定区间 + 查询当日明细）
+     * @param dateStr      基准日期字符串 YYYY-MM-DD（用于确定区间）
      * @param dimension    维度：WEEK 或 MONTH
      * @param prioritiesStr 优先级筛选，逗号分隔（可选，null 或空表示全部）
+     * @param includeTasks 是否返回任务明细列表
+     * @param pageSize     任务明细每页条数（为空取默认值）
      * @return 统计结果
      */
-    public TaskStatsResult queryTaskStats(String userId, String dateStr, String dimension, String prioritiesStr) {
-        log.info("查询任务统计: userId={}, date={}, dimension={}, priorities={}",
-                userId, dateStr, dimension, prioritiesStr);
+    public TaskStatsResult queryTaskStats(String userId, String dateStr, String dimension, String prioritiesStr,
+                                          boolean includeTasks, Integer pageSize) {
+        log.info("查询任务统计: userId={}, date={}, dimension={}, priorities={}, includeTasks={}, pageSize={}",
+                userId, dateStr, dimension, prioritiesStr, includeTasks, pageSize);
 
-        // 1. 校验维度
-        if (!"WEEK".equals(dimension) && !"MONTH".equals(dimension)) {
-            throw new BusinessException(ErrorCode.BAD_REQUEST, "维度参数必须为 WEEK 或 MONTH");
-        }
-
-        // 2. 校验日期
-        LocalDate date;
-        try {
-            date = LocalDate.parse(dateStr);
-        } catch (DateTimeParseException e) {
-            throw new BusinessException(ErrorCode.BAD_REQUEST, "日期格式必须为 YYYY-MM-DD");
-        }
+        // 1. 校验维度与日期，确定时间区间
+        LocalDate[] range = resolveStatsRange(dateStr, dimension);
+        LocalDate startDate = range[0];
+        LocalDate endDate = range[1];
 
-        // 3. 解析优先级筛选
+        // 2. 解析优先级筛选与分页大小
         Set<String> priorityFilter = parsePriorities(prioritiesStr);
+        int limit = resolveStatsPageLimit(pageSize);
 
-        // 4. 确定时间区间
-        LocalDate startDate;
-        LocalDate endDate;
+        // ========== 查询1：聚合统计（轻量级，只返回计数） ==========
+        // 周维度读 7 天日计数；月维度读月内周段预聚合（计数落在周段起始日，按周段求和结果不变）
+        List<TaskDateCount> allCounts;
         if ("WEEK".equals(dimension)) {
-            DayOfWeek dayOfWeek = date.getDayOfWeek();
-            startDate = date.minusDays(dayOfWeek.getValue() - 1);
-            endDate = startDate.plusDays(6);
+            allCounts = taskRepository.countGroupedByDateRange(userId, startDate.toString(), endDate.toString());
         } else {
-            startDate = date.withDayOfMonth(1);
-            endDate = date.withDayOfMonth(date.lengthOfMonth());
+            allCounts = taskRepository.countGroupedByMonthWeeks(userId, startDate);
         }
 
-        // ========== 查询1：聚合统计（轻量级，只返回计数） ==========
-        List<TaskDateCount> allCounts = taskRepository.countGroupedByDateRange(
-                userId, startDate.toString(), endDate.toString());
-
-        // 按优先级过滤计数
-        List<TaskDateCount> filteredCounts = filterCountsByPriorities(allCounts, priorityFilter);
+        // 单遍折叠为 [天][优先级][状态] 计数矩阵，优先级筛选以掩码参与求和
+        TaskCountMatrix matrix = TaskCountMatrix.fold(startDate, endDate, allCounts);
+        boolean[] priorityMask = TaskCountMatrix.priorityMask(priorityFilter);
 
         // 构建图表数据
         List<ChartDataItem> chartData;
         if ("WEEK".equals(dimension)) {
-            chartData = buildWeekChartDataFromCounts(startDate, filteredCounts);
+            chartData = buildWeekChartData(matrix, priorityMask);
         } else {
-            chartData = buildMonthChartDataFromCounts(startDate, endDate, filteredCounts);
+            chartData = buildMonthChartData(matrix, priorityMask);
         }
 
         // 计算总完成数和总任务数
-        int totalCompleted = 0;
-        int totalTasks = 0;
-        for (TaskDateCount tc : filteredCounts) {
-            totalTasks += tc.getCount();
-            if ("COMPLETED".equals(tc.getStatus())) {
-                totalCompleted += tc.getCount();
-            }
-        }
+        int lastDay = matrix.days() - 1;
+        int totalCompleted = matrix.sum(0, lastDay, priorityMask, TaskStatus.COMPLETED);
+        int totalTasks = totalCompleted + matrix.sum(0, lastDay, priorityMask, TaskStatus.INCOMPLETE);
         double totalCompletionRate = calculateRate(totalCompleted, totalTasks);
 
-        // ========== 查询2：查询时间区间内的任务明细（周维度=一周，月维度=一月） ==========
-        List<Task> rangeTasks = taskRepository.findByUserIdAndDateRange(
-                userId, startDate.toString(), endDate.toString());
-        List<Task> filteredRangeTasks = filterByPriorities(rangeTasks, priorityFilter);
-
-        // 分离已完成和未完成任务列表
-        List<TaskDTO> completedTasks = new ArrayList<>();
-        List<TaskDTO> incompleteTasks = new ArrayList<>();
-
-        for (Task task : filteredRangeTasks) {
-            TaskDTO dto = new TaskDTO(
-                    task.getTaskId(),
-                    task.getTitle(),
-                    task.getPriority().name(),
-                    task.getStatus().name(),
-                    task.getDate(),
-                    task.getCreatedAt(),
-                    task.getCompletedAt()
-            );
-
-            if (task.getStatus() == TaskStatus.COMPLETED) {
-                completedTasks.add(dto);
-            } else {
-                incompleteTasks.add(dto);
-            }
+        if (!includeTasks) {
+            log.info("查询任务统计完成(不含明细): userId={}, dimension={}, range=[{}, {}], totalTasks={}, totalCompleted={}",
+                    userId, dimension, startDate, endDate, totalTasks, totalCompleted);
+            return new TaskStatsResult(dimension, startDate.toString(), endDate.toString(),
+                    totalCompleted, totalTasks, totalCompletionRate, chartData,
+                    new ArrayList<TaskDTO>(), new ArrayList<TaskDTO>(), null, null);
         }
 
-        log.info("查询任务统计完成: userId={}, dimension={}, range=[{}, {}], totalTasks={}, totalCompleted={}, rangeTasks={}",
-                userId, dimension, startDate, endDate, totalTasks, totalCompleted, filteredRangeTasks.size());
+        // ========== 查询2：已完成/未完成任务明细各取第一页 ==========
+        TaskPageResult completedPage = loadTaskPage(userId, startDate, endDate,
+                TaskStatus.COMPLETED, priorityFilter, null, limit);
+        TaskPageResult incompletePage = loadTaskPage(userId, startDate, endDate,
+                TaskStatus.INCOMPLETE, priorityFilter, null, limit);
+
+        log.info("查询任务统计完成: userId={}, dimension={}, range=[{}, {}], totalTasks={}, totalCompleted={}, "
+                        + "completedPage={}, incompletePage={}",
+                userId, dimension, startDate, endDate, totalTasks, totalCompleted,
+                completedPage.getTasks().size(), incompletePage.getTasks().size());
 
         return new TaskStatsResult(
                 dimension,
@@ -521,11 +850,227 @@ public class TaskApplicationService {
                 totalTasks,
                 totalCompletionRate,
                 chartData,
-                completedTasks,
-                incompleteTasks
+                completedPage.getTasks(),
+                incompletePage.getTasks(),
+                completedPage.getNextCursor(),
+                incompletePage.getNextCursor()
         );
     }
 
+    /**
+     * 分页查询统计视图的任务明细（已完成或未完成列表的后续页）
+     * 按 (date, created_at, id) 键集分页，不加载计数与整月任务
+     *
+     * @param userId        用户ID
+     * @param dateStr       基准日期字符串 YYYY-MM-DD（用于确定区间）
+     * @param dimension     维度：WEEK 或 MONTH
+     * @param statusStr     列表状态：COMPLETED 或 INCOMPLETE
+     * @param prioritiesStr 优先级筛选，逗号分隔（可选）
+     * @param cursorStr     上一页返回的游标（为空表示第一页）
+     * @param pageSize      每页条数（为空取默认值）
+     * @return 任务分页结果
+     */
+    public TaskPageResult queryTaskStatsTasks(String userId, String dateStr, String dimension, String statusStr,
+                                              String prioritiesStr, String cursorStr, Integer pageSize) {
+        log.info("分页查询统计任务明细: userId={}, date={}, dimension={}, status={}, cursor={}, pageSize={}",
+                userId, dateStr, dimension, statusStr, cursorStr, pageSize);
+
+        // 1. 校验参数
+        LocalDate[] range = resolveStatsRange(dateStr, dimension);
+        TaskStatus status;
+        try {
+            status = TaskStatus.valueOf(statusStr);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "status 必须为 COMPLETED 或 INCOMPLETE");
+        }
+        int limit = resolveStatsPageLimit(pageSize);
+        TaskPageCursor cursor = null;
+        if (cursorStr != null && !cursorStr.trim().isEmpty()) {
+            try {
+                cursor = TaskPageCursor.decode(cursorStr.trim());
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "cursor 游标无效");
+            }
+        }
+
+        // 2. 查询一页
+        TaskPageResult page = loadTaskPage(userId, range[0], range[1], status,
+                parsePriorities(prioritiesStr), cursor, limit);
+
+        log.info("分页查询统计任务明细完成: userId={}, count={}, hasMore={}",
+                userId, page.getTasks().size(), page.isHasMore());
+        return page;
+    }
+
+    /**
+     * 查询一页任务明细：多取一条用于判断是否还有下一页
+     */
+    private TaskPageResult loadTaskPage(String userId, LocalDate startDate, LocalDate endDate, TaskStatus status,
+                                        Set<String> priorityFilter, TaskPageCursor cursor, int limit) {
+        List<Task> tasks = taskRepository.findPageByDateRange(userId, startDate.toString(), endDate.toString(),
+                status, priorityFilter, cursor, limit + 1);
+        boolean hasMore = tasks.size() > limit;
+        if (hasMore) {
+            tasks = tasks.subList(0, limit);
+        }
+
+        List<TaskDTO> dtos = new ArrayList<>();
+        for (Task task : tasks) {
+            dtos.add(toTaskDTO(task));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = TaskPageCursor.after(tasks.get(tasks.size() - 1)).encode();
+        }
+        return new TaskPageResult(dtos, nextCursor, hasMore);
+    }
+
+    /**
+     * 解析统计视图任务明细每页条数
+     */
+    private int resolveStatsPageLimit(Integer pageSize) {
+        if (pageSize == null) {
+            return STATS_PAGE_DEFAULT_LIMIT;
+        }
+        if (pageSize < 1 || pageSize > STATS_PAGE_MAX_LIMIT) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "pageSize 取值范围为 1-" + STATS_PAGE_MAX_LIMIT);
+        }
+        return pageSize;
+    }
+
+    /**
+     * 增量同步：查询游标之后新增、修改、删除的任务
+     * 已删除任务以墓碑形式返回；客户端以返回的 nextCursor 作为下次请求的 since
+     *
+     * @param userId 用户ID
+     * @param since  上次同步返回的游标（为空表示全量同步）
+     * @param limit  单页条数（为空取默认值）
+     * @return 变更列表与下一游标
+     */
+    public TaskChangesResult queryTaskChanges(String userId, String since, Integer limit) {
+        log.info("查询任务增量变更: userId={}, since={}, limit={}", userId, since, limit);
+
+        // 1. 校验参数
+        int pageSize = CHANGES_DEFAULT_LIMIT;
+        if (limit != null) {
+            if (limit < 1 || limit > CHANGES_MAX_LIMIT) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "limit 取值范围为 1-" + CHANGES_MAX_LIMIT);
+            }
+            pageSize = limit;
+        }
+        TaskSyncCursor cursor = null;
+        if (since != null && !since.trim().isEmpty()) {
+            try {
+                cursor = TaskSyncCursor.decode(since.trim());
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(ErrorCode.BAD_REQUEST, "since 游标无效");
+            }
+        }
+
+        // 2. 多取一条用于判断是否还有下一页
+        Instant until = Instant.now().minusMillis(changesSettleMillis);
+        List<Task> tasks = taskRepository.findChangedSince(userId, cursor, until, pageSize + 1);
+        boolean hasMore = tasks.size() > pageSize;
+        if (hasMore) {
+            tasks = tasks.subList(0, pageSize);
+        }
+
+        // 3. 转换为变更 DTO（已删除任务只保留墓碑字段）
+        List<TaskChangeDTO> changes = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.isDeleted()) {
+                changes.add(new TaskChangeDTO(task.getTaskId(), true, null, null, null,
+                        task.getDate(), null, null, task.getUpdatedAt(), task.getDeletedAt(),
+                        null, null, task.getRepeatParentId(), task.getRepeatDate()));
+            } else {
+                changes.add(new TaskChangeDTO(task.getTaskId(), false, task.getTitle(),
+                        task.getPriority().name(), task.getStatus().name(), task.getDate(),
+                        task.getCreatedAt(), task.getCompletedAt(), task.getUpdatedAt(), null,
+                        task.getRepeatType().name(), task.getRepeatConfig(),
+                        task.getRepeatParentId(), task.getRepeatDate()));
+            }
+        }
+
+        // 4. 下一游标：本页最后一条；无变更时沿用原游标
+        String nextCursor = since;
+        if (!tasks.isEmpty()) {
+            Task last = tasks.get(tasks.size() - 1);
+            nextCursor = new TaskSyncCursor(last.getUpdatedAt(), last.getTaskId()).encode();
+        }
+
+        log.info("查询任务增量变更完成: userId={}, count={}, hasMore={}", userId, changes.size(), hasMore);
+        return new TaskChangesResult(changes, nextCursor, hasMore);
+    }
+
+    /**
+     * 查询任务列表对应日期区间的版本戳（用于条件请求，不加载任务实体）
+     *
+     * @param userId      用户ID
+     * @param dateStrList 日期字符串列表 YYYY-MM-DD
+     * @return 版本戳
+     */
+    public TaskRangeVersion queryTasksVersion(String userId, List<String> dateStrList) {
+        if (dateStrList == null || dateStrList.isEmpty()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "dates 参数不能为空");
+        }
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        for (String dateStr : dateStrList) {
+            LocalDate d = validateDate(dateStr.trim());
+            if (minDate == null || d.isBefore(minDate)) {
+                minDate = d;
+            }
+            if (maxDate == null || d.isAfter(maxDate)) {
+                maxDate = d;
+            }
+        }
+        return taskRepository.findVersionByDateRange(userId, minDate.toString(), maxDate.toString());
+    }
+
+    /**
+     * 查询任务统计视图对应区间的版本戳（用于条件请求，不加载计数与任务实体）
+     *
+     * @param userId    用户ID
+     * @param dateStr   基准日期字符串 YYYY-MM-DD
+     * @param dimension 维度：WEEK 或 MONTH
+     * @return 版本戳
+     */
+    public TaskRangeVersion queryTaskStatsVersion(String userId, String dateStr, String dimension) {
+        LocalDate[] range = resolveStatsRange(dateStr, dimension);
+        return taskRepository.findVersionByDateRange(userId, range[0].toString(), range[1].toString());
+    }
+
+    /**
+     * 校验统计维度与基准日期，确定统计时间区间
+     * 周维度：ISO 周（周一~周日）；月维度：自然月
+     *
+     * @return [起始日期, 结束日期]
+     */
+    private LocalDate[] resolveStatsRange(String dateStr, String dimension) {
+        if (!"WEEK".equals(dimension) && !"MONTH".equals(dimension)) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "维度参数必须为 WEEK 或 MONTH");
+        }
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(dateStr);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "日期格式必须为 YYYY-MM-DD");
+        }
+
+        LocalDate startDate;
+        LocalDate endDate;
+        if ("WEEK".equals(dimension)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            startDate = date.minusDays(dayOfWeek.getValue() - 1);
+            endDate = startDate.plusDays(6);
+        } else {
+            startDate = date.withDayOfMonth(1);
+            endDate = date.withDayOfMonth(date.lengthOfMonth());
+        }
+        return new LocalDate[]{startDate, endDate};
+    }
+
     /**
      * 解析优先级筛选参数
      *
@@ -553,57 +1098,15 @@ public class TaskApplicationService {
     }
 
     /**
-     * 按优先级过滤计数数据
-     */
-    private List<TaskDateCount> filterCountsByPriorities(List<TaskDateCount> counts, Set<String> priorityFilter) {
-        if (priorityFilter.isEmpty()) {
-            return counts;
-        }
-        List<TaskDateCount> result = new ArrayList<>();
-        for (TaskDateCount tc : counts) {
-            if (priorityFilter.contains(tc.getPriority())) {
-                result.add(tc);
-            }
-        }
-        return result;
-    }
-
-    /**
-     * 按优先级过滤任务实体
-     */
-    private List<Task> filterByPriorities(List<Task> tasks, Set<String> priorityFilter) {
-        if (priorityFilter.isEmpty()) {
-            return tasks;
-        }
-        List<Task> result = new ArrayList<>();
-        for (Task task : tasks) {
-            if (priorityFilter.contains(task.getPriority().name())) {
-                result.add(task);
-            }
-        }
-        return result;
-    }
-
-    /**
-     * 从聚合计数构建周维度图表数据（每天一条记录）
+     * 从计数矩阵构建周维度图表数据（每天一条记录）
      */
-    private List<ChartDataItem> buildWeekChartDataFromCounts(LocalDate startDate, List<TaskDateCount> counts) {
+    private List<ChartDataItem> buildWeekChartData(TaskCountMatrix matrix, boolean[] priorityMask) {
         List<ChartDataItem> chartData = new ArrayList<>();
 
-        for (int i = 0; i < 7; i++) {
-            LocalDate day = startDate.plusDays(i);
-            int completed = 0;
-            int incomplete = 0;
-
-            for (TaskDateCount tc : counts) {
-                if (tc.getDate().equals(day)) {
-                    if ("COMPLETED".equals(tc.getStatus())) {
-                        completed += tc.getCount();
-                    } else {
-                        incomplete += tc.getCount();
-                    }
-                }
-            }
+        for (int i = 0; i < matrix.days(); i++) {
+            LocalDate day = matrix.getStartDate().plusDays(i);
+            int completed = matrix.sum(i, i, priorityMask, TaskStatus.COMPLETED);
+            int incomplete = matrix.sum(i, i, priorityMask, TaskStatus.INCOMPLETE);
 
             int total = completed + incomplete;
             double rate = calculateRate(completed, total);
@@ -614,14 +1117,13 @@ public class TaskApplicationService {
     }
 
     /**
-     * 从聚合计数构建月维度图表数据（按周分组）
+     * 从计数矩阵构建月维度图表数据（按周分组）
      * 第1周: 1-7日, 第2周: 8-14日, 第3周: 15-21日, 第4周: 22-28日, 第5周: 29日-月末
      */
-    private List<ChartDataItem> buildMonthChartDataFromCounts(LocalDate startDate, LocalDate endDate,
-                                                              List<TaskDateCount> counts) {
+    private List<ChartDataItem> buildMonthChartData(TaskCountMatrix matrix, boolean[] priorityMask) {
         List<ChartDataItem> chartData = new ArrayList<>();
 
-        int lastDay = endDate.getDayOfMonth();
+        int lastDay = matrix.days();
         int weekCount = lastDay > 28 ? 5 : 4;
 
         for (int week = 1; week <= weekCount; week++) {
@@ -633,19 +1135,9 @@ public class TaskApplicationService {
                 weekEndDay = week * 7;
             }
 
-            int completed = 0;
-            int incomplete = 0;
-
-            for (TaskDateCount tc : counts) {
-                int taskDay = tc.getDate().getDayOfMonth();
-                if (taskDay >= weekStartDay && taskDay <= weekEndDay) {
-                    if ("COMPLETED".equals(tc.getStatus())) {
-                        completed += tc.getCount();
-                    } else {
-                        incomplete += tc.getCount();
-                    }
-                }
-            }
+            // 月维度区间从 1 日开始，天下标 = 日 - 1
+            int completed = matrix.sum(weekStartDay - 1, weekEndDay - 1, priorityMask, TaskStatus.COMPLETED);
+            int incomplete = matrix.sum(weekStartDay - 1, weekEndDay - 1, priorityMask, TaskStatus.INCOMPLETE);
 
             int total = completed + incomplete;
             double rate = calculateRate(completed, total);
@@ -656,6 +1148,22 @@ public class TaskApplicationService {
         return chartData;
     }
 
+    /**
+     * 将任务实体转换为任务 DTO（虚拟任务与重复实例标记为 repeat）
+     */
+    private TaskDTO toTaskDTO(Task task) {
+        return new TaskDTO(
+                task.getTaskId(),
+                task.getTitle(),
+                task.getPriority().name(),
+                task.getStatus().name(),
+                task.getDate(),
+                task.getCreatedAt(),
+                task.getCompletedAt(),
+                task.isVirtual() || task.isRepeatInstance()
+        );
+    }
+
     /**
      * 计算完成率（百分比，保留2位小数）
      */
@@ -681,9 +1189,12 @@ public class TaskApplicationService {
 
     /**
      * 校验优先级
-     * 必须是 P0/P1/P2/P3
+     * 不能为空，必须是 P0/P1/P2/P3（批量操作中未经 DTO 校验，需在此判空）
      */
     private TaskPriority validatePriority(String priority) {
+        if (priority == null) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "优先级不能为空");
+        }
         try {
             return TaskPriority.valueOf(priority);
         } catch (IllegalArgumentException e) {
@@ -694,9 +1205,12 @@ public class TaskApplicationService {
 
     /**
      * 校验日期
-     * 格式 YYYY-MM-DD，范围 今天-365天 ~ 今天+365天
+     * 不能为空，格式 YYYY-MM-DD，范围 今天-365天 ~ 今天+365天
      */
     private LocalDate validateDate(String dateStr) {
+        if (dateStr == null) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "日期不能为空");
+        }
         LocalDate date;
         try {
             date = LocalDate.parse(dateStr);
@@ -716,4 +1230,33 @@ public class TaskApplicationService {
 
         return date;
     }
+
+    /**
+     * 校验重复类型
+     * 为空视为 NONE，否则必须是 NONE/DAILY/WEEKLY/MONTHLY
+     */
+    private RepeatType validateRepeatType(String repeatType) {
+        if (repeatType == null || repeatType.trim().isEmpty()) {
+            return RepeatType.NONE;
+        }
+        try {
+            return RepeatType.valueOf(repeatType.trim());
+        } catch (IllegalArgumentException e) {
+            log.warn("创建任务失败: 重复类型无效, repeatType={}", repeatType);
+            throw new BusinessException(ErrorCode.TASK_REPEAT_CONFIG_INVALID, "重复类型必须是 NONE/DAILY/WEEKLY/MONTHLY");
+        }
+    }
+
+    /**
+     * 校验重复配置
+     * WEEKLY 为逗号分隔的星期 1-7，MONTHLY 为月内日期 1-31，DAILY 无需配置
+     */
+    private RepeatRule validateRepeatRule(RepeatType repeatType, String repeatConfig, LocalDate startDate) {
+        try {
+            return RepeatRule.parse(repeatType, repeatConfig, startDate);
+        } catch (IllegalArgumentException e) {
+            log.warn("创建任务失败: 重复配置无效, repeatType={}, repeatConfig={}", repeatType, repeatConfig);
+            throw new BusinessException(ErrorCode.TASK_REPEAT_CONFIG_INVALID);
+        }
+    }
 }
@@ -2,14 +2,23 @@ package com.gxl.plancore.task.domain.entity;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import com.gxl.plancore.task.domain.valueobject.RepeatRule;
+import com.gxl.plancore.task.domain.valueobject.RepeatType;
 import com.gxl.plancore.task.domain.valueobject.TaskPriority;
 import com.gxl.plancore.task.domain.valueobject.TaskStatus;
+import com.gxl.plancore.task.domain.valueobject.VirtualTaskId;
 
 /**
  * 任务聚合根
  * 管理任务的创建、完成、删除等行为
+ * 重复任务采用"虚拟展开 + 按需实例化"：
+ *   - 重复模板：repeatType != NONE，只存 1 行，查询时按规则展开为虚拟任务（无数据库行）
+ *   - 重复实例：用户修改/完成/删除某天的虚拟任务时才落库，repeatParentId 指向模板，repeatDate 为原始重复日期
+ *   - 某天已有实例（含已删除）时，模板不再在该天展开
  */
 public class Task {
 
@@ -31,6 +40,14 @@ public class Task {
     private Instant updatedAt;
     private Instant deletedAt;
 
+    // 重复
+    private final RepeatType repeatType;
+    private final String repeatConfig;
+    private final String repeatParentId;
+    private final LocalDate repeatDate;
+    /** 是否为模板展开的虚拟任务（未落库） */
+    private final boolean virtual;
+
     /**
      * 创建任务（工厂方法）
      *
@@ -41,6 +58,22 @@ public class Task {
      * @return 新任务实体
      */
     public static Task create(String userId, String title, TaskPriority priority, LocalDate date) {
+        return create(userId, title, priority, date, RepeatType.NONE, null);
+    }
+
+    /**
+     * 创建任务（工厂方法，可指定重复规则）
+     *
+     * @param userId       用户ID
+     * @param title        任务标题
+     * @param priority     优先级
+     * @param date         归属日期（重复模板为起始日期）
+     * @param repeatType   重复类型
+     * @param repeatConfig 重复配置（已规范化）
+     * @return 新任务实体（repeatType != NONE 时为重复模板）
+     */
+    public static Task create(String userId, String title, TaskPriority priority, LocalDate date,
+                              RepeatType repeatType, String repeatConfig) {
         Instant now = Instant.now();
         return new Task(
                 UUID.randomUUID().toString(),
@@ -52,7 +85,40 @@ public class Task {
                 null,
                 now,
                 now,
-                null
+                null,
+                repeatType,
+                repeatConfig,
+                null,
+                null,
+                false
+        );
+    }
+
+    /**
+     * 实例化重复模板在某天的任务（用户首次修改该天的虚拟任务时调用）
+     *
+     * @param template 重复模板
+     * @param date     原始重复日期
+     * @return 新的重复实例（未持久化）
+     */
+    public static Task materialize(Task template, LocalDate date) {
+        Instant now = Instant.now();
+        return new Task(
+                UUID.randomUUID().toString(),
+                template.userId,
+                template.title,
+                template.priority,
+                date,
+                TaskStatus.INCOMPLETE,
+                null,
+                now,
+                now,
+                null,
+                RepeatType.NONE,
+                null,
+                template.taskId,
+                date,
+                false
         );
     }
 
@@ -62,16 +128,20 @@ public class Task {
     public static Task reconstitute(
             String taskId, String userId,
             String title, TaskPriority priority, LocalDate date, TaskStatus status,
-            Instant completedAt, Instant createdAt, Instant updatedAt, Instant deletedAt) {
+            Instant completedAt, Instant createdAt, Instant updatedAt, Instant deletedAt,
+            RepeatType repeatType, String repeatConfig, String repeatParentId, LocalDate repeatDate) {
         return new Task(
                 taskId, userId, title, priority, date, status,
-                completedAt, createdAt, updatedAt, deletedAt
+                completedAt, createdAt, updatedAt, deletedAt,
+                repeatType, repeatConfig, repeatParentId, repeatDate, false
         );
     }
 
     private Task(String taskId, String userId,
                  String title, TaskPriority priority, LocalDate date, TaskStatus status,
-                 Instant completedAt, Instant createdAt, Instant updatedAt, Instant deletedAt) {
+                 Instant completedAt, Instant createdAt, Instant updatedAt, Instant deletedAt,
+                 RepeatType repeatType, String repeatConfig, String repeatParentId, LocalDate repeatDate,
+                 boolean virtual) {
         this.taskId = taskId;
         this.userId = userId;
         this.title = title;
@@ -82,6 +152,47 @@ public class Task {
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.deletedAt = deletedAt;
+        this.repeatType = repeatType;
+        this.repeatConfig = repeatConfig;
+        this.repeatParentId = repeatParentId;
+        this.repeatDate = repeatDate;
+        this.virtual = virtual;
+    }
+
+    /**
+     * 展开重复模板在日期区间内的虚拟任务
+     * 规则只解析一次，逐日判断为位运算；已实例化的日期跳过
+     *
+     * @param startDate         起始日期（含）
+     * @param endDate           结束日期（含）
+     * @param materializedDates 该模板已有实例的原始重复日期（含已删除实例）
+     * @param out               虚拟任务输出列表
+     */
+    public void expandOccurrences(LocalDate startDate, LocalDate endDate,
+                                  Set<LocalDate> materializedDates, List<Task> out) {
+        if (!isRepeatTemplate() || isDeleted()) {
+            return;
+        }
+        RepeatRule rule = repeatRule();
+        LocalDate from = startDate.isAfter(rule.getStartDate()) ? startDate : rule.getStartDate();
+        LocalDate to = endDate.isBefore(rule.getEndDate()) ? endDate : rule.getEndDate();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            if (rule.matches(d) && (materializedDates == null || !materializedDates.contains(d))) {
+                out.add(new Task(
+                        VirtualTaskId.format(taskId, d),
+                        userId, title, priority, d, TaskStatus.INCOMPLETE,
+                        null, createdAt, updatedAt, null,
+                        RepeatType.NONE, null, taskId, d, true
+                ));
+            }
+        }
+    }
+
+    /**
+     * 解析重复规则（仅重复模板）
+     */
+    public RepeatRule repeatRule() {
+        return RepeatRule.parse(repeatType, repeatConfig, date);
     }
 
     /**
@@ -137,6 +248,27 @@ public class Task {
         return this.deletedAt != null;
     }
 
+    /**
+     * 判断是否为重复模板
+     */
+    public boolean isRepeatTemplate() {
+        return this.repeatType != RepeatType.NONE;
+    }
+
+    /**
+     * 判断是否为重复实例（已落库）
+     */
+    public boolean isRepeatInstance() {
+        return this.repeatParentId != null && !this.virtual;
+    }
+
+    /**
+     * 判断是否为模板展开的虚拟任务（未落库）
+     */
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
     // Getters
     public String getTaskId() {
         return taskId;
@@ -177,4 +309,20 @@ public class Task {
     public Instant getDeletedAt() {
         return deletedAt;
     }
+
+    public RepeatType getRepeatType() {
+        return repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
+
+    public String getRepeatParentId() {
+        return repeatParentId;
+    }
+
+    public LocalDate getRepeatDate() {
+        return repeatDate;
+    }
 }
@@ -1,10 +1,18 @@
 package com.gxl.plancore.task.domain.repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import com.gxl.plancore.task.domain.entity.Task;
 import com.gxl.plancore.task.domain.valueobject.TaskDateCount;
+import com.gxl.plancore.task.domain.valueobject.TaskPageCursor;
+import com.gxl.plancore.task.domain.valueobject.TaskRangeVersion;
+import com.gxl.plancore.task.domain.valueobject.TaskStatus;
+import com.gxl.plancore.task.domain.valueobject.TaskSyncCursor;
 
 /**
  * 任务仓储接口
@@ -19,6 +27,13 @@ public interface TaskRepository {
      */
     void save(Task task);
 
+    /**
+     * 批量保存任务（单条多行 INSERT）
+     *
+     * @param tasks 任务实体列表
+     */
+    void saveAll(List<Task> tasks);
+
     /**
      * 根据任务ID查询（不含已删除）
      *
@@ -27,6 +42,14 @@ public interface TaskRepository {
      */
     Optional<Task> findByTaskId(String taskId);
 
+    /**
+     * 根据任务ID列表批量查询（不含已删除，单条 IN 查询）
+     *
+     * @param taskIds 任务ID列表
+     * @return 任务实体列表（不保证顺序，不存在的任务不返回）
+     */
+    List<Task> findByTaskIds(List<String> taskIds);
+
     /**
      * 更新任务
      *
@@ -34,13 +57,30 @@ public interface TaskRepository {
      */
     void update(Task task);
 
+    /**
+     * 批量更新任务（单条 CASE 多行 UPDATE）
+     *
+     * @param tasks 任务实体列表
+     */
+    void updateAll(List<Task> tasks);
+
     /**
      * 逻辑删除任务
      *
+     * @param userId 任务所属用户ID（用于按用户失效缓存）
      * @param taskId 任务ID
      * @return 受影响的行数
      */
-    int softDelete(String taskId);
+    int softDelete(String userId, String taskId);
+
+    /**
+     * 批量逻辑删除任务
+     *
+     * @param userId  任务所属用户ID（用于按用户失效缓存）
+     * @param taskIds 任务ID列表
+     * @return 受影响的行数
+     */
+    int softDeleteAll(String userId, List<String> taskIds);
 
     /**
      * 统计某用户某天的任务数量（不含已删除）
@@ -53,6 +93,7 @@ public interface TaskRepository {
 
     /**
      * 查询某用户某天的任务列表（不含已删除，按创建时间升序）
+     * 结果包含重复模板在当天展开的虚拟任务，不包含模板本身
      *
      * @param userId 用户ID
      * @param date   归属日期
@@ -62,6 +103,7 @@ public interface TaskRepository {
 
     /**
      * 查询某用户日期范围内的任务列表（不含已删除，按日期升序、创建时间升序）
+     * 结果包含重复模板在区间内展开的虚拟任务，不包含模板本身
      *
      * @param userId    用户ID
      * @param startDate 起始日期（含）
@@ -70,9 +112,37 @@ public interface TaskRepository {
      */
     List<Task> findByUserIdAndDateRange(String userId, String startDate, String endDate);
 
+    /**
+     * 流式遍历某用户日期范围内的任务（不含已删除）
+     * 先按日期、创建时间升序逐行回调已落库任务，再逐个模板回调区间内展开的虚拟任务；
+     * 已落库任务按批键集分页读取，内存占用与区间大小无关；不应在事务内调用，
+     * 回调（如写出到慢速客户端）期间不占用数据库连接
+     *
+     * @param userId    用户ID
+     * @param startDate 起始日期（含）
+     * @param endDate   结束日期（含）
+     * @param consumer  逐条回调
+     */
+    void streamByUserIdAndDateRange(String userId, String startDate, String endDate, Consumer<Task> consumer);
+
+    /**
+     * 按状态分页查询日期范围内的任务（按日期、创建时间、taskId 升序，未完成状态含虚拟任务）
+     *
+     * @param userId     用户ID
+     * @param startDate  起始日期（含）
+     * @param endDate    结束日期（含）
+     * @param status     任务状态
+     * @param priorities 优先级筛选（空集合表示全部）
+     * @param cursor     分页游标（为 null 时从第一条开始，不含游标本身）
+     * @param limit      最大条数
+     * @return 任务列表
+     */
+    List<Task> findPageByDateRange(String userId, String startDate, String endDate, TaskStatus status,
+                                   Set<String> priorities, TaskPageCursor cursor, int limit);
+
     /**
      * 按日期范围聚合统计任务数量（不含已删除）
-     * 按 date + priority + status 分组，返回轻量计数结果
+     * 按 date + priority + status 分组，返回轻量计数结果（含虚拟任务，同一分组可能返回多条）
      *
      * @param userId    用户ID
      * @param startDate 起始日期（含）
@@ -80,4 +150,53 @@ public interface TaskRepository {
      * @return 分组计数列表
      */
     List<TaskDateCount> countGroupedByDateRange(String userId, String startDate, String endDate);
+
+    /**
+     * 查询日期范围内任务的版本戳（含已删除，用于条件请求判断数据是否变化）
+     *
+     * @param userId    用户ID
+     * @param startDate 起始日期（含）
+     * @param endDate   结束日期（含）
+     * @return 版本戳
+     */
+    TaskRangeVersion findVersionByDateRange(String userId, String startDate, String endDate);
+
+    /**
+     * 按月内周段查询某月的任务计数（读取预聚合汇总，每个周段每个优先级、状态至多一行）
+     * 周段计数的日期为周段起始日（1/8/15/22/29 日）；合并的虚拟任务计数为实际日期，同样落在所属周段内
+     *
+     * @param userId     用户ID
+     * @param monthStart 月份第一天
+     * @return 计数列表
+     */
+    List<TaskDateCount> countGroupedByMonthWeeks(String userId, LocalDate monthStart);
+
+    /**
+     * 查询游标之后变更过的任务（含已删除，按 updated_at、taskId 升序）
+     *
+     * @param userId 用户ID
+     * @param cursor 同步游标（为 null 时从头开始，不含游标本身）
+     * @param until  截止更新时间（含）
+     * @param limit  最大条数
+     * @return 任务列表（已删除任务 isDeleted() 为 true）
+     */
+    List<Task> findChangedSince(String userId, TaskSyncCursor cursor, Instant until, int limit);
+
+    /**
+     * 查询重复模板在某天的实例（含已删除）
+     *
+     * @param repeatParentId 重复模板任务ID
+     * @param repeatDate     原始重复日期
+     * @return 重复实例
+     */
+    Optional<Task> findRepeatInstance(String repeatParentId, LocalDate repeatDate);
+
+    /**
+     * 保存新实例化的重复实例
+     * 同一天的实例已被并发请求创建时不重复插入，返回已存在的实例（可能已删除）
+     *
+     * @param instance 新实例化的重复实例
+     * @return 实际落库的实例：插入成功时为 instance 本身，否则为已存在的实例
+     */
+    Task saveRepeatInstanceIfAbsent(Task instance);
 }
@@ -0,0 +1,120 @@
+package com.gxl.plancore.task.domain.valueobject;
+
+import java.time.LocalDate;
+
+/**
+ * 重复规则值对象
+ * 由重复模板的重复类型、重复配置与起始日期解析而来，解析时预计算星期位图 / 月内日期，
+ * 判断某天是否命中只做位运算与整数比较，按天遍历时不产生额外对象
+ *   - DAILY：每天，repeatConfig 为空
+ *   - WEEKLY：repeatConfig 为逗号分隔的 ISO 星期（1=周一 … 7=周日），如 "1,3,5"
+ *   - MONTHLY：repeatConfig 为月内日期 1-31，如 "1"；当月没有该日期时（如 2 月 30 日）跳过
+ * 有效区间：起始日期起 365 天（含起始日期）
+ */
+public class RepeatRule {
+
+    /** 单个重复模板最多展开天数 */
+    public static final int MAX_OCCURRENCE_DAYS = 365;
+
+    private final RepeatType type;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    /** WEEKLY：bit(n-1) 表示 ISO 星期 n */
+    private final int weekdayMask;
+    /** MONTHLY：月内日期 */
+    private final int monthDay;
+
+    private RepeatRule(RepeatType type, LocalDate startDate, int weekdayMask, int monthDay) {
+        this.type = type;
+        this.startDate = startDate;
+        this.endDate = startDate.plusDays(MAX_OCCURRENCE_DAYS - 1);
+        this.weekdayMask = weekdayMask;
+        this.monthDay = monthDay;
+    }
+
+    /**
+     * 解析重复规则
+     *
+     * @param type      重复类型（不能为 NONE）
+     * @param config    重复配置
+     * @param startDate 起始日期（模板归属日期）
+     * @throws IllegalArgumentException 配置格式错误
+     */
+    public static RepeatRule parse(RepeatType type, String config, LocalDate startDate) {
+        if (type == null || type == RepeatType.NONE) {
+            throw new IllegalArgumentException("重复类型不能为空");
+        }
+        if (type == RepeatType.DAILY) {
+            return new RepeatRule(type, startDate, 0, 0);
+        }
+        if (config == null || config.trim().isEmpty()) {
+            throw new IllegalArgumentException("重复配置不能为空");
+        }
+        if (type == RepeatType.WEEKLY) {
+            int mask = 0;
+            for (String part : config.split(",")) {
+                int weekday = Integer.parseInt(part.trim());
+                if (weekday < 1 || weekday > 7) {
+                    throw new IllegalArgumentException("星期取值范围为 1-7");
+                }
+                mask |= 1 << (weekday - 1);
+            }
+            return new RepeatRule(type, startDate, mask, 0);
+        }
+        int day = Integer.parseInt(config.trim());
+        if (day < 1 || day > 31) {
+            throw new IllegalArgumentException("月内日期取值范围为 1-31");
+        }
+        return new RepeatRule(type, startDate, 0, day);
+    }
+
+    /**
+     * 规范化重复配置（去空格、星期去重升序），用于持久化
+     */
+    public String normalizedConfig() {
+        if (type == RepeatType.DAILY) {
+            return null;
+        }
+        if (type == RepeatType.MONTHLY) {
+            return String.valueOf(monthDay);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int weekday = 1; weekday <= 7; weekday++) {
+            if ((weekdayMask & (1 << (weekday - 1))) != 0) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(weekday);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 判断某天是否命中规则（含有效区间判断）
+     */
+    public boolean matches(LocalDate date) {
+        if (date.isBefore(startDate) || date.isAfter(endDate)) {
+            return false;
+        }
+        if (type == RepeatType.DAILY) {
+            return true;
+        }
+        if (type == RepeatType.WEEKLY) {
+            return (weekdayMask & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+        }
+        return date.getDayOfMonth() == monthDay;
+    }
+
+    public RepeatType getType() {
+        return type;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+}
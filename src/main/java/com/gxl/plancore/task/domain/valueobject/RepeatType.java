@@ -0,0 +1,22 @@
+package com.gxl.plancore.task.domain.valueobject;
+
+/**
+ * 任务重复类型枚举
+ */
+public enum RepeatType {
+
+    NONE("不重复"),
+    DAILY("每日"),
+    WEEKLY("每周"),
+    MONTHLY("每月");
+
+    private final String label;
+
+    RepeatType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,100 @@
+package com.gxl.plancore.task.domain.valueobject;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 任务计数矩阵值对象
+ * 以 [区间内第几天][优先级][状态] 三维数组保存计数，聚合计数只需遍历一次，
+ * 图表分桶、总数、完成率均由数组下标区间求和得到，不再按桶重复扫描计数列表
+ */
+public class TaskCountMatrix {
+
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final LocalDate startDate;
+    private final int[][][] counts;
+
+    private TaskCountMatrix(LocalDate startDate, int days) {
+        this.startDate = startDate;
+        this.counts = new int[days][PRIORITIES.length][STATUSES.length];
+    }
+
+    /**
+     * 单遍折叠计数列表（区间外或无法识别的记录忽略）
+     *
+     * @param startDate 区间起始日期（下标 0）
+     * @param endDate   区间结束日期（含）
+     * @param dateCounts 按日期、优先级、状态分组的计数
+     * @return 计数矩阵
+     */
+    public static TaskCountMatrix fold(LocalDate startDate, LocalDate endDate, List<TaskDateCount> dateCounts) {
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        TaskCountMatrix matrix = new TaskCountMatrix(startDate, days);
+        for (TaskDateCount tc : dateCounts) {
+            int day = (int) ChronoUnit.DAYS.between(startDate, tc.getDate());
+            if (day < 0 || day >= days) {
+                continue;
+            }
+            int priority;
+            int status;
+            try {
+                priority = TaskPriority.valueOf(tc.getPriority()).ordinal();
+                status = TaskStatus.valueOf(tc.getStatus()).ordinal();
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            matrix.counts[day][priority][status] += tc.getCount();
+        }
+        return matrix;
+    }
+
+    /**
+     * 构建优先级掩码（下标为优先级序号）
+     *
+     * @param priorities 优先级名称集合，空集合表示全部
+     */
+    public static boolean[] priorityMask(Set<String> priorities) {
+        boolean[] mask = new boolean[PRIORITIES.length];
+        for (TaskPriority priority : PRIORITIES) {
+            mask[priority.ordinal()] = priorities.isEmpty() || priorities.contains(priority.name());
+        }
+        return mask;
+    }
+
+    /**
+     * 区间内天数
+     */
+    public int days() {
+        return counts.length;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * 对 [fromDay, toDay] 天下标区间内、掩码选中的优先级、指定状态的计数求和
+     *
+     * @param fromDay      起始天下标（含）
+     * @param toDay        结束天下标（含）
+     * @param priorityMask 优先级掩码
+     * @param status       任务状态
+     */
+    public int sum(int fromDay, int toDay, boolean[] priorityMask, TaskStatus status) {
+        int s = status.ordinal();
+        int total = 0;
+        for (int day = Math.max(fromDay, 0); day <= toDay && day < counts.length; day++) {
+            int[][] byPriority = counts[day];
+            for (int p = 0; p < byPriority.length; p++) {
+                if (priorityMask[p]) {
+                    total += byPriority[p][s];
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,89 @@
+package com.gxl.plancore.task.domain.valueobject;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.gxl.plancore.task.domain.entity.Task;
+
+/**
+ * 任务分页游标值对象
+ * 由 (date, created_at, task_id) 组成，与任务列表排序一致，按该三元组严格递增翻页
+ * 对外以 URL 安全的 Base64 字符串传递，客户端视为不透明值
+ */
+public class TaskPageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final LocalDate date;
+    private final Instant createdAt;
+    private final String taskId;
+
+    public TaskPageCursor(LocalDate date, Instant createdAt, String taskId) {
+        this.date = date;
+        this.createdAt = createdAt;
+        this.taskId = taskId;
+    }
+
+    /**
+     * 以任务的排序键构建游标（指向该任务之后）
+     */
+    public static TaskPageCursor after(Task task) {
+        return new TaskPageCursor(task.getDate(), task.getCreatedAt(), task.getTaskId());
+    }
+
+    /**
+     * 判断任务是否排在游标之后
+     */
+    public boolean precedes(Task task) {
+        int order = task.getDate().compareTo(date);
+        if (order == 0) {
+            order = task.getCreatedAt().compareTo(createdAt);
+        }
+        if (order == 0) {
+            order = task.getTaskId().compareTo(taskId);
+        }
+        return order > 0;
+    }
+
+    /**
+     * 编码为游标字符串
+     */
+    public String encode() {
+        String raw = date + SEPARATOR + createdAt.toEpochMilli() + SEPARATOR + taskId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @throws IllegalArgumentException 游标格式非法
+     */
+    public static TaskPageCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, 3);
+        if (parts.length != 3 || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("游标格式非法: " + cursor);
+        }
+        try {
+            return new TaskPageCursor(LocalDate.parse(parts[0]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[1])), parts[2]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("游标格式非法: " + cursor, e);
+        }
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,52 @@
+package com.gxl.plancore.task.domain.valueobject;
+
+import java.time.Instant;
+
+/**
+ * 任务区间版本戳值对象
+ * 由某用户某日期区间内任务行（含已删除）的行数、updated_at 之和、updated_at 最大值构成
+ * 区间内任意任务的新增、修改、删除、移入/移出都会使版本戳变化
+ */
+public class TaskRangeVersion {
+
+    private final long taskCount;
+    private final long updatedAtSum;
+    private final Instant maxUpdatedAt;
+
+    public TaskRangeVersion(long taskCount, long updatedAtSum, Instant maxUpdatedAt) {
+        this.taskCount = taskCount;
+        this.updatedAtSum = updatedAtSum;
+        this.maxUpdatedAt = maxUpdatedAt;
+    }
+
+    /**
+     * 合并两个版本戳（行数、updated_at 之和相加，最大值取较大者）
+     */
+    public TaskRangeVersion plus(TaskRangeVersion other) {
+        Instant max = maxUpdatedAt;
+        if (other.maxUpdatedAt != null && (max == null || other.maxUpdatedAt.isAfter(max))) {
+            max = other.maxUpdatedAt;
+        }
+        return new TaskRangeVersion(taskCount + other.taskCount, updatedAtSum + other.updatedAtSum, max);
+    }
+
+    /**
+     * 版本戳的字符串形式（用于生成 ETag）
+     */
+    public String asStamp() {
+        long maxMillis = maxUpdatedAt == null ? 0L : maxUpdatedAt.toEpochMilli();
+        return taskCount + "-" + updatedAtSum + "-" + maxMillis;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public long getUpdatedAtSum() {
+        return updatedAtSum;
+    }
+
+    public Instant getMaxUpdatedAt() {
+        return maxUpdatedAt;
+    }
+}
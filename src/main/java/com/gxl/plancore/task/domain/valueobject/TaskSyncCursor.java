@@ -0,0 +1,54 @@
+package com.gxl.plancore.task.domain.valueobject;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 任务增量同步游标值对象
+ * 由 (updated_at, task_id) 组成，按该二元组严格递增遍历任务变更
+ * 对外以 URL 安全的 Base64 字符串传递，客户端视为不透明值
+ */
+public class TaskSyncCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final Instant updatedAt;
+    private final String taskId;
+
+    public TaskSyncCursor(Instant updatedAt, String taskId) {
+        this.updatedAt = updatedAt;
+        this.taskId = taskId;
+    }
+
+    /**
+     * 编码为游标字符串
+     */
+    public String encode() {
+        String raw = updatedAt.toEpochMilli() + SEPARATOR + taskId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @throws IllegalArgumentException 游标格式非法
+     */
+    public static TaskSyncCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int idx = raw.indexOf(SEPARATOR);
+        if (idx <= 0 || idx == raw.length() - 1) {
+            throw new IllegalArgumentException("游标格式非法: " + cursor);
+        }
+        long millis = Long.parseLong(raw.substring(0, idx));
+        return new TaskSyncCursor(Instant.ofEpochMilli(millis), raw.substring(idx + 1));
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+}
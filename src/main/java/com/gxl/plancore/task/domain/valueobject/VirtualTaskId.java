@@ -0,0 +1,58 @@
+package com.gxl.plancore.task.domain.valueobject;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 虚拟任务ID值对象
+ * 重复模板在某天展开的虚拟任务没有数据库行，ID 格式为 "{模板taskId}_{YYYY-MM-DD}"
+ * 客户端对虚拟任务的修改/完成/删除请求携带该 ID，服务端据此按需实例化
+ */
+public class VirtualTaskId {
+
+    private static final String SEPARATOR = "_";
+
+    private final String templateId;
+    private final LocalDate date;
+
+    public VirtualTaskId(String templateId, LocalDate date) {
+        this.templateId = templateId;
+        this.date = date;
+    }
+
+    /**
+     * 生成虚拟任务ID
+     */
+    public static String format(String templateId, LocalDate date) {
+        return templateId + SEPARATOR + date;
+    }
+
+    /**
+     * 解析虚拟任务ID
+     *
+     * @return 非虚拟任务ID（普通 UUID）或格式非法时返回 null
+     */
+    public static VirtualTaskId parse(String taskId) {
+        if (taskId == null) {
+            return null;
+        }
+        int idx = taskId.lastIndexOf(SEPARATOR);
+        if (idx <= 0 || idx == taskId.length() - 1) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(taskId.substring(idx + 1));
+            return new VirtualTaskId(taskId.substring(0, idx), date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+}
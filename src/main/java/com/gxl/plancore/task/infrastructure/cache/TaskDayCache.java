@@ -0,0 +1,280 @@
+package com.gxl.plancore.task.infrastructure.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gxl.plancore.common.metrics.MetricsSource;
+import com.gxl.plancore.task.domain.entity.Task;
+
+/**
+ * 任务日桶本地缓存
+ * 以 (userId, date) 为 key 缓存某用户某天的任务列表
+ *   - 容量上限：超出后按 LRU 淘汰最久未访问的日桶
+ *   - 过期时间：日桶写入超过 TTL 后视为失效
+ *   - 任务反查索引：taskId -> 日桶 key，用于仅凭 taskId 的失效（逻辑删除、改日期）
+ *   - 模板反查索引：重复模板ID -> 含其虚拟任务的日桶 key 集合，模板修改/删除时一并失效
+ *   - 失效版本号：按用户记录最近一次失效的版本，加载期间该用户发生过失效的结果不会写入缓存，避免回填脏数据；
+ *     其他用户的写入不影响本用户的加载。失效记录保留一个 TTL，更早开始的加载一律放弃写入
+ *   - 指标：命中、未命中、淘汰（容量与过期）次数及当前日桶数，经 {@link MetricsSource} 定期输出
+ * 【假设】PRD 未指定分布式缓存，使用进程内缓存，多节点间依赖 TTL 兜底一致性
+ */
+@Component
+public class TaskDayCache implements MetricsSource {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    /** 日桶（access-order，用于 LRU 淘汰），由 this 锁保护 */
+    private final LinkedHashMap<String, Bucket> buckets;
+
+    /** taskId -> 日桶 key，仅包含当前已缓存日桶中的任务，由 this 锁保护 */
+    private final Map<String, String> taskIndex = new HashMap<>();
+
+    /** 重复模板ID -> 日桶 key 集合，由 this 锁保护 */
+    private final Map<String, Set<String>> templateIndex = new HashMap<>();
+
+    /** 失效时钟，每次失效递增，由 this 锁保护 */
+    private long invalidationClock;
+
+    /** userId -> 该用户最近一次失效（按失效先后排列，用于清理超过 TTL 的记录），由 this 锁保护 */
+    private final LinkedHashMap<String, Invalidation> userInvalidations = new LinkedHashMap<>();
+
+    /** 已清理的失效记录中最大的时钟值，由 this 锁保护 */
+    private long prunedClock;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public TaskDayCache(
+            @Value("${app.task.cache.max-size:5000}") int maxSize,
+            @Value("${app.task.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.buckets = new LinkedHashMap<String, Bucket>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                if (size() > TaskDayCache.this.maxSize) {
+                    unindex(eldest.getValue());
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 读取日桶
+     *
+     * @return 任务列表副本，未命中或已过期返回 null
+     */
+    public synchronized List<Task> get(String userId, String date) {
+        String key = buildKey(userId, date);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (System.currentTimeMillis() >= bucket.expireAtMillis) {
+            buckets.remove(key);
+            unindex(bucket);
+            evictionCount.incrementAndGet();
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return new ArrayList<>(bucket.tasks);
+    }
+
+    /**
+     * 获取当前失效版本号（加载数据库前调用）
+     */
+    public synchronized long currentVersion() {
+        return invalidationClock;
+    }
+
+    /**
+     * 写入日桶
+     * 若加载期间该用户发生过失效（或加载开始早于已清理的失效记录），放弃写入
+     *
+     * @param version 加载前通过 {@link #currentVersion()} 获取的版本号
+     */
+    public synchronized void putIfUnchanged(String userId, String date, List<Task> tasks, long version) {
+        if (maxSize <= 0 || version < prunedClock) {
+            return;
+        }
+        Invalidation invalidation = userInvalidations.get(userId);
+        if (invalidation != null && invalidation.clock > version) {
+            return;
+        }
+        String key = buildKey(userId, date);
+        Bucket old = buckets.remove(key);
+        if (old != null) {
+            unindex(old);
+        }
+        Bucket bucket = new Bucket(key, new ArrayList<>(tasks), System.currentTimeMillis() + ttlMillis);
+        buckets.put(key, bucket);
+        for (Task task : bucket.tasks) {
+            taskIndex.put(task.getTaskId(), key);
+            if (task.isVirtual()) {
+                Set<String> keys = templateIndex.get(task.getRepeatParentId());
+                if (keys == null) {
+                    keys = new HashSet<>();
+                    templateIndex.put(task.getRepeatParentId(), keys);
+                }
+                keys.add(key);
+            }
+        }
+    }
+
+    /**
+     * 失效指定日桶
+     */
+    public synchronized void invalidate(String userId, String date) {
+        markInvalidated(userId);
+        removeBucket(buildKey(userId, date));
+    }
+
+    /**
+     * 失效包含指定任务的日桶（taskId 为重复模板时失效包含其虚拟任务的全部日桶）
+     *
+     * @param userId 任务所属用户ID
+     */
+    public synchronized void invalidateByTaskId(String userId, String taskId) {
+        markInvalidated(userId);
+        String key = taskIndex.get(taskId);
+        if (key != null) {
+            removeBucket(key);
+        }
+        Set<String> templateKeys = templateIndex.get(taskId);
+        if (templateKeys != null) {
+            for (String templateKey : new ArrayList<>(templateKeys)) {
+                removeBucket(templateKey);
+            }
+        }
+    }
+
+    /**
+     * 失效指定用户的全部日桶（新建重复模板时使用，遍历全部日桶）
+     */
+    public synchronized void invalidateUser(String userId) {
+        markInvalidated(userId);
+        String prefix = userId + ":";
+        List<String> keys = new ArrayList<>();
+        for (String key : buckets.keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        for (String key : keys) {
+            removeBucket(key);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "taskDayCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hit", hitCount.get());
+        metrics.put("miss", missCount.get());
+        metrics.put("eviction", evictionCount.get());
+        metrics.put("size", size());
+        return metrics;
+    }
+
+    public synchronized int size() {
+        return buckets.size();
+    }
+
+    /**
+     * 记录用户失效，并清理超过 TTL 的失效记录
+     */
+    private void markInvalidated(String userId) {
+        invalidationClock++;
+        long now = System.currentTimeMillis();
+        userInvalidations.remove(userId);
+        userInvalidations.put(userId, new Invalidation(invalidationClock, now));
+        Iterator<Invalidation> it = userInvalidations.values().iterator();
+        while (it.hasNext()) {
+            Invalidation oldest = it.next();
+            if (now - oldest.atMillis <= ttlMillis) {
+                break;
+            }
+            prunedClock = oldest.clock;
+            it.remove();
+        }
+    }
+
+    private void removeBucket(String key) {
+        Bucket bucket = buckets.remove(key);
+        if (bucket != null) {
+            unindex(bucket);
+        }
+    }
+
+    private void unindex(Bucket bucket) {
+        for (Task task : bucket.tasks) {
+            if (bucket.key.equals(taskIndex.get(task.getTaskId()))) {
+                taskIndex.remove(task.getTaskId());
+            }
+            if (task.isVirtual()) {
+                Set<String> keys = templateIndex.get(task.getRepeatParentId());
+                if (keys != null) {
+                    keys.remove(bucket.key);
+                    if (keys.isEmpty()) {
+                        templateIndex.remove(task.getRepeatParentId());
+                    }
+                }
+            }
+        }
+    }
+
+    private String buildKey(String userId, String date) {
+        return userId + ":" + date;
+    }
+
+    /**
+     * 日桶
+     */
+    private static class Bucket {
+
+        private final String key;
+        private final List<Task> tasks;
+        private final long expireAtMillis;
+
+        Bucket(String key, List<Task> tasks, long expireAtMillis) {
+            this.key = key;
+            this.tasks = tasks;
+            this.expireAtMillis = expireAtMillis;
+        }
+    }
+
+    /**
+     * 用户失效记录
+     */
+    private static class Invalidation {
+
+        private final long clock;
+        private final long atMillis;
+
+        Invalidation(long clock, long atMillis) {
+            this.clock = clock;
+            this.atMillis = atMillis;
+        }
+    }
+}
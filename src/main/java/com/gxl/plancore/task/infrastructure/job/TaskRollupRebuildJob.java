@@ -0,0 +1,102 @@
+package com.gxl.plancore.task.infrastructure.job;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gxl.plancore.task.infrastructure.persistence.mapper.TaskRollupMapper;
+
+/**
+ * task_rollup 汇总重建任务
+ * 以 task_daily_counter 为数据源，按用户逐个删除并重建周段汇总，每个用户一个独立事务
+ *   - 存量数据回填：上线时开启 app.task.rollup.rebuild-on-startup，应用启动后在后台线程执行一次
+ *   - 数据修复：汇总与日计数不一致时可调用 rebuildUser 单独重建
+ * 【假设】PRD 未指定定时任务框架，使用启动时一次性执行，回填完成后关闭开关
+ */
+@Component
+public class TaskRollupRebuildJob implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRollupRebuildJob.class);
+
+    private final TaskRollupMapper taskRollupMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final int batchSize;
+
+    public TaskRollupRebuildJob(
+            TaskRollupMapper taskRollupMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.task.rollup.rebuild-on-startup:false}") boolean rebuildOnStartup,
+            @Value("${app.task.rollup.rebuild-batch-size:200}") int batchSize) {
+        this.taskRollupMapper = taskRollupMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                rebuildAll();
+            }
+        }, "task-rollup-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 重建全部用户的汇总（按 user_id 分批遍历）
+     *
+     * @return 重建的用户数
+     */
+    public int rebuildAll() {
+        log.info("开始重建任务汇总: batchSize={}", batchSize);
+        long startMillis = System.currentTimeMillis();
+        int userCount = 0;
+        String afterUserId = null;
+        while (true) {
+            List<String> userIds = taskRollupMapper.findCounterUserIds(afterUserId, batchSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            for (String userId : userIds) {
+                try {
+                    rebuildUser(userId);
+                    userCount++;
+                } catch (RuntimeException e) {
+                    log.error("重建任务汇总失败: userId={}", userId, e);
+                }
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+        }
+        log.info("重建任务汇总完成: userCount={}, costMillis={}", userCount, System.currentTimeMillis() - startMillis);
+        return userCount;
+    }
+
+    /**
+     * 重建单个用户的汇总（删除后由日计数重新聚合，同一事务内完成）
+     */
+    public void rebuildUser(final String userId) {
+        transactionTemplate.executeWithoutResult(new Consumer<TransactionStatus>() {
+            @Override
+            public void accept(TransactionStatus status) {
+                taskRollupMapper.deleteByUserId(userId);
+                taskRollupMapper.rebuildWeekFromDailyCounter(userId);
+            }
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.gxl.plancore.task.infrastructure.persistence.converter;
 
 import com.gxl.plancore.task.domain.entity.Task;
+import com.gxl.plancore.task.domain.valueobject.RepeatType;
 import com.gxl.plancore.task.domain.valueobject.TaskPriority;
 import com.gxl.plancore.task.domain.valueobject.TaskStatus;
 import com.gxl.plancore.task.infrastructure.persistence.po.TaskPO;
@@ -31,7 +32,11 @@ public class TaskConverter {
                 po.getCompletedAt(),
                 po.getCreatedAt(),
                 po.getUpdatedAt(),
-                po.getDeletedAt()
+                po.getDeletedAt(),
+                RepeatType.valueOf(po.getRepeatType()),
+                po.getRepeatConfig(),
+                po.getRepeatParentId(),
+                po.getRepeatDate()
         );
     }
 
@@ -54,6 +59,11 @@ public class TaskConverter {
         po.setCreatedAt(task.getCreatedAt());
         po.setUpdatedAt(task.getUpdatedAt());
         po.setDeletedAt(task.getDeletedAt());
+        po.setRepeatType(task.getRepeatType().name());
+        po.setRepeatConfig(task.getRepeatConfig());
+        po.setIsRepeatInstance(task.isRepeatInstance() ? 1 : 0);
+        po.setRepeatParentId(task.getRepeatParentId());
+        po.setRepeatDate(task.getRepeatDate());
         return po;
     }
 }
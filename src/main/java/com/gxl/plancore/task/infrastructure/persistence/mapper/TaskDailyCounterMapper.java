@@ -0,0 +1,47 @@
+package com.gxl.plancore.task.infrastructure.persistence.mapper;
+
+import java.util.List;
+
+import com.gxl.plancore.task.infrastructure.persistence.po.TaskCountPO;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 任务日计数 MyBatis Mapper
+ * 对应 task_daily_counter 表（按 user + date + priority + status 维护的任务数投影）
+ */
+@Mapper
+public interface TaskDailyCounterMapper {
+
+    /**
+     * 批量原子增减计数（多行 upsert）
+     * 调用方需按 key 排序传入，保证并发事务的加锁顺序一致
+     */
+    @Insert({"<script>",
+            "INSERT INTO task_daily_counter (user_id, date, priority, status, task_count) VALUES ",
+            "<foreach collection='list' item='c' separator=','>",
+            "(#{c.userId}, #{c.date}, #{c.priority}, #{c.status}, #{c.taskCount})",
+            "</foreach>",
+            " ON DUPLICATE KEY UPDATE task_count = task_count + VALUES(task_count)",
+            "</script>"})
+    int incrementBatch(@Param("list") List<TaskCountPO> list);
+
+    /**
+     * 统计某用户某天的任务数量
+     */
+    @Select("SELECT COALESCE(SUM(task_count), 0) FROM task_daily_counter " +
+            "WHERE user_id = #{userId} AND date = #{date}")
+    int sumByUserIdAndDate(@Param("userId") String userId, @Param("date") String date);
+
+    /**
+     * 查询日期范围内的计数行（仅返回计数大于 0 的行）
+     */
+    @Select("SELECT date, priority, status, task_count FROM task_daily_counter " +
+            "WHERE user_id = #{userId} AND date >= #{startDate} AND date <= #{endDate} " +
+            "AND task_count > 0")
+    List<TaskCountPO> findByUserIdAndDateRange(@Param("userId") String userId,
+                                               @Param("startDate") String startDate,
+                                               @Param("endDate") String endDate);
+}
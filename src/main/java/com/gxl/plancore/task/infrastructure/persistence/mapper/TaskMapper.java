@@ -1,9 +1,11 @@
 package com.gxl.plancore.task.infrastructure.persistence.mapper;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
-import com.gxl.plancore.task.infrastructure.persistence.po.TaskCountPO;
 import com.gxl.plancore.task.infrastructure.persistence.po.TaskPO;
+import com.gxl.plancore.task.infrastructure.persistence.po.TaskVersionPO;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -17,23 +19,70 @@ import org.apache.ibatis.annotations.Update;
 public interface TaskMapper {
 
     String COLUMNS = "task_id, user_id, title, priority, date, status, " +
-            "completed_at, created_at, updated_at, deleted_at";
+            "completed_at, created_at, updated_at, deleted_at, " +
+            "repeat_type, repeat_config, is_repeat_instance, repeat_parent_id, repeat_date";
 
     /**
      * 插入任务
      */
     @Insert("INSERT INTO task (task_id, user_id, title, priority, date, status, " +
-            "completed_at, created_at, updated_at, deleted_at) " +
+            "completed_at, created_at, updated_at, deleted_at, " +
+            "repeat_type, repeat_config, is_repeat_instance, repeat_parent_id, repeat_date) " +
             "VALUES (#{taskId}, #{userId}, #{title}, #{priority}, #{date}, #{status}, " +
-            "#{completedAt}, #{createdAt}, #{updatedAt}, #{deletedAt})")
+            "#{completedAt}, #{createdAt}, #{updatedAt}, #{deletedAt}, " +
+            "#{repeatType}, #{repeatConfig}, #{isRepeatInstance}, #{repeatParentId}, #{repeatDate})")
     int insert(TaskPO po);
 
+    /**
+     * 批量插入任务（多行 INSERT）
+     */
+    @Insert({"<script>",
+            "INSERT INTO task (task_id, user_id, title, priority, date, status, ",
+            "completed_at, created_at, updated_at, deleted_at, ",
+            "repeat_type, repeat_config, is_repeat_instance, repeat_parent_id, repeat_date) VALUES ",
+            "<foreach collection='list' item='t' separator=','>",
+            "(#{t.taskId}, #{t.userId}, #{t.title}, #{t.priority}, #{t.date}, #{t.status}, ",
+            "#{t.completedAt}, #{t.createdAt}, #{t.updatedAt}, #{t.deletedAt}, ",
+            "#{t.repeatType}, #{t.repeatConfig}, #{t.isRepeatInstance}, #{t.repeatParentId}, #{t.repeatDate})",
+            "</foreach>",
+            "</script>"})
+    int insertBatch(@Param("list") List<TaskPO> list);
+
     /**
      * 根据任务ID查询（不含已删除）
      */
     @Select("SELECT " + COLUMNS + " FROM task WHERE task_id = #{taskId} AND deleted_at IS NULL")
     TaskPO findByTaskId(@Param("taskId") String taskId);
 
+    /**
+     * 根据任务ID查询并加行锁（不含已删除）
+     * 仅返回计数相关字段，供维护 task_daily_counter 时计算增量
+     */
+    @Select("SELECT task_id, user_id, priority, date, status, repeat_type FROM task " +
+            "WHERE task_id = #{taskId} AND deleted_at IS NULL FOR UPDATE")
+    TaskPO lockCountStateByTaskId(@Param("taskId") String taskId);
+
+    /**
+     * 根据任务ID列表批量查询（不含已删除）
+     */
+    @Select({"<script>",
+            "SELECT " + COLUMNS + " FROM task WHERE deleted_at IS NULL AND task_id IN ",
+            "<foreach collection='taskIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    List<TaskPO> findByTaskIds(@Param("taskIds") List<String> taskIds);
+
+    /**
+     * 根据任务ID列表批量查询并加行锁（不含已删除）
+     * 仅返回计数相关字段，供维护 task_daily_counter 时计算增量
+     */
+    @Select({"<script>",
+            "SELECT task_id, user_id, priority, date, status, repeat_type FROM task ",
+            "WHERE deleted_at IS NULL AND task_id IN ",
+            "<foreach collection='taskIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            " FOR UPDATE",
+            "</script>"})
+    List<TaskPO> lockCountStateByTaskIds(@Param("taskIds") List<String> taskIds);
+
     /**
      * 更新任务（标题、优先级、日期、状态、完成时间、更新时间）
      */
@@ -42,6 +91,28 @@ public interface TaskMapper {
             "WHERE task_id = #{taskId} AND deleted_at IS NULL")
     int update(TaskPO po);
 
+    /**
+     * 批量更新任务（CASE 多行 UPDATE，字段同 update）
+     */
+    @Update({"<script>",
+            "UPDATE task SET ",
+            "title = CASE task_id ",
+            "<foreach collection='list' item='t'>WHEN #{t.taskId} THEN #{t.title} </foreach>END, ",
+            "priority = CASE task_id ",
+            "<foreach collection='list' item='t'>WHEN #{t.taskId} THEN #{t.priority} </foreach>END, ",
+            "date = CASE task_id ",
+            "<foreach collection='list' item='t'>WHEN #{t.taskId} THEN #{t.date} </foreach>END, ",
+            "status = CASE task_id ",
+            "<foreach collection='list' item='t'>WHEN #{t.taskId} THEN #{t.status} </foreach>END, ",
+            "completed_at = CASE task_id ",
+            "<foreach collection='list' item='t'>WHEN #{t.taskId} THEN #{t.completedAt} </foreach>END, ",
+            "updated_at = CASE task_id ",
+            "<foreach collection='list' item='t'>WHEN #{t.taskId} THEN #{t.updatedAt} </foreach>END ",
+            "WHERE deleted_at IS NULL AND task_id IN ",
+            "<foreach collection='list' item='t' open='(' separator=',' close=')'>#{t.taskId}</foreach>",
+            "</script>"})
+    int updateBatch(@Param("list") List<TaskPO> list);
+
     /**
      * 逻辑删除任务
      */
@@ -50,39 +121,157 @@ public interface TaskMapper {
     int softDelete(@Param("taskId") String taskId);
 
     /**
-     * 统计某用户某天的任务数量（不含已删除）
+     * 批量逻辑删除任务
      */
-    @Select("SELECT COUNT(*) FROM task WHERE user_id = #{userId} AND date = #{date} AND deleted_at IS NULL")
-    int countByUserIdAndDate(@Param("userId") String userId, @Param("date") String date);
+    @Update({"<script>",
+            "UPDATE task SET deleted_at = NOW(3), updated_at = NOW(3) ",
+            "WHERE deleted_at IS NULL AND task_id IN ",
+            "<foreach collection='taskIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    int softDeleteBatch(@Param("taskIds") List<String> taskIds);
 
     /**
-     * 查询某用户某天的任务列表（不含已删除，按创建时间升序）
+     * 查询某用户某天的任务列表（不含已删除、不含重复模板，按创建时间升序）
      */
     @Select("SELECT " + COLUMNS + " FROM task " +
-            "WHERE user_id = #{userId} AND date = #{date} AND deleted_at IS NULL " +
+            "WHERE user_id = #{userId} AND date = #{date} AND deleted_at IS NULL AND repeat_type = 'NONE' " +
             "ORDER BY created_at ASC")
     List<TaskPO> findByUserIdAndDate(@Param("userId") String userId, @Param("date") String date);
 
     /**
-     * 查询某用户日期范围内的任务列表（不含已删除，按日期升序、创建时间升序）
+     * 查询某用户日期范围内的任务列表（不含已删除、不含重复模板，按日期升序、创建时间升序）
      */
     @Select("SELECT " + COLUMNS + " FROM task " +
             "WHERE user_id = #{userId} AND date >= #{startDate} AND date <= #{endDate} " +
-            "AND deleted_at IS NULL " +
+            "AND deleted_at IS NULL AND repeat_type = 'NONE' " +
             "ORDER BY date ASC, created_at ASC")
     List<TaskPO> findByUserIdAndDateRange(@Param("userId") String userId,
                                           @Param("startDate") String startDate,
                                           @Param("endDate") String endDate);
 
     /**
-     * 按日期范围聚合统计任务数量（不含已删除，按 date + priority + status 分组）
-     * 用于统计视图图表数据，避免加载全量任务对象
+     * 分批查询某用户日期范围内的任务（导出用，不含已删除、不含重复模板，走 idx_user_date 索引）
+     * 按 (date, created_at, task_id) 升序，游标为空时从第一条开始
      */
-    @Select("SELECT date, priority, status, COUNT(*) AS task_count FROM task " +
-            "WHERE user_id = #{userId} AND date >= #{startDate} AND date <= #{endDate} " +
-            "AND deleted_at IS NULL " +
-            "GROUP BY date, priority, status")
-    List<TaskCountPO> countGroupedByDateRange(@Param("userId") String userId,
+    @Select({"<script>",
+            "SELECT " + COLUMNS + " FROM task WHERE user_id = #{userId} ",
+            "AND date &gt;= #{startDate} AND date &lt;= #{endDate} AND deleted_at IS NULL AND repeat_type = 'NONE' ",
+            "<if test='afterDate != null'>",
+            "AND (date &gt; #{afterDate} OR (date = #{afterDate} AND (created_at &gt; #{afterCreatedAt} ",
+            "OR (created_at = #{afterCreatedAt} AND task_id &gt; #{afterTaskId})))) ",
+            "</if>",
+            "ORDER BY date ASC, created_at ASC, task_id ASC LIMIT #{limit}",
+            "</script>"})
+    List<TaskPO> findExportPage(@Param("userId") String userId,
+                                @Param("startDate") String startDate,
+                                @Param("endDate") String endDate,
+                                @Param("afterDate") LocalDate afterDate,
+                                @Param("afterCreatedAt") Instant afterCreatedAt,
+                                @Param("afterTaskId") String afterTaskId,
+                                @Param("limit") int limit);
+
+    /**
+     * 查询某用户日期范围内的版本戳（含已删除行，走 idx_user_date_updated 覆盖索引）
+     */
+    @Select("SELECT COUNT(*) AS task_count, " +
+            "COALESCE(SUM(FLOOR(UNIX_TIMESTAMP(updated_at) * 1000)), 0) AS updated_at_sum, " +
+            "MAX(updated_at) AS max_updated_at FROM task " +
+            "WHERE user_id = #{userId} AND date >= #{startDate} AND date <= #{endDate}")
+    TaskVersionPO findVersionByUserIdAndDateRange(@Param("userId") String userId,
+                                                  @Param("startDate") String startDate,
+                                                  @Param("endDate") String endDate);
+
+    /**
+     * 查询某用户在游标之后、截止时间之前变更过的任务（含已删除行，走 idx_user_updated 索引）
+     * 按 (updated_at, task_id) 升序，游标为空时从头开始
+     */
+    @Select({"<script>",
+            "SELECT " + COLUMNS + " FROM task WHERE user_id = #{userId} AND updated_at &lt;= #{until} ",
+            "<if test='sinceUpdatedAt != null'>",
+            "AND (updated_at &gt; #{sinceUpdatedAt} ",
+            "OR (updated_at = #{sinceUpdatedAt} AND task_id &gt; #{sinceTaskId})) ",
+            "</if>",
+            "ORDER BY updated_at ASC, task_id ASC LIMIT #{limit}",
+            "</script>"})
+    List<TaskPO> findChangedSince(@Param("userId") String userId,
+                                  @Param("sinceUpdatedAt") Instant sinceUpdatedAt,
+                                  @Param("sinceTaskId") String sinceTaskId,
+                                  @Param("until") Instant until,
+                                  @Param("limit") int limit);
+
+    /**
+     * 按状态分页查询日期范围内的任务（不含重复模板，走 idx_user_status_date_created 索引）
+     * 按 (date, created_at, task_id) 升序，游标为空时从第一条开始；priorities 为空表示全部优先级
+     */
+    @Select({"<script>",
+            "SELECT " + COLUMNS + " FROM task WHERE user_id = #{userId} AND status = #{status} ",
+            "AND date &gt;= #{startDate} AND date &lt;= #{endDate} AND deleted_at IS NULL AND repeat_type = 'NONE' ",
+            "<if test='priorities != null and priorities.size() > 0'>",
+            "AND priority IN <foreach collection='priorities' item='p' open='(' separator=',' close=')'>#{p}</foreach> ",
+            "</if>",
+            "<if test='afterDate != null'>",
+            "AND (date &gt; #{afterDate} OR (date = #{afterDate} AND (created_at &gt; #{afterCreatedAt} ",
+            "OR (created_at = #{afterCreatedAt} AND task_id &gt; #{afterTaskId})))) ",
+            "</if>",
+            "ORDER BY date ASC, created_at ASC, task_id ASC LIMIT #{limit}",
+            "</script>"})
+    List<TaskPO> findPageByUserIdAndDateRange(@Param("userId") String userId,
                                               @Param("startDate") String startDate,
-                                              @Param("endDate") String endDate);
+                                              @Param("endDate") String endDate,
+                                              @Param("status") String status,
+                                              @Param("priorities") List<String> priorities,
+                                              @Param("afterDate") LocalDate afterDate,
+                                              @Param("afterCreatedAt") Instant afterCreatedAt,
+                                              @Param("afterTaskId") String afterTaskId,
+                                              @Param("limit") int limit);
+
+    /**
+     * 查询起始日期落在 [earliestStart, endDate] 内的重复模板（不含已删除，走 idx_user_repeat 索引）
+     * earliestStart 为查询起始日期往前推有效天数，即有效区间可能与查询区间重叠的全部模板
+     */
+    @Select("SELECT " + COLUMNS + " FROM task " +
+            "WHERE user_id = #{userId} AND repeat_type <> 'NONE' " +
+            "AND date >= #{earliestStart} AND date <= #{endDate} AND deleted_at IS NULL")
+    List<TaskPO> findRepeatTemplates(@Param("userId") String userId,
+                                     @Param("earliestStart") String earliestStart,
+                                     @Param("endDate") String endDate);
+
+    /**
+     * 查询原始重复日期落在区间内的重复实例（含已删除，仅返回 repeat_parent_id、repeat_date）
+     * 用于展开时跳过已实例化的日期
+     */
+    @Select("SELECT repeat_parent_id, repeat_date FROM task " +
+            "WHERE user_id = #{userId} AND repeat_date >= #{startDate} AND repeat_date <= #{endDate}")
+    List<TaskPO> findMaterializedRepeatDates(@Param("userId") String userId,
+                                             @Param("startDate") String startDate,
+                                             @Param("endDate") String endDate);
+
+    /**
+     * 查询重复模板在某天的实例（含已删除）
+     */
+    @Select("SELECT " + COLUMNS + " FROM task " +
+            "WHERE repeat_parent_id = #{repeatParentId} AND repeat_date = #{repeatDate}")
+    TaskPO findRepeatInstance(@Param("repeatParentId") String repeatParentId,
+                              @Param("repeatDate") LocalDate repeatDate);
+
+    /**
+     * 锁定读取重复模板在某天的实例（含已删除）
+     * 当前读，可读到并发事务刚提交的实例（实例化撞 uk_repeat_parent_date 后使用）
+     */
+    @Select("SELECT " + COLUMNS + " FROM task " +
+            "WHERE repeat_parent_id = #{repeatParentId} AND repeat_date = #{repeatDate} FOR UPDATE")
+    TaskPO lockRepeatInstance(@Param("repeatParentId") String repeatParentId,
+                              @Param("repeatDate") LocalDate repeatDate);
+
+    /**
+     * 查询有效区间可能与查询区间重叠的重复模板版本戳（含已删除模板）
+     */
+    @Select("SELECT COUNT(*) AS task_count, " +
+            "COALESCE(SUM(FLOOR(UNIX_TIMESTAMP(updated_at) * 1000)), 0) AS updated_at_sum, " +
+            "MAX(updated_at) AS max_updated_at FROM task " +
+            "WHERE user_id = #{userId} AND repeat_type <> 'NONE' " +
+            "AND date >= #{earliestStart} AND date <= #{endDate}")
+    TaskVersionPO findTemplateVersion(@Param("userId") String userId,
+                                      @Param("earliestStart") String earliestStart,
+                                      @Param("endDate") String endDate);
 }
@@ -0,0 +1,72 @@
+package com.gxl.plancore.task.infrastructure.persistence.mapper;
+
+import java.util.List;
+
+import com.gxl.plancore.task.infrastructure.persistence.po.TaskRollupPO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 任务汇总 MyBatis Mapper
+ * 对应 task_rollup 表（按 user + 粒度 + 桶起始日 + priority + status 维护的任务数预聚合）
+ *   - WEEK：月内周段，桶起始日为 1/8/15/22/29 日（29 日起至月末为第 5 段），与统计视图月维度分组一致
+ */
+@Mapper
+public interface TaskRollupMapper {
+
+    /**
+     * 批量原子增减计数（多行 upsert）
+     * 调用方需按 key 排序传入，保证并发事务的加锁顺序一致
+     */
+    @Insert({"<script>",
+            "INSERT INTO task_rollup (user_id, granularity, bucket_start, priority, status, task_count) VALUES ",
+            "<foreach collection='list' item='r' separator=','>",
+            "(#{r.userId}, #{r.granularity}, #{r.bucketStart}, #{r.priority}, #{r.status}, #{r.taskCount})",
+            "</foreach>",
+            " ON DUPLICATE KEY UPDATE task_count = task_count + VALUES(task_count)",
+            "</script>"})
+    int incrementBatch(@Param("list") List<TaskRollupPO> list);
+
+    /**
+     * 查询指定粒度、桶起始日范围内的汇总行（仅返回计数大于 0 的行）
+     */
+    @Select("SELECT user_id, granularity, bucket_start, priority, status, task_count FROM task_rollup " +
+            "WHERE user_id = #{userId} AND granularity = #{granularity} " +
+            "AND bucket_start >= #{startDate} AND bucket_start <= #{endDate} AND task_count > 0")
+    List<TaskRollupPO> findByBucketRange(@Param("userId") String userId,
+                                         @Param("granularity") String granularity,
+                                         @Param("startDate") String startDate,
+                                         @Param("endDate") String endDate);
+
+    /**
+     * 删除某用户的全部汇总行（重建前调用）
+     */
+    @Delete("DELETE FROM task_rollup WHERE user_id = #{userId}")
+    int deleteByUserId(@Param("userId") String userId);
+
+    /**
+     * 由 task_daily_counter 重建某用户的月内周段汇总
+     */
+    @Insert("INSERT INTO task_rollup (user_id, granularity, bucket_start, priority, status, task_count) " +
+            "SELECT user_id, 'WEEK', " +
+            "DATE_ADD(DATE_SUB(date, INTERVAL DAYOFMONTH(date) - 1 DAY), " +
+            "INTERVAL LEAST(FLOOR((DAYOFMONTH(date) - 1) / 7), 4) * 7 DAY) AS bucket_start, " +
+            "priority, status, SUM(task_count) FROM task_daily_counter " +
+            "WHERE user_id = #{userId} GROUP BY user_id, bucket_start, priority, status")
+    int rebuildWeekFromDailyCounter(@Param("userId") String userId);
+
+    /**
+     * 按 user_id 升序分页查询有计数的用户（重建任务遍历用）
+     *
+     * @param afterUserId 上一批最后一个用户ID（为 null 时从头开始）
+     */
+    @Select({"<script>",
+            "SELECT DISTINCT user_id FROM task_daily_counter ",
+            "<if test='afterUserId != null'>WHERE user_id &gt; #{afterUserId} </if>",
+            "ORDER BY user_id ASC LIMIT #{limit}",
+            "</script>"})
+    List<String> findCounterUserIds(@Param("afterUserId") String afterUserId, @Param("limit") int limit);
+}
@@ -4,15 +4,24 @@ import java.time.LocalDate;
 
 /**
  * 任务计数持久化对象
- * 用于 COUNT + GROUP BY 聚合查询结果
+ * 用于 task_daily_counter 计数行的查询结果与批量增减参数
  */
 public class TaskCountPO {
 
+    private String userId;
     private LocalDate date;
     private String priority;
     private String status;
     private int taskCount;
 
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
     public LocalDate getDate() {
         return date;
     }
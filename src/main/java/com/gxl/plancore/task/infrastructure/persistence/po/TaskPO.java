@@ -20,6 +20,11 @@ public class TaskPO {
     private Instant createdAt;
     private Instant updatedAt;
     private Instant deletedAt;
+    private String repeatType;
+    private String repeatConfig;
+    private Integer isRepeatInstance;
+    private String repeatParentId;
+    private LocalDate repeatDate;
 
     // Getters and Setters
     public Long getId() {
@@ -109,4 +114,44 @@ public class TaskPO {
     public void setDeletedAt(Instant deletedAt) {
         this.deletedAt = deletedAt;
     }
+
+    public String getRepeatType() {
+        return repeatType;
+    }
+
+    public void setRepeatType(String repeatType) {
+        this.repeatType = repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
+
+    public void setRepeatConfig(String repeatConfig) {
+        this.repeatConfig = repeatConfig;
+    }
+
+    public Integer getIsRepeatInstance() {
+        return isRepeatInstance;
+    }
+
+    public void setIsRepeatInstance(Integer isRepeatInstance) {
+        this.isRepeatInstance = isRepeatInstance;
+    }
+
+    public String getRepeatParentId() {
+        return repeatParentId;
+    }
+
+    public void setRepeatParentId(String repeatParentId) {
+        this.repeatParentId = repeatParentId;
+    }
+
+    public LocalDate getRepeatDate() {
+        return repeatDate;
+    }
+
+    public void setRepeatDate(LocalDate repeatDate) {
+        this.repeatDate = repeatDate;
+    }
 }
@@ -0,0 +1,65 @@
+package com.gxl.plancore.task.infrastructure.persistence.po;
+
+import java.time.LocalDate;
+
+/**
+ * 任务汇总持久化对象
+ * 用于 task_rollup 汇总行的查询结果与批量增减参数
+ */
+public class TaskRollupPO {
+
+    private String userId;
+    private String granularity;
+    private LocalDate bucketStart;
+    private String priority;
+    private String status;
+    private int taskCount;
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+}
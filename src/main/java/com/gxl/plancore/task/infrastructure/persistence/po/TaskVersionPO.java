@@ -0,0 +1,38 @@
+package com.gxl.plancore.task.infrastructure.persistence.po;
+
+import java.time.Instant;
+
+/**
+ * 任务区间版本戳持久化对象
+ * 用于 COUNT / SUM / MAX(updated_at) 聚合查询结果
+ */
+public class TaskVersionPO {
+
+    private long taskCount;
+    private long updatedAtSum;
+    private Instant maxUpdatedAt;
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public long getUpdatedAtSum() {
+        return updatedAtSum;
+    }
+
+    public void setUpdatedAtSum(long updatedAtSum) {
+        this.updatedAtSum = updatedAtSum;
+    }
+
+    public Instant getMaxUpdatedAt() {
+        return maxUpdatedAt;
+    }
+
+    public void setMaxUpdatedAt(Instant maxUpdatedAt) {
+        this.maxUpdatedAt = maxUpdatedAt;
+    }
+}
@@ -0,0 +1,216 @@
+package com.gxl.plancore.task.infrastructure.persistence.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gxl.plancore.task.domain.entity.Task;
+import com.gxl.plancore.task.domain.repository.TaskRepository;
+import com.gxl.plancore.task.domain.valueobject.TaskDateCount;
+import com.gxl.plancore.task.domain.valueobject.TaskPageCursor;
+import com.gxl.plancore.task.domain.valueobject.TaskRangeVersion;
+import com.gxl.plancore.task.domain.valueobject.TaskStatus;
+import com.gxl.plancore.task.domain.valueobject.TaskSyncCursor;
+import com.gxl.plancore.task.infrastructure.cache.TaskDayCache;
+
+/**
+ * 带日桶缓存的任务仓储（装饰 TaskRepositoryImpl）
+ *   - 读：findByUserIdAndDate 读穿透，命中直接返回缓存副本
+ *   - 写：save / update / softDelete 及对应批量方法失效相关日桶；update 同时失效新旧日期（改日期场景）
+ *   - 重复模板：新建/修改时失效该用户全部日桶；删除时按模板ID失效其展开过的日桶
+ *   - 事务：写操作在语句执行后立即失效一次，事务结束后再失效一次，避免并发读在提交前回填旧数据
+ * 注意：缓存中的 Task 实体被多个请求共享，调用方不可修改 findByUserIdAndDate 返回的实体
+ */
+@Primary
+@Repository
+public class CachingTaskRepository implements TaskRepository {
+
+    private final TaskRepositoryImpl delegate;
+    private final TaskDayCache taskDayCache;
+
+    public CachingTaskRepository(TaskRepositoryImpl delegate, TaskDayCache taskDayCache) {
+        this.delegate = delegate;
+        this.taskDayCache = taskDayCache;
+    }
+
+    @Override
+    public void save(Task task) {
+        delegate.save(task);
+        invalidateSaved(task);
+    }
+
+    @Override
+    public void saveAll(List<Task> tasks) {
+        delegate.saveAll(tasks);
+        for (Task task : tasks) {
+            invalidateSaved(task);
+        }
+    }
+
+    @Override
+    public Optional<Task> findByTaskId(String taskId) {
+        return delegate.findByTaskId(taskId);
+    }
+
+    @Override
+    public List<Task> findByTaskIds(List<String> taskIds) {
+        return delegate.findByTaskIds(taskIds);
+    }
+
+    @Override
+    public void update(Task task) {
+        delegate.update(task);
+        invalidateUpdated(task);
+    }
+
+    @Override
+    public void updateAll(List<Task> tasks) {
+        delegate.updateAll(tasks);
+        for (Task task : tasks) {
+            invalidateUpdated(task);
+        }
+    }
+
+    @Override
+    public int softDelete(String userId, String taskId) {
+        int affected = delegate.softDelete(userId, taskId);
+        invalidate(userId, null, taskId, false);
+        return affected;
+    }
+
+    @Override
+    public int softDeleteAll(String userId, List<String> taskIds) {
+        int affected = delegate.softDeleteAll(userId, taskIds);
+        for (String taskId : taskIds) {
+            invalidate(userId, null, taskId, false);
+        }
+        return affected;
+    }
+
+    @Override
+    public int countByUserIdAndDate(String userId, String date) {
+        return delegate.countByUserIdAndDate(userId, date);
+    }
+
+    @Override
+    public List<Task> findByUserIdAndDate(String userId, String date) {
+        List<Task> cached = taskDayCache.get(userId, date);
+        if (cached != null) {
+            return cached;
+        }
+        long version = taskDayCache.currentVersion();
+        List<Task> tasks = delegate.findByUserIdAndDate(userId, date);
+        taskDayCache.putIfUnchanged(userId, date, tasks, version);
+        return tasks;
+    }
+
+    @Override
+    public List<Task> findByUserIdAndDateRange(String userId, String startDate, String endDate) {
+        return delegate.findByUserIdAndDateRange(userId, startDate, endDate);
+    }
+
+    @Override
+    public void streamByUserIdAndDateRange(String userId, String startDate, String endDate,
+                                           Consumer<Task> consumer) {
+        delegate.streamByUserIdAndDateRange(userId, startDate, endDate, consumer);
+    }
+
+    @Override
+    public List<Task> findPageByDateRange(String userId, String startDate, String endDate, TaskStatus status,
+                                          Set<String> priorities, TaskPageCursor cursor, int limit) {
+        return delegate.findPageByDateRange(userId, startDate, endDate, status, priorities, cursor, limit);
+    }
+
+    @Override
+    public List<TaskDateCount> countGroupedByDateRange(String userId, String startDate, String endDate) {
+        return delegate.countGroupedByDateRange(userId, startDate, endDate);
+    }
+
+    @Override
+    public List<TaskDateCount> countGroupedByMonthWeeks(String userId, LocalDate monthStart) {
+        return delegate.countGroupedByMonthWeeks(userId, monthStart);
+    }
+
+    @Override
+    public Optional<Task> findRepeatInstance(String repeatParentId, LocalDate repeatDate) {
+        return delegate.findRepeatInstance(repeatParentId, repeatDate);
+    }
+
+    @Override
+    public Task saveRepeatInstanceIfAbsent(Task instance) {
+        Task saved = delegate.saveRepeatInstanceIfAbsent(instance);
+        invalidateSaved(saved);
+        return saved;
+    }
+
+    @Override
+    public TaskRangeVersion findVersionByDateRange(String userId, String startDate, String endDate) {
+        return delegate.findVersionByDateRange(userId, startDate, endDate);
+    }
+
+    @Override
+    public List<Task> findChangedSince(String userId, TaskSyncCursor cursor, Instant until, int limit) {
+        return delegate.findChangedSince(userId, cursor, until, limit);
+    }
+
+    /**
+     * 新建任务后失效：新建重复模板会在未来多天展开，失效该用户全部日桶
+     */
+    private void invalidateSaved(Task task) {
+        if (task.isRepeatTemplate()) {
+            invalidate(task.getUserId(), null, null, true);
+        } else {
+            invalidate(task.getUserId(), task.getDate().toString(), null, false);
+        }
+    }
+
+    /**
+     * 更新任务后失效：重复模板改起始日期/规则会影响任意日期，失效该用户全部日桶
+     */
+    private void invalidateUpdated(Task task) {
+        if (task.isRepeatTemplate()) {
+            invalidate(task.getUserId(), null, task.getTaskId(), true);
+        } else {
+            invalidate(task.getUserId(), task.getDate().toString(), task.getTaskId(), false);
+        }
+    }
+
+    /**
+     * 失效日桶：立即失效一次；若处于事务中，事务结束后再失效一次
+     *
+     * @param userId    用户ID
+     * @param date      日期（为 null 时不按日期失效）
+     * @param taskId    任务ID（为 null 时不按任务反查失效；为重复模板ID时失效其展开过的全部日桶）
+     * @param wholeUser 是否失效该用户全部日桶
+     */
+    private void invalidate(final String userId, final String date, final String taskId, final boolean wholeUser) {
+        doInvalidate(userId, date, taskId, wholeUser);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doInvalidate(userId, date, taskId, wholeUser);
+                }
+            });
+        }
+    }
+
+    private void doInvalidate(String userId, String date, String taskId, boolean wholeUser) {
+        if (taskId != null) {
+            taskDayCache.invalidateByTaskId(userId, taskId);
+        }
+        if (wholeUser) {
+            taskDayCache.invalidateUser(userId);
+        } else if (date != null) {
+            taskDayCache.invalidate(userId, date);
+        }
+    }
+}
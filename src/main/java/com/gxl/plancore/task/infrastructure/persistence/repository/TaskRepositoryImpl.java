@@ -1,34 +1,104 @@
 package com.gxl.plancore.task.infrastructure.persistence.repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import com.gxl.plancore.task.domain.entity.Task;
 import com.gxl.plancore.task.domain.repository.TaskRepository;
+import com.gxl.plancore.task.domain.valueobject.RepeatRule;
+import com.gxl.plancore.task.domain.valueobject.RepeatType;
 import com.gxl.plancore.task.domain.valueobject.TaskDateCount;
+import com.gxl.plancore.task.domain.valueobject.TaskPageCursor;
+import com.gxl.plancore.task.domain.valueobject.TaskRangeVersion;
+import com.gxl.plancore.task.domain.valueobject.TaskStatus;
+import com.gxl.plancore.task.domain.valueobject.TaskSyncCursor;
 import com.gxl.plancore.task.infrastructure.persistence.converter.TaskConverter;
+import com.gxl.plancore.task.infrastructure.persistence.mapper.TaskDailyCounterMapper;
 import com.gxl.plancore.task.infrastructure.persistence.mapper.TaskMapper;
+import com.gxl.plancore.task.infrastructure.persistence.mapper.TaskRollupMapper;
 import com.gxl.plancore.task.infrastructure.persistence.po.TaskCountPO;
 import com.gxl.plancore.task.infrastructure.persistence.po.TaskPO;
+import com.gxl.plancore.task.infrastructure.persistence.po.TaskRollupPO;
+import com.gxl.plancore.task.infrastructure.persistence.po.TaskVersionPO;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 
 /**
  * 任务仓储实现
+ * 写操作同步维护 task_daily_counter 计数投影及 task_rollup 周段汇总（需在调用方事务内执行以保证原子性）
+ * 重复模板不计入计数投影；按日期查询与计数时合并模板展开的虚拟任务
  */
 @Repository
 public class TaskRepositoryImpl implements TaskRepository {
 
+    /** 任务列表排序：日期升序、创建时间升序、taskId 升序（与分页查询 ORDER BY 一致） */
+    private static final Comparator<Task> DATE_CREATED_ORDER = new Comparator<Task>() {
+        @Override
+        public int compare(Task a, Task b) {
+            int order = a.getDate().compareTo(b.getDate());
+            if (order != 0) {
+                return order;
+            }
+            order = a.getCreatedAt().compareTo(b.getCreatedAt());
+            if (order != 0) {
+                return order;
+            }
+            return a.getTaskId().compareTo(b.getTaskId());
+        }
+    };
+
+    /** 导出分批读取的每批条数 */
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    /** task_rollup 粒度：月内周段 */
+    private static final String ROLLUP_WEEK = "WEEK";
+
     private final TaskMapper taskMapper;
+    private final TaskDailyCounterMapper taskDailyCounterMapper;
+    private final TaskRollupMapper taskRollupMapper;
 
-    public TaskRepositoryImpl(TaskMapper taskMapper) {
+    public TaskRepositoryImpl(TaskMapper taskMapper, TaskDailyCounterMapper taskDailyCounterMapper,
+                              TaskRollupMapper taskRollupMapper) {
         this.taskMapper = taskMapper;
+        this.taskDailyCounterMapper = taskDailyCounterMapper;
+        this.taskRollupMapper = taskRollupMapper;
     }
 
     @Override
     public void save(Task task) {
         TaskPO po = TaskConverter.toPO(task);
         taskMapper.insert(po);
+        if (po.getDeletedAt() == null && isCounted(po)) {
+            incrementCounter(po, 1);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<TaskPO> poList = new ArrayList<>();
+        Map<String, TaskCountPO> deltas = new TreeMap<>();
+        for (Task task : tasks) {
+            TaskPO po = TaskConverter.toPO(task);
+            poList.add(po);
+            if (po.getDeletedAt() == null && isCounted(po)) {
+                addDelta(deltas, po, 1);
+            }
+        }
+        taskMapper.insertBatch(poList);
+        applyDeltas(deltas);
     }
 
     @Override
@@ -37,20 +107,89 @@ public class TaskRepositoryImpl implements TaskRepository {
         return Optional.ofNullable(TaskConverter.toDomain(po));
     }
 
+    @Override
+    public List<Task> findByTaskIds(List<String> taskIds) {
+        List<Task> tasks = new ArrayList<>();
+        if (taskIds.isEmpty()) {
+            return tasks;
+        }
+        List<TaskPO> poList = taskMapper.findByTaskIds(taskIds);
+        for (TaskPO po : poList) {
+            tasks.add(TaskConverter.toDomain(po));
+        }
+        return tasks;
+    }
+
     @Override
     public void update(Task task) {
+        // 加行锁读取更新前的计数维度，保证并发更新同一任务时计数增量正确
+        TaskPO before = taskMapper.lockCountStateByTaskId(task.getTaskId());
         TaskPO po = TaskConverter.toPO(task);
-        taskMapper.update(po);
+        int affected = taskMapper.update(po);
+        if (affected > 0 && before != null && isCounted(before)) {
+            moveCounter(before, po);
+        }
+    }
+
+    @Override
+    public void updateAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<String> taskIds = new ArrayList<>();
+        List<TaskPO> poList = new ArrayList<>();
+        for (Task task : tasks) {
+            taskIds.add(task.getTaskId());
+            poList.add(TaskConverter.toPO(task));
+        }
+        Map<String, TaskPO> beforeMap = new HashMap<>();
+        for (TaskPO before : taskMapper.lockCountStateByTaskIds(taskIds)) {
+            beforeMap.put(before.getTaskId(), before);
+        }
+        taskMapper.updateBatch(poList);
+
+        // 仅未删除的行会被更新，即加锁读到的行
+        Map<String, TaskCountPO> deltas = new TreeMap<>();
+        for (TaskPO after : poList) {
+            TaskPO before = beforeMap.get(after.getTaskId());
+            if (before != null && isCounted(before)) {
+                addDelta(deltas, before, -1);
+                addDelta(deltas, after, 1);
+            }
+        }
+        applyDeltas(deltas);
+    }
+
+    @Override
+    public int softDelete(String userId, String taskId) {
+        TaskPO before = taskMapper.lockCountStateByTaskId(taskId);
+        int affected = taskMapper.softDelete(taskId);
+        if (affected > 0 && before != null && isCounted(before)) {
+            incrementCounter(before, -1);
+        }
+        return affected;
     }
 
     @Override
-    public int softDelete(String taskId) {
-        return taskMapper.softDelete(taskId);
+    public int softDeleteAll(String userId, List<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        List<TaskPO> befores = taskMapper.lockCountStateByTaskIds(taskIds);
+        int affected = taskMapper.softDeleteBatch(taskIds);
+        Map<String, TaskCountPO> deltas = new TreeMap<>();
+        for (TaskPO before : befores) {
+            if (isCounted(before)) {
+                addDelta(deltas, before, -1);
+            }
+        }
+        applyDeltas(deltas);
+        return affected;
     }
 
     @Override
     public int countByUserIdAndDate(String userId, String date) {
-        return taskMapper.countByUserIdAndDate(userId, date);
+        return taskDailyCounterMapper.sumByUserIdAndDate(userId, date);
     }
 
     @Override
@@ -60,6 +199,10 @@ public class TaskRepositoryImpl implements TaskRepository {
         for (TaskPO po : poList) {
             tasks.add(TaskConverter.toDomain(po));
         }
+        LocalDate day = LocalDate.parse(date);
+        if (appendVirtualTasks(userId, day, day, tasks)) {
+            tasks.sort(DATE_CREATED_ORDER);
+        }
         return tasks;
     }
 
@@ -70,12 +213,97 @@ public class TaskRepositoryImpl implements TaskRepository {
         for (TaskPO po : poList) {
             tasks.add(TaskConverter.toDomain(po));
         }
+        if (appendVirtualTasks(userId, LocalDate.parse(startDate), LocalDate.parse(endDate), tasks)) {
+            tasks.sort(DATE_CREATED_ORDER);
+        }
+        return tasks;
+    }
+
+    @Override
+    public void streamByUserIdAndDateRange(String userId, String startDate, String endDate,
+                                           Consumer<Task> consumer) {
+        LocalDate start = LocalDate.parse(startDate);
+        LocalDate end = LocalDate.parse(endDate);
+
+        List<TaskPO> templates = taskMapper.findRepeatTemplates(userId, earliestTemplateStart(start), endDate);
+        Map<String, Set<LocalDate>> materialized = new HashMap<>();
+        if (!templates.isEmpty()) {
+            materialized = loadMaterializedDates(userId, startDate, endDate);
+        }
+
+        // 1. 已落库任务：按 (date, created_at, task_id) 键集分批读取后回调，连接只在每批查询期间占用
+        LocalDate afterDate = null;
+        Instant afterCreatedAt = null;
+        String afterTaskId = null;
+        while (true) {
+            List<TaskPO> page = taskMapper.findExportPage(userId, startDate, endDate,
+                    afterDate, afterCreatedAt, afterTaskId, EXPORT_BATCH_SIZE);
+            for (TaskPO po : page) {
+                consumer.accept(TaskConverter.toDomain(po));
+            }
+            if (page.size() < EXPORT_BATCH_SIZE) {
+                break;
+            }
+            TaskPO last = page.get(page.size() - 1);
+            afterDate = last.getDate();
+            afterCreatedAt = last.getCreatedAt();
+            afterTaskId = last.getTaskId();
+        }
+
+        // 2. 虚拟任务：逐个模板展开回调，单次最多持有一个模板的展开结果
+        List<Task> occurrences = new ArrayList<>();
+        for (TaskPO po : templates) {
+            Task template = TaskConverter.toDomain(po);
+            template.expandOccurrences(start, end, materialized.get(template.getTaskId()), occurrences);
+            for (Task occurrence : occurrences) {
+                consumer.accept(occurrence);
+            }
+            occurrences.clear();
+        }
+    }
+
+    @Override
+    public List<Task> findPageByDateRange(String userId, String startDate, String endDate, TaskStatus status,
+                                          Set<String> priorities, TaskPageCursor cursor, int limit) {
+        LocalDate afterDate = null;
+        Instant afterCreatedAt = null;
+        String afterTaskId = null;
+        if (cursor != null) {
+            afterDate = cursor.getDate();
+            afterCreatedAt = cursor.getCreatedAt();
+            afterTaskId = cursor.getTaskId();
+        }
+        List<TaskPO> poList = taskMapper.findPageByUserIdAndDateRange(userId, startDate, endDate, status.name(),
+                new ArrayList<>(priorities), afterDate, afterCreatedAt, afterTaskId, limit);
+        List<Task> tasks = new ArrayList<>();
+        for (TaskPO po : poList) {
+            tasks.add(TaskConverter.toDomain(po));
+        }
+
+        // 虚拟任务恒为未完成：与已落库的前 limit 条合并排序后截断，结果仍是游标之后的前 limit 条
+        if (status != TaskStatus.INCOMPLETE) {
+            return tasks;
+        }
+        List<Task> virtualTasks = new ArrayList<>();
+        if (!appendVirtualTasks(userId, LocalDate.parse(startDate), LocalDate.parse(endDate), virtualTasks)) {
+            return tasks;
+        }
+        for (Task task : virtualTasks) {
+            if ((priorities.isEmpty() || priorities.contains(task.getPriority().name()))
+                    && (cursor == null || cursor.precedes(task))) {
+                tasks.add(task);
+            }
+        }
+        tasks.sort(DATE_CREATED_ORDER);
+        if (tasks.size() > limit) {
+            return new ArrayList<>(tasks.subList(0, limit));
+        }
         return tasks;
     }
 
     @Override
     public List<TaskDateCount> countGroupedByDateRange(String userId, String startDate, String endDate) {
-        List<TaskCountPO> poList = taskMapper.countGroupedByDateRange(userId, startDate, endDate);
+        List<TaskCountPO> poList = taskDailyCounterMapper.findByUserIdAndDateRange(userId, startDate, endDate);
         List<TaskDateCount> result = new ArrayList<>();
         for (TaskCountPO po : poList) {
             result.add(new TaskDateCount(
@@ -85,6 +313,251 @@ public class TaskRepositoryImpl implements TaskRepository {
                     po.getTaskCount()
             ));
         }
+
+        appendVirtualCounts(userId, LocalDate.parse(startDate), LocalDate.parse(endDate), result);
         return result;
     }
+
+    @Override
+    public List<TaskDateCount> countGroupedByMonthWeeks(String userId, LocalDate monthStart) {
+        LocalDate monthEnd = monthStart.withDayOfMonth(monthStart.lengthOfMonth());
+        List<TaskRollupPO> poList = taskRollupMapper.findByBucketRange(
+                userId, ROLLUP_WEEK, monthStart.toString(), monthEnd.toString());
+        List<TaskDateCount> result = new ArrayList<>();
+        for (TaskRollupPO po : poList) {
+            result.add(new TaskDateCount(
+                    po.getBucketStart(),
+                    po.getPriority(),
+                    po.getStatus(),
+                    po.getTaskCount()
+            ));
+        }
+        appendVirtualCounts(userId, monthStart, monthEnd, result);
+        return result;
+    }
+
+    /**
+     * 展开区间内重复模板的虚拟任务，按 日期 + 优先级 追加未完成计数
+     */
+    private void appendVirtualCounts(String userId, LocalDate startDate, LocalDate endDate,
+                                     List<TaskDateCount> result) {
+        List<Task> virtualTasks = new ArrayList<>();
+        if (appendVirtualTasks(userId, startDate, endDate, virtualTasks)) {
+            Map<String, Integer> virtualCounts = new TreeMap<>();
+            for (Task task : virtualTasks) {
+                String key = task.getDate() + ":" + task.getPriority().name();
+                Integer count = virtualCounts.get(key);
+                virtualCounts.put(key, count == null ? 1 : count + 1);
+            }
+            for (Map.Entry<String, Integer> entry : virtualCounts.entrySet()) {
+                String[] parts = entry.getKey().split(":");
+                result.add(new TaskDateCount(
+                        LocalDate.parse(parts[0]),
+                        parts[1],
+                        TaskStatus.INCOMPLETE.name(),
+                        entry.getValue()
+                ));
+            }
+        }
+    }
+
+    @Override
+    public TaskRangeVersion findVersionByDateRange(String userId, String startDate, String endDate) {
+        TaskRangeVersion version = toVersion(taskMapper.findVersionByUserIdAndDateRange(userId, startDate, endDate));
+        // 起始日期早于查询区间的重复模板也会在区间内展开，需一并计入
+        String earliestStart = earliestTemplateStart(LocalDate.parse(startDate));
+        return version.plus(toVersion(taskMapper.findTemplateVersion(userId, earliestStart, endDate)));
+    }
+
+    @Override
+    public Optional<Task> findRepeatInstance(String repeatParentId, LocalDate repeatDate) {
+        TaskPO po = taskMapper.findRepeatInstance(repeatParentId, repeatDate);
+        return Optional.ofNullable(TaskConverter.toDomain(po));
+    }
+
+    @Override
+    public Task saveRepeatInstanceIfAbsent(Task instance) {
+        try {
+            save(instance);
+            return instance;
+        } catch (DuplicateKeyException e) {
+            // 并发首次操作同一虚拟任务：uk_repeat_parent_date 冲突，插入未生效、计数未变更，改为读取已提交的实例
+            TaskPO po = taskMapper.lockRepeatInstance(instance.getRepeatParentId(), instance.getRepeatDate());
+            if (po == null) {
+                throw e;
+            }
+            return TaskConverter.toDomain(po);
+        }
+    }
+
+    @Override
+    public List<Task> findChangedSince(String userId, TaskSyncCursor cursor, Instant until, int limit) {
+        Instant sinceUpdatedAt = null;
+        String sinceTaskId = null;
+        if (cursor != null) {
+            sinceUpdatedAt = cursor.getUpdatedAt();
+            sinceTaskId = cursor.getTaskId();
+        }
+        List<TaskPO> poList = taskMapper.findChangedSince(userId, sinceUpdatedAt, sinceTaskId, until, limit);
+        List<Task> tasks = new ArrayList<>();
+        for (TaskPO po : poList) {
+            tasks.add(TaskConverter.toDomain(po));
+        }
+        return tasks;
+    }
+
+    /**
+     * 展开区间内重复模板的虚拟任务并追加到列表（跳过已实例化的日期）
+     *
+     * @return 是否追加了虚拟任务
+     */
+    private boolean appendVirtualTasks(String userId, LocalDate startDate, LocalDate endDate, List<Task> out) {
+        List<TaskPO> templates = taskMapper.findRepeatTemplates(
+                userId, earliestTemplateStart(startDate), endDate.toString());
+        if (templates.isEmpty()) {
+            return false;
+        }
+
+        Map<String, Set<LocalDate>> materialized = loadMaterializedDates(
+                userId, startDate.toString(), endDate.toString());
+
+        int before = out.size();
+        for (TaskPO po : templates) {
+            Task template = TaskConverter.toDomain(po);
+            template.expandOccurrences(startDate, endDate, materialized.get(template.getTaskId()), out);
+        }
+        return out.size() > before;
+    }
+
+    /**
+     * 查询区间内已实例化的重复日期：模板ID -> 原始重复日期集合
+     */
+    private Map<String, Set<LocalDate>> loadMaterializedDates(String userId, String startDate, String endDate) {
+        Map<String, Set<LocalDate>> materialized = new HashMap<>();
+        for (TaskPO po : taskMapper.findMaterializedRepeatDates(userId, startDate, endDate)) {
+            Set<LocalDate> dates = materialized.get(po.getRepeatParentId());
+            if (dates == null) {
+                dates = new HashSet<>();
+                materialized.put(po.getRepeatParentId(), dates);
+            }
+            dates.add(po.getRepeatDate());
+        }
+        return materialized;
+    }
+
+    /**
+     * 有效区间可能覆盖 startDate 的重复模板的最早起始日期
+     */
+    private String earliestTemplateStart(LocalDate startDate) {
+        return startDate.minusDays(RepeatRule.MAX_OCCURRENCE_DAYS - 1).toString();
+    }
+
+    private TaskRangeVersion toVersion(TaskVersionPO po) {
+        if (po == null) {
+            return new TaskRangeVersion(0L, 0L, null);
+        }
+        return new TaskRangeVersion(po.getTaskCount(), po.getUpdatedAtSum(), po.getMaxUpdatedAt());
+    }
+
+    /**
+     * 是否计入 task_daily_counter（重复模板不计入，其展开的虚拟任务在查询时合并）
+     */
+    private boolean isCounted(TaskPO po) {
+        return RepeatType.NONE.name().equals(po.getRepeatType());
+    }
+
+    /**
+     * 计数从更新前维度迁移到更新后维度（日期、优先级、状态任一变化时）
+     * 经增量表按 key 顺序加减，维度未变化时增量抵消不写库
+     */
+    private void moveCounter(TaskPO before, TaskPO after) {
+        Map<String, TaskCountPO> deltas = new TreeMap<>();
+        addDelta(deltas, before, -1);
+        addDelta(deltas, after, 1);
+        applyDeltas(deltas);
+    }
+
+    private void incrementCounter(TaskPO po, int delta) {
+        Map<String, TaskCountPO> deltas = new TreeMap<>();
+        addDelta(deltas, po, delta);
+        applyDeltas(deltas);
+    }
+
+    /**
+     * 累加计数增量（同一 key 合并）
+     */
+    private void addDelta(Map<String, TaskCountPO> deltas, TaskPO po, int delta) {
+        String key = counterKey(po);
+        TaskCountPO counter = deltas.get(key);
+        if (counter == null) {
+            counter = new TaskCountPO();
+            counter.setUserId(po.getUserId());
+            counter.setDate(po.getDate());
+            counter.setPriority(po.getPriority());
+            counter.setStatus(po.getStatus());
+            deltas.put(key, counter);
+        }
+        counter.setTaskCount(counter.getTaskCount() + delta);
+    }
+
+    /**
+     * 按 key 顺序一次性写入非零增量，并同步累加到 task_rollup 的周段汇总
+     * 日计数行先于汇总行加锁，各自按 key 排序，保证并发事务加锁顺序一致
+     */
+    private void applyDeltas(Map<String, TaskCountPO> deltas) {
+        List<TaskCountPO> changed = new ArrayList<>();
+        Map<String, TaskRollupPO> rollups = new TreeMap<>();
+        for (TaskCountPO counter : deltas.values()) {
+            if (counter.getTaskCount() != 0) {
+                changed.add(counter);
+                addRollupDelta(rollups, counter, ROLLUP_WEEK, monthWeekStart(counter.getDate()));
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        taskDailyCounterMapper.incrementBatch(changed);
+
+        List<TaskRollupPO> changedRollups = new ArrayList<>();
+        for (TaskRollupPO rollup : rollups.values()) {
+            if (rollup.getTaskCount() != 0) {
+                changedRollups.add(rollup);
+            }
+        }
+        if (!changedRollups.isEmpty()) {
+            taskRollupMapper.incrementBatch(changedRollups);
+        }
+    }
+
+    /**
+     * 累加汇总增量（同一汇总桶合并，如同一周段内改日期时增减抵消）
+     */
+    private void addRollupDelta(Map<String, TaskRollupPO> rollups, TaskCountPO counter,
+                                String granularity, LocalDate bucketStart) {
+        String key = counter.getUserId() + ":" + granularity + ":" + bucketStart + ":"
+                + counter.getPriority() + ":" + counter.getStatus();
+        TaskRollupPO rollup = rollups.get(key);
+        if (rollup == null) {
+            rollup = new TaskRollupPO();
+            rollup.setUserId(counter.getUserId());
+            rollup.setGranularity(granularity);
+            rollup.setBucketStart(bucketStart);
+            rollup.setPriority(counter.getPriority());
+            rollup.setStatus(counter.getStatus());
+            rollups.put(key, rollup);
+        }
+        rollup.setTaskCount(rollup.getTaskCount() + counter.getTaskCount());
+    }
+
+    /**
+     * 月内周段起始日：1-7 日 -> 1 日，8-14 日 -> 8 日，...，29 日至月末 -> 29 日
+     */
+    private LocalDate monthWeekStart(LocalDate date) {
+        int segment = Math.min((date.getDayOfMonth() - 1) / 7, 4);
+        return date.withDayOfMonth(segment * 7 + 1);
+    }
+
+    private String counterKey(TaskPO po) {
+        return po.getUserId() + ":" + po.getDate() + ":" + po.getPriority() + ":" + po.getStatus();
+    }
 }
@@ -1,13 +1,20 @@
 package com.gxl.plancore.task.interfaces.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,28 +24,45 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.alibaba.fastjson2.JSON;
 import com.gxl.plancore.common.exception.BusinessException;
 import com.gxl.plancore.common.response.ApiResponse;
 import com.gxl.plancore.common.response.ErrorCode;
+import com.gxl.plancore.task.application.command.BatchTaskCommand;
+import com.gxl.plancore.task.application.command.BatchTaskOperation;
 import com.gxl.plancore.task.application.command.CreateTaskCommand;
 import com.gxl.plancore.task.application.command.UpdateTaskCommand;
+import com.gxl.plancore.task.application.dto.BatchOperationResult;
+import com.gxl.plancore.task.application.dto.BatchTaskResult;
 import com.gxl.plancore.task.application.dto.ChartDataItem;
 import com.gxl.plancore.task.application.dto.CreateTaskResult;
 import com.gxl.plancore.task.application.dto.DeleteTaskResult;
 import com.gxl.plancore.task.application.dto.PerDateTaskData;
+import com.gxl.plancore.task.application.dto.TaskChangeDTO;
+import com.gxl.plancore.task.application.dto.TaskChangesResult;
 import com.gxl.plancore.task.application.dto.TaskDTO;
 import com.gxl.plancore.task.application.dto.TaskListResult;
+import com.gxl.plancore.task.application.dto.TaskPageResult;
 import com.gxl.plancore.task.application.dto.TaskStatsResult;
 import com.gxl.plancore.task.application.dto.ToggleCompleteResult;
 import com.gxl.plancore.task.application.dto.UpdateTaskResult;
 import com.gxl.plancore.task.application.service.TaskApplicationService;
+import com.gxl.plancore.task.domain.valueobject.TaskRangeVersion;
+import com.gxl.plancore.task.interfaces.dto.BatchOperationResponse;
+import com.gxl.plancore.task.interfaces.dto.BatchTaskOperationRequest;
+import com.gxl.plancore.task.interfaces.dto.BatchTaskRequest;
+import com.gxl.plancore.task.interfaces.dto.BatchTaskResponse;
 import com.gxl.plancore.task.interfaces.dto.ChartDataResponse;
 import com.gxl.plancore.task.interfaces.dto.CreateTaskRequest;
 import com.gxl.plancore.task.interfaces.dto.CreateTaskResponse;
 import com.gxl.plancore.task.interfaces.dto.DeleteTaskResponse;
 import com.gxl.plancore.task.interfaces.dto.PerDateTaskListResponse;
+import com.gxl.plancore.task.interfaces.dto.TaskChangeResponse;
+import com.gxl.plancore.task.interfaces.dto.TaskChangesResponse;
 import com.gxl.plancore.task.interfaces.dto.TaskListResponse;
+import com.gxl.plancore.task.interfaces.dto.TaskPageResponse;
 import com.gxl.plancore.task.interfaces.dto.TaskResponse;
 import com.gxl.plancore.task.interfaces.dto.TaskStatsResponse;
 import com.gxl.plancore.task.interfaces.dto.ToggleCompleteRequest;
@@ -47,6 +71,7 @@ import com.gxl.plancore.task.interfaces.dto.UpdateTaskRequest;
 import com.gxl.plancore.task.interfaces.dto.UpdateTaskResponse;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
@@ -58,6 +83,9 @@ public class TaskController {
 
     private static final Logger log = LoggerFactory.getLogger(TaskController.class);
 
+    private static final String EXPORT_FORMAT_NDJSON = "ndjson";
+    private static final String EXPORT_FORMAT_CSV = "csv";
+
     private final TaskApplicationService taskApplicationService;
 
     public TaskController(TaskApplicationService taskApplicationService) {
@@ -68,10 +96,12 @@ public class TaskController {
      * 查询任务列表（按日期）
      * 单日期：GET /api/v1/tasks?date=2026-02-10&showCompleted=true
      * 多日期：GET /api/v1/tasks?dates=2026-02-10,2026-02-11,2026-02-12&showCompleted=true
+     * 支持条件请求：响应携带 ETag，请求头 If-None-Match 匹配时返回 304，不加载任务数据
      */
     @GetMapping
     public ApiResponse<TaskListResponse> queryTasks(
             HttpServletRequest httpRequest,
+            WebRequest webRequest,
             @RequestParam(value = "date", required = false) String date,
             @RequestParam(value = "dates", required = false) String dates,
             @RequestParam(value = "showCompleted", defaultValue = "true") boolean showCompleted) {
@@ -83,19 +113,34 @@ public class TaskController {
 
         String userId = (String) httpRequest.getAttribute("userId");
 
-        TaskListResult result;
-        if (dates != null && !dates.trim().isEmpty()) {
-            // 多日期
-            List<String> dateList = new ArrayList<>();
+        boolean multiDate = dates != null && !dates.trim().isEmpty();
+        List<String> dateList = new ArrayList<>();
+        if (multiDate) {
             for (String d : dates.split(",")) {
                 if (d != null && !d.trim().isEmpty()) {
                     dateList.add(d.trim());
                 }
             }
+        } else {
+            dateList.add(date.trim());
+        }
+
+        // 条件请求：数据未变化直接返回 304
+        TaskRangeVersion version = taskApplicationService.queryTasksVersion(userId, dateList);
+        String etag = buildETag("tasks|" + userId + "|" + multiDate + "|" + dateList + "|" + showCompleted,
+                version);
+        if (webRequest.checkNotModified(etag)) {
+            log.info("任务列表未变化, 返回 304: userId={}", userId);
+            return null;
+        }
+
+        TaskListResult result;
+        if (multiDate) {
+            // 多日期
             result = taskApplicationService.queryTasksByDates(userId, dateList, showCompleted);
         } else {
             // 单日期
-            result = taskApplicationService.queryTasksByDate(userId, date.trim(), showCompleted);
+            result = taskApplicationService.queryTasksByDate(userId, dateList.get(0), showCompleted);
         }
 
         TaskListResponse response = convertToResponse(result);
@@ -104,21 +149,37 @@ public class TaskController {
 
     /**
      * 查询任务统计视图（周/月维度）
-     * GET /api/v1/tasks/stats?dimension=WEEK&date=2026-02-12&priorities=P0,P1
+     * GET /api/v1/tasks/stats?dimension=WEEK&date=2026-02-12&priorities=P0,P1&includeTasks=true&pageSize=50
+     * 任务明细只返回第一页，后续页通过 /stats/tasks 按游标获取
+     * 支持条件请求：响应携带 ETag，请求头 If-None-Match 匹配时返回 304，不加载统计数据
      */
     @GetMapping("/stats")
     public ApiResponse<TaskStatsResponse> queryTaskStats(
             HttpServletRequest httpRequest,
+            WebRequest webRequest,
             @RequestParam("dimension") String dimension,
             @RequestParam("date") String date,
-            @RequestParam(value = "priorities", required = false) String priorities) {
-        log.info("收到查询任务统计请求: dimension={}, date={}, priorities={}", dimension, date, priorities);
+            @RequestParam(value = "priorities", required = false) String priorities,
+            @RequestParam(value = "includeTasks", required = false, defaultValue = "true") boolean includeTasks,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize) {
+        log.info("收到查询任务统计请求: dimension={}, date={}, priorities={}, includeTasks={}, pageSize={}",
+                dimension, date, priorities, includeTasks, pageSize);
 
         // 从拦截器设置的请求属性中获取用户ID
         String userId = (String) httpRequest.getAttribute("userId");
 
+        // 条件请求：数据未变化直接返回 304
+        TaskRangeVersion version = taskApplicationService.queryTaskStatsVersion(userId, date, dimension);
+        String etag = buildETag("stats|" + userId + "|" + dimension + "|" + date + "|" + priorities
+                + "|" + includeTasks + "|" + pageSize, version);
+        if (webRequest.checkNotModified(etag)) {
+            log.info("任务统计未变化, 返回 304: userId={}", userId);
+            return null;
+        }
+
         // 调用应用服务查询
-        TaskStatsResult result = taskApplicationService.queryTaskStats(userId, date, dimension, priorities);
+        TaskStatsResult result = taskApplicationService.queryTaskStats(
+                userId, date, dimension, priorities, includeTasks, pageSize);
 
         // 转换为接口层响应
         TaskStatsResponse response = convertToStatsResponse(result);
@@ -126,6 +187,100 @@ public class TaskController {
         return ApiResponse.success(response);
     }
 
+    /**
+     * 分页查询统计视图任务明细
+     * GET /api/v1/tasks/stats/tasks?dimension=MONTH&date=2026-02-12&status=COMPLETED&cursor={cursor}&pageSize=50
+     */
+    @GetMapping("/stats/tasks")
+    public ApiResponse<TaskPageResponse> queryTaskStatsTasks(
+            HttpServletRequest httpRequest,
+            @RequestParam("dimension") String dimension,
+            @RequestParam("date") String date,
+            @RequestParam("status") String status,
+            @RequestParam(value = "priorities", required = false) String priorities,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize) {
+        log.info("收到分页查询统计任务明细请求: dimension={}, date={}, status={}, cursor={}, pageSize={}",
+                dimension, date, status, cursor, pageSize);
+
+        // 从拦截器设置的请求属性中获取用户ID
+        String userId = (String) httpRequest.getAttribute("userId");
+
+        TaskPageResult result = taskApplicationService.queryTaskStatsTasks(
+                userId, date, dimension, status, priorities, cursor, pageSize);
+
+        return ApiResponse.success(new TaskPageResponse(
+                convertTaskDTOsToResponses(result.getTasks()), result.getNextCursor(), result.isHasMore()));
+    }
+
+    /**
+     * 增量同步任务变更
+     * GET /api/v1/tasks/changes?since={cursor}&limit=200
+     * 返回游标之后新增、修改、删除（墓碑）的任务，客户端以 nextCursor 作为下次 since
+     */
+    @GetMapping("/changes")
+    public ApiResponse<TaskChangesResponse> queryTaskChanges(
+            HttpServletRequest httpRequest,
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        log.info("收到任务增量同步请求: since={}, limit={}", since, limit);
+
+        // 从拦截器设置的请求属性中获取用户ID
+        String userId = (String) httpRequest.getAttribute("userId");
+
+        TaskChangesResult result = taskApplicationService.queryTaskChanges(userId, since, limit);
+
+        List<TaskChangeResponse> changes = new ArrayList<>();
+        for (TaskChangeDTO dto : result.getChanges()) {
+            changes.add(new TaskChangeResponse(
+                    dto.getTaskId(),
+                    dto.isDeleted(),
+                    dto.getTitle(),
+                    dto.getPriority(),
+                    dto.getStatus(),
+                    dto.getDate().toString(),
+                    formatInstant(dto.getCreatedAt()),
+                    formatInstant(dto.getCompletedAt()),
+                    formatInstant(dto.getUpdatedAt()),
+                    formatInstant(dto.getDeletedAt()),
+                    dto.getRepeatType(),
+                    dto.getRepeatConfig(),
+                    dto.getRepeatParentId(),
+                    dto.getRepeatDate() == null ? null : dto.getRepeatDate().toString()
+            ));
+        }
+
+        return ApiResponse.success(new TaskChangesResponse(changes, result.getNextCursor(), result.isHasMore()));
+    }
+
+    /**
+     * 导出任务
+     * GET /api/v1/tasks/export?startDate=2026-01-01&endDate=2026-12-31&format=ndjson
+     * 按 (date, created_at, task_id) 键集分页每批读取 500 条并逐条写出响应流，批次之间不占用数据库连接，内存占用与导出区间大小无关
+     */
+    @GetMapping("/export")
+    public void exportTasks(
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse,
+            @RequestParam("startDate") String startDate,
+            @RequestParam("endDate") String endDate,
+            @RequestParam(value = "format", required = false, defaultValue = EXPORT_FORMAT_NDJSON) String format) {
+        log.info("收到导出任务请求: startDate={}, endDate={}, format={}", startDate, endDate, format);
+
+        if (!EXPORT_FORMAT_NDJSON.equals(format) && !EXPORT_FORMAT_CSV.equals(format)) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "format 仅支持 ndjson 或 csv");
+        }
+
+        // 从拦截器设置的请求属性中获取用户ID
+        String userId = (String) httpRequest.getAttribute("userId");
+
+        // 参数校验失败时尚未写出任何内容，由全局异常处理返回 JSON 错误
+        TaskExportWriter writer = new TaskExportWriter(httpResponse, format,
+                "tasks_" + startDate + "_" + endDate + "." + format);
+        taskApplicationService.exportTasks(userId, startDate, endDate, writer);
+        writer.finish();
+    }
+
     /**
      * 创建任务
      * POST /api/v1/tasks
@@ -145,7 +300,9 @@ public class TaskController {
                 userId,
                 request.getTitle(),
                 request.getPriority(),
-                request.getDate());
+                request.getDate(),
+                request.getRepeatType(),
+                request.getRepeatConfig());
         CreateTaskResult result = taskApplicationService.createTask(command);
 
         // 构建响应
@@ -155,7 +312,53 @@ public class TaskController {
                 result.getPriority(),
                 result.getStatus(),
                 result.getDate().toString(),
-                DateTimeFormatter.ISO_INSTANT.format(result.getCreatedAt()));
+                DateTimeFormatter.ISO_INSTANT.format(result.getCreatedAt()),
+                result.getRepeatType(),
+                result.getRepeatConfig());
+
+        return ApiResponse.success(response);
+    }
+
+    /**
+     * 批量任务操作（单事务，逐条返回结果）
+     * POST /api/v1/tasks/batch
+     */
+    @PostMapping("/batch")
+    public ApiResponse<BatchTaskResponse> batchMutate(
+            HttpServletRequest httpRequest,
+            @Valid @RequestBody BatchTaskRequest request) {
+        log.info("收到批量任务操作请求: operationCount={}", request.getOperations().size());
+
+        // 从拦截器设置的请求属性中获取用户ID
+        String userId = (String) httpRequest.getAttribute("userId");
+
+        // 构建命令并执行
+        List<BatchTaskOperation> operations = new ArrayList<>();
+        for (BatchTaskOperationRequest item : request.getOperations()) {
+            operations.add(new BatchTaskOperation(
+                    item.getType(),
+                    item.getTaskId(),
+                    item.getTitle(),
+                    item.getPriority(),
+                    item.getDate(),
+                    item.getCompleted()));
+        }
+        BatchTaskResult result = taskApplicationService.batchMutate(new BatchTaskCommand(userId, operations));
+
+        // 构建响应
+        List<BatchOperationResponse> results = new ArrayList<>();
+        for (BatchOperationResult item : result.getResults()) {
+            results.add(new BatchOperationResponse(
+                    item.getIndex(),
+                    item.getType(),
+                    item.getTaskId(),
+                    item.getCode(),
+                    item.getMessage()));
+        }
+        BatchTaskResponse response = new BatchTaskResponse(
+                result.getSuccessCount(),
+                result.getFailureCount(),
+                results);
 
         return ApiResponse.success(response);
     }
@@ -250,6 +453,25 @@ public class TaskController {
         return ApiResponse.success(response);
     }
 
+    /**
+     * 格式化时间为 ISO 8601 字符串，null 原样返回
+     */
+    private String formatInstant(Instant instant) {
+        if (instant == null) {
+            return null;
+        }
+        return DateTimeFormatter.ISO_INSTANT.format(instant);
+    }
+
+    /**
+     * 生成弱 ETag：请求参数 + 数据版本戳的摘要
+     * 响应体包含 traceId/timestamp，非逐字节一致，故使用弱校验
+     */
+    private String buildETag(String requestKey, TaskRangeVersion version) {
+        String raw = requestKey + "|" + version.asStamp();
+        return "W/\"" + DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
     /**
      * 将应用层结果转换为接口层响应
      */
@@ -307,7 +529,9 @@ public class TaskController {
                 result.getTotalCompletionRate(),
                 chartDataResponses,
                 completedTaskResponses,
-                incompleteTaskResponses
+                incompleteTaskResponses,
+                result.getCompletedNextCursor(),
+                result.getIncompleteNextCursor()
         );
     }
 
@@ -329,9 +553,100 @@ public class TaskController {
                     dto.getStatus(),
                     dto.getDate().toString(),
                     createdAtStr,
-                    completedAtStr
+                    completedAtStr,
+                    dto.isRepeat()
             ));
         }
         return responses;
     }
+
+    /**
+     * 任务导出写出器：逐条将任务写入响应流
+     * 首条数据写出前才设置响应头，保证参数校验异常仍能以 JSON 错误返回
+     */
+    private final class TaskExportWriter implements Consumer<TaskDTO> {
+
+        private final HttpServletResponse response;
+        private final boolean csv;
+        private final String fileName;
+        private Writer out;
+
+        TaskExportWriter(HttpServletResponse response, String format, String fileName) {
+            this.response = response;
+            this.csv = EXPORT_FORMAT_CSV.equals(format);
+            this.fileName = fileName;
+        }
+
+        @Override
+        public void accept(TaskDTO dto) {
+            try {
+                Writer writer = open();
+                if (csv) {
+                    writer.write(csvEscape(dto.getTaskId()) + ","
+                            + csvEscape(dto.getTitle()) + ","
+                            + dto.getPriority() + ","
+                            + dto.getStatus() + ","
+                            + dto.getDate() + ","
+                            + formatInstant(dto.getCreatedAt()) + ","
+                            + (dto.getCompletedAt() == null ? "" : formatInstant(dto.getCompletedAt())) + ","
+                            + dto.isRepeat() + "\r\n");
+                } else {
+                    writer.write(JSON.toJSONString(new TaskResponse(
+                            dto.getTaskId(),
+                            dto.getTitle(),
+                            dto.getPriority(),
+                            dto.getStatus(),
+                            dto.getDate().toString(),
+                            formatInstant(dto.getCreatedAt()),
+                            formatInstant(dto.getCompletedAt()),
+                            dto.isRepeat())));
+                    writer.write("\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("写出导出数据失败", e);
+            }
+        }
+
+        /**
+         * 结束导出：区间内无任务时也输出响应头（CSV 含表头）
+         */
+        void finish() {
+            try {
+                open().flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("写出导出数据失败", e);
+            }
+        }
+
+        private Writer open() throws IOException {
+            if (out != null) {
+                return out;
+            }
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+            out = response.getWriter();
+            if (csv) {
+                // BOM 便于 Excel 正确识别 UTF-8
+                out.write("\uFEFF");
+                out.write("id,title,priority,status,date,createdAt,completedAt,repeat\r\n");
+            }
+            return out;
+        }
+
+        private String csvEscape(String value) {
+            if (value == null) {
+                return "";
+            }
+            // 防止公式注入：以 = + - @ 开头的单元格在表格软件中会被当作公式执行
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
 }
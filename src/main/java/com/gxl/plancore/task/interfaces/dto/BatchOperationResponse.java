@@ -0,0 +1,64 @@
+package com.gxl.plancore.task.interfaces.dto;
+
+/**
+ * 批量操作单项结果响应 DTO
+ */
+public class BatchOperationResponse {
+
+    private int index;
+    private String type;
+    private String taskId;
+    private int code;
+    private String message;
+
+    public BatchOperationResponse() {
+    }
+
+    public BatchOperationResponse(int index, String type, String taskId, int code, String message) {
+        this.index = index;
+        this.type = type;
+        this.taskId = taskId;
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public void setCode(int code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
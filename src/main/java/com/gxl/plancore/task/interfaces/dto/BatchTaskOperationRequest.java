@@ -0,0 +1,77 @@
+package com.gxl.plancore.task.interfaces.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * 批量任务操作项请求 DTO
+ * type=CREATE：title、priority、date 必填
+ * type=UPDATE：taskId 必填，title、priority、date 可选
+ * type=TOGGLE：taskId、completed 必填
+ * type=DELETE：taskId 必填
+ */
+public class BatchTaskOperationRequest {
+
+    @NotBlank(message = "操作类型不能为空")
+    private String type;
+
+    private String taskId;
+
+    private String title;
+
+    private String priority;
+
+    private String date;
+
+    private Boolean completed;
+
+    public BatchTaskOperationRequest() {
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+}
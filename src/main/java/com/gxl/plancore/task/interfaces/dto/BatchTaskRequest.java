@@ -0,0 +1,29 @@
+package com.gxl.plancore.task.interfaces.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * 批量任务操作请求 DTO
+ */
+public class BatchTaskRequest {
+
+    @NotEmpty(message = "operations 不能为空")
+    @Size(max = 100, message = "单次最多 100 个操作")
+    @Valid
+    private List<BatchTaskOperationRequest> operations;
+
+    public BatchTaskRequest() {
+    }
+
+    public List<BatchTaskOperationRequest> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchTaskOperationRequest> operations) {
+        this.operations = operations;
+    }
+}
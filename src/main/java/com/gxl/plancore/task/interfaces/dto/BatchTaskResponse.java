@@ -0,0 +1,46 @@
+package com.gxl.plancore.task.interfaces.dto;
+
+import java.util.List;
+
+/**
+ * 批量任务操作响应 DTO
+ */
+public class BatchTaskResponse {
+
+    private int successCount;
+    private int failureCount;
+    private List<BatchOperationResponse> results;
+
+    public BatchTaskResponse() {
+    }
+
+    public BatchTaskResponse(int successCount, int failureCount, List<BatchOperationResponse> results) {
+        this.successCount = successCount;
+        this.failureCount = failureCount;
+        this.results = results;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(int successCount) {
+        this.successCount = successCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    public void setFailureCount(int failureCount) {
+        this.failureCount = failureCount;
+    }
+
+    public List<BatchOperationResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchOperationResponse> results) {
+        this.results = results;
+    }
+}
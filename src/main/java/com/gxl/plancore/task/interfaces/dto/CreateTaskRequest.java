@@ -16,6 +16,12 @@ public class CreateTaskRequest {
     @NotBlank(message = "归属日期不能为空")
     private String date;
 
+    /** 重复类型：NONE/DAILY/WEEKLY/MONTHLY（可选，默认 NONE） */
+    private String repeatType;
+
+    /** 重复配置：WEEKLY 为星期 "1,3,5"，MONTHLY 为日期 "1"（可选） */
+    private String repeatConfig;
+
     public CreateTaskRequest() {
     }
 
@@ -48,4 +54,20 @@ public class CreateTaskRequest {
     public void setDate(String date) {
         this.date = date;
     }
+
+    public String getRepeatType() {
+        return repeatType;
+    }
+
+    public void setRepeatType(String repeatType) {
+        this.repeatType = repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
+
+    public void setRepeatConfig(String repeatConfig) {
+        this.repeatConfig = repeatConfig;
+    }
 }
@@ -11,18 +11,23 @@ public class CreateTaskResponse {
     private String status;
     private String date;
     private String createdAt;
+    private String repeatType;
+    private String repeatConfig;
 
     public CreateTaskResponse() {
     }
 
     public CreateTaskResponse(String id, String title, String priority,
-                              String status, String date, String createdAt) {
+                              String status, String date, String createdAt,
+                              String repeatType, String repeatConfig) {
         this.id = id;
         this.title = title;
         this.priority = priority;
         this.status = status;
         this.date = date;
         this.createdAt = createdAt;
+        this.repeatType = repeatType;
+        this.repeatConfig = repeatConfig;
     }
 
     public String getId() {
@@ -72,4 +77,20 @@ public class CreateTaskResponse {
     public void setCreatedAt(String createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getRepeatType() {
+        return repeatType;
+    }
+
+    public void setRepeatType(String repeatType) {
+        this.repeatType = repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
+
+    public void setRepeatConfig(String repeatConfig) {
+        this.repeatConfig = repeatConfig;
+    }
 }
@@ -0,0 +1,157 @@
+package com.gxl.plancore.task.interfaces.dto;
+
+/**
+ * 任务变更响应 DTO（deleted 为 true 时为墓碑记录）
+ */
+public class TaskChangeResponse {
+
+    private String id;
+    private boolean deleted;
+    private String title;
+    private String priority;
+    private String status;
+    private String date;
+    private String createdAt;
+    private String completedAt;
+    private String updatedAt;
+    private String deletedAt;
+    private String repeatType;
+    private String repeatConfig;
+    private String repeatParentId;
+    private String repeatDate;
+
+    public TaskChangeResponse() {
+    }
+
+    public TaskChangeResponse(String id, boolean deleted, String title, String priority, String status,
+                              String date, String createdAt, String completedAt,
+                              String updatedAt, String deletedAt,
+                              String repeatType, String repeatConfig, String repeatParentId, String repeatDate) {
+        this.id = id;
+        this.deleted = deleted;
+        this.title = title;
+        this.priority = priority;
+        this.status = status;
+        this.date = date;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+        this.updatedAt = updatedAt;
+        this.deletedAt = deletedAt;
+        this.repeatType = repeatType;
+        this.repeatConfig = repeatConfig;
+        this.repeatParentId = repeatParentId;
+        this.repeatDate = repeatDate;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(String completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(String deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public String getRepeatType() {
+        return repeatType;
+    }
+
+    public void setRepeatType(String repeatType) {
+        this.repeatType = repeatType;
+    }
+
+    public String getRepeatConfig() {
+        return repeatConfig;
+    }
+
+    public void setRepeatConfig(String repeatConfig) {
+        this.repeatConfig = repeatConfig;
+    }
+
+    public String getRepeatParentId() {
+        return repeatParentId;
+    }
+
+    public void setRepeatParentId(String repeatParentId) {
+        this.repeatParentId = repeatParentId;
+    }
+
+    public String getRepeatDate() {
+        return repeatDate;
+    }
+
+    public void setRepeatDate(String repeatDate) {
+        this.repeatDate = repeatDate;
+    }
+}
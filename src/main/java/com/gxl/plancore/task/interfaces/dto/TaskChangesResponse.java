@@ -0,0 +1,46 @@
+package com.gxl.plancore.task.interfaces.dto;
+
+import java.util.List;
+
+/**
+ * 任务增量同步响应 DTO
+ */
+public class TaskChangesResponse {
+
+    private List<TaskChangeResponse> changes;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public TaskChangesResponse() {
+    }
+
+    public TaskChangesResponse(List<TaskChangeResponse> changes, String nextCursor, boolean hasMore) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<TaskChangeResponse> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<TaskChangeResponse> changes) {
+        this.changes = changes;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,46 @@
+package com.gxl.plancore.task.interfaces.dto;
+
+import java.util.List;
+
+/**
+ * 任务分页响应 DTO
+ */
+public class TaskPageResponse {
+
+    private List<TaskResponse> tasks;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public TaskPageResponse() {
+    }
+
+    public TaskPageResponse(List<TaskResponse> tasks, String nextCursor, boolean hasMore) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<TaskResponse> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskResponse> tasks) {
+        this.tasks = tasks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
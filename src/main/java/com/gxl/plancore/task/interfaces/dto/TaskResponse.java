@@ -12,12 +12,13 @@ public class TaskResponse {
     private String date;
     private String createdAt;
     private String completedAt;
+    private boolean repeat;
 
     public TaskResponse() {
     }
 
     public TaskResponse(String id, String title, String priority, String status,
-                        String date, String createdAt, String completedAt) {
+                        String date, String createdAt, String completedAt, boolean repeat) {
         this.id = id;
         this.title = title;
         this.priority = priority;
@@ -25,6 +26,7 @@ public class TaskResponse {
         this.date = date;
         this.createdAt = createdAt;
         this.completedAt = completedAt;
+        this.repeat = repeat;
     }
 
     public String getId() {
@@ -82,4 +84,12 @@ public class TaskResponse {
     public void setCompletedAt(String completedAt) {
         this.completedAt = completedAt;
     }
+
+    public boolean isRepeat() {
+        return repeat;
+    }
+
+    public void setRepeat(boolean repeat) {
+        this.repeat = repeat;
+    }
 }
@@ -25,6 +25,10 @@ public class TaskStatsResponse {
     private List<TaskResponse> completedTasks;
     /** 未完成任务列表 */
     private List<TaskResponse> incompleteTasks;
+    /** 已完成任务列表下一页游标（无下一页为 null） */
+    private String completedNextCursor;
+    /** 未完成任务列表下一页游标（无下一页为 null） */
+    private String incompleteNextCursor;
 
     public TaskStatsResponse() {
     }
@@ -32,7 +36,8 @@ public class TaskStatsResponse {
     public TaskStatsResponse(String dimension, String startDate, String endDate,
                              int totalCompleted, int totalTasks, double totalCompletionRate,
                              List<ChartDataResponse> chartData,
-                             List<TaskResponse> completedTasks, List<TaskResponse> incompleteTasks) {
+                             List<TaskResponse> completedTasks, List<TaskResponse> incompleteTasks,
+                             String completedNextCursor, String incompleteNextCursor) {
         this.dimension = dimension;
         this.startDate = startDate;
         this.endDate = endDate;
@@ -42,6 +47,8 @@ public class TaskStatsResponse {
         this.chartData = chartData;
         this.completedTasks = completedTasks;
         this.incompleteTasks = incompleteTasks;
+        this.completedNextCursor = completedNextCursor;
+        this.incompleteNextCursor = incompleteNextCursor;
     }
 
     public String getDimension() {
@@ -115,4 +122,20 @@ public class TaskStatsResponse {
     public void setIncompleteTasks(List<TaskResponse> incompleteTasks) {
         this.incompleteTasks = incompleteTasks;
     }
+
+    public String getCompletedNextCursor() {
+        return completedNextCursor;
+    }
+
+    public void setCompletedNextCursor(String completedNextCursor) {
+        this.completedNextCursor = completedNextCursor;
+    }
+
+    public String getIncompleteNextCursor() {
+        return incompleteNextCursor;
+    }
+
+    public void setIncompleteNextCursor(String incompleteNextCursor) {
+        this.incompleteNextCursor = incompleteNextCursor;
+    }
 }
@@ -1,6 +1,6 @@
 package com.gxl.plancore.user.application.dto;
 
-import com.gxl.plancore.user.domain.entity.DeviceSession;
+import com.gxl.plancore.user.domain.valueobject.DeviceSessionSummary;
 
 import java.time.Instant;
 
@@ -27,9 +27,9 @@ public class DeviceDTO {
     }
 
     /**
-     * 从领域实体创建 DTO
+     * 从会话摘要创建 DTO
      */
-    public static DeviceDTO fromDomain(DeviceSession session, boolean isCurrent) {
+    public static DeviceDTO fromSummary(DeviceSessionSummary session, boolean isCurrent) {
         return new DeviceDTO(
                 session.getDeviceId(),
                 session.getDeviceName(),
@@ -1,10 +1,17 @@
 package com.gxl.plancore.user.application.service;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.crypto.SecretKey;
 
@@ -21,11 +28,14 @@ import com.gxl.plancore.user.domain.repository.DeviceSessionRepository;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 /**
  * JWT 授权服务
+ * 解析器构建一次后复用（线程安全）；验签通过的 Claims 按 Token 摘要缓存至 Token 过期，
+ * 同一 Token 的重复请求跳过 HMAC 验签与 JSON 解码
  *
  * @author gxl
  */
@@ -35,6 +45,8 @@ public class AuthService {
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
     private final SecretKey secretKey;
+    private final JwtParser jwtParser;
+    private final VerifiedClaimsCache claimsCache;
     private final long accessTokenExpirationMinutes;
     private final long refreshTokenExpirationDays;
     private final DeviceSessionRepository deviceSessionRepository;
@@ -43,8 +55,11 @@ public class AuthService {
             @Value("${app.jwt.secret}") String secret,
             @Value("${app.jwt.access-token-expiration-minutes}") long accessTokenExpirationMinutes,
             @Value("${app.jwt.refresh-token-expiration-days}") long refreshTokenExpirationDays,
+            @Value("${app.jwt.claims-cache.max-size:10000}") int claimsCacheMaxSize,
             DeviceSessionRepository deviceSessionRepository) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser().verifyWith(secretKey).build();
+        this.claimsCache = new VerifiedClaimsCache(claimsCacheMaxSize);
         this.accessTokenExpirationMinutes = accessTokenExpirationMinutes;
         this.refreshTokenExpirationDays = refreshTokenExpirationDays;
         this.deviceSessionRepository = deviceSessionRepository;
@@ -87,7 +102,8 @@ public class AuthService {
     }
 
     /**
-     * 验证 refreshToken 是否有效
+     * 验证 refreshToken 是否有效（会话检查轮询使用）
+     * 只解析一次 Token（命中已验证 Claims 缓存时免验签），按 Token 中的 sessionId 查会话状态（优先读缓存）
      * 无效则抛出 UNAUTHORIZED 异常
      *
      * @param token refreshToken
@@ -102,15 +118,14 @@ public class AuthService {
             log.warn("refreshToken验证失败: {}", e.getMessage());
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
         }
-
-        // 2. 从数据库查找会话，校验状态
-        Optional<DeviceSession> sessionOpt = deviceSessionRepository.findByRefreshToken(token);
-        if (sessionOpt.isEmpty()) {
+        if (!"refresh".equals(claims.get("type", String.class))) {
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
         }
 
-        DeviceSession session = sessionOpt.get();
-        if (session.getStatus() != DeviceSession.Status.ACTIVE) {
+        // 2. 校验会话状态（refreshToken 不轮换，sessionId 与 refreshToken 一一对应）
+        Optional<DeviceSession.Status> status = deviceSessionRepository.findStatusBySessionId(
+                claims.get("sessionId", String.class));
+        if (status.isEmpty() || status.get() != DeviceSession.Status.ACTIVE) {
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
         }
         return claims;
@@ -235,21 +250,105 @@ public class AuthService {
 
     /**
      * 解析并验证 Token
+     * 先查已验证 Claims 缓存（未过期直接返回），未命中再验签解析并写入缓存
      *
      * @param token JWT Token
      * @return Claims
      * @throws ExpiredJwtException Token 过期时抛出
      */
     private Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String digest = digest(token);
+        Claims cached = claimsCache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            claimsCache.put(digest, claims, claims.getExpiration().getTime());
+        }
+        return claims;
+    }
+
+    /**
+     * 计算 Token 的 SHA-256 摘要（缓存 key，避免以完整 Token 常驻内存）
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
     }
 
     // ==================== 内部结果类 ====================
 
+    /**
+     * 已验证 Claims 缓存
+     * 以 Token 摘要为 key，条目在 Token 的 exp 时刻过期
+     *   - 查询：ConcurrentHashMap 无锁读，不在请求线程间共享监视器
+     *   - 清理：写入时按间隔顺带清理已过期条目（仅一个线程执行）
+     *   - 容量：达到上限且无可清理条目时不再写入，新 Token 每次验签，不影响正确性
+     */
+    private static final class VerifiedClaimsCache {
+
+        private static final long SWEEP_INTERVAL_MILLIS = 60_000L;
+
+        private final int maxSize;
+        private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+        /** 下次清理时间（毫秒） */
+        private final AtomicLong nextSweepAtMillis = new AtomicLong();
+
+        VerifiedClaimsCache(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        Claims get(String digest) {
+            Entry entry = entries.get(digest);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() >= entry.expireAtMillis) {
+                entries.remove(digest, entry);
+                return null;
+            }
+            return entry.claims;
+        }
+
+        void put(String digest, Claims claims, long expireAtMillis) {
+            sweepIfDue(System.currentTimeMillis());
+            if (entries.size() >= maxSize) {
+                return;
+            }
+            entries.put(digest, new Entry(claims, expireAtMillis));
+        }
+
+        private void sweepIfDue(long now) {
+            long due = nextSweepAtMillis.get();
+            if (now < due || !nextSweepAtMillis.compareAndSet(due, now + SWEEP_INTERVAL_MILLIS)) {
+                return;
+            }
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                if (now >= it.next().getValue().expireAtMillis) {
+                    it.remove();
+                }
+            }
+        }
+
+        private static final class Entry {
+            private final Claims claims;
+            private final long expireAtMillis;
+
+            Entry(Claims claims, long expireAtMillis) {
+                this.claims = claims;
+                this.expireAtMillis = expireAtMillis;
+            }
+        }
+    }
+
     /**
      * 双 Token 结果
      */
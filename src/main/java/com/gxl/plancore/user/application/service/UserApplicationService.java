@@ -1,6 +1,8 @@
 package com.gxl.plancore.user.application.service;
 
 import com.gxl.plancore.common.exception.BusinessException;
+import com.gxl.plancore.common.ratelimit.RateLimitPolicy;
+import com.gxl.plancore.common.ratelimit.RateLimiter;
 import com.gxl.plancore.common.response.ErrorCode;
 import com.gxl.plancore.common.service.EmailService;
 import com.gxl.plancore.user.application.command.ChangePasswordCommand;
@@ -17,6 +19,7 @@ import com.gxl.plancore.user.domain.entity.DeviceSession;
 import com.gxl.plancore.user.domain.entity.User;
 import com.gxl.plancore.user.domain.repository.DeviceSessionRepository;
 import com.gxl.plancore.user.domain.repository.UserRepository;
+import com.gxl.plancore.user.domain.valueobject.DeviceSessionSummary;
 import com.gxl.plancore.user.domain.valueobject.Email;
 import com.gxl.plancore.user.domain.valueobject.Nickname;
 import com.gxl.plancore.user.domain.valueobject.Password;
@@ -28,17 +31,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * 用户应用服务
  * 编排用户中心相关业务流程（资料修改等）
+ * 登录、注册、修改密码、找回密码不在方法级事务内执行：限流与 BCrypt 计算（可能排队等待）先在事务外完成，
+ * 仅最后的写库步骤通过 TransactionTemplate 开启事务，避免等待期间占用数据库连接
  */
 @Service
 public class UserApplicationService {
@@ -50,12 +59,15 @@ public class UserApplicationService {
     private final DeviceSessionRepository deviceSessionRepository;
     private final AuthService authService;
     private final EmailService emailService;
+    private final RateLimiter rateLimiter;
+    private final TransactionTemplate transactionTemplate;
 
-    // 频率限制缓存：邮箱 -> 上次发送时间戳
-    private final ConcurrentHashMap<String, Long> rateLimitCache = new ConcurrentHashMap<String, Long>();
-
-    @Value("${app.forgot-password.rate-limit-seconds:60}")
-    private int rateLimitSeconds;
+    /** 找回密码：同一邮箱每个窗口 1 次 */
+    private final RateLimitPolicy forgotPasswordPolicy;
+    /** 登录：同一邮箱每个窗口若干次 */
+    private final RateLimitPolicy loginPolicy;
+    /** 注册：同一 IP 每个窗口若干次 */
+    private final RateLimitPolicy registerPolicy;
 
     @Value("${app.device.max-sessions-per-user:10}")
     private int maxSessionsPerUser;
@@ -64,20 +76,30 @@ public class UserApplicationService {
     private static final int NEW_PASSWORD_LENGTH = 10;
 
     public UserApplicationService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-            DeviceSessionRepository deviceSessionRepository, AuthService authService, EmailService emailService) {
+            DeviceSessionRepository deviceSessionRepository, AuthService authService, EmailService emailService,
+            RateLimiter rateLimiter, PlatformTransactionManager transactionManager,
+            @Value("${app.forgot-password.rate-limit-seconds:60}") int forgotPasswordWindowSeconds,
+            @Value("${app.rate-limit.login.capacity:10}") int loginCapacity,
+            @Value("${app.rate-limit.login.window-seconds:300}") int loginWindowSeconds,
+            @Value("${app.rate-limit.register.capacity:5}") int registerCapacity,
+            @Value("${app.rate-limit.register.window-seconds:3600}") int registerWindowSeconds) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.deviceSessionRepository = deviceSessionRepository;
         this.authService = authService;
         this.emailService = emailService;
+        this.rateLimiter = rateLimiter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.forgotPasswordPolicy = new RateLimitPolicy("forgot-password", 1, forgotPasswordWindowSeconds * 1000L);
+        this.loginPolicy = new RateLimitPolicy("login", loginCapacity, loginWindowSeconds * 1000L);
+        this.registerPolicy = new RateLimitPolicy("register", registerCapacity, registerWindowSeconds * 1000L);
     }
 
     /**
      * 用户登录
      * 验证凭证、管理设备会话、生成双 Token
      */
-    @Transactional
-    public LoginResult login(LoginCommand command) {
+    public LoginResult login(final LoginCommand command) {
         log.info("用户登录: email={}", command.getEmail());
 
         // 1. 校验邮箱格式并创建值对象
@@ -87,6 +109,8 @@ public class UserApplicationService {
         } catch (IllegalArgumentException e) {
             throw new BusinessException(ErrorCode.AUTH_LOGIN_FAILED);
         }
+        // 同一邮箱的登录尝试限流（防止撞库）
+        checkRateLimit(loginPolicy, email.getValue().toLowerCase());
 
         // 2. 查询用户
         Optional<User> userOptional = userRepository.findByEmail(email);
@@ -95,7 +119,7 @@ public class UserApplicationService {
             throw new BusinessException(ErrorCode.AUTH_LOGIN_FAILED);
         }
 
-        User user = userOptional.get();
+        final User user = userOptional.get();
 
         // 3. 验证密码
         boolean passwordMatch = passwordEncoder.matches(command.getPassword(), user.getPassword().getHashedValue());
@@ -104,30 +128,18 @@ public class UserApplicationService {
             throw new BusinessException(ErrorCode.AUTH_LOGIN_FAILED);
         }
 
-        String userId = user.getUserId().getValue();
-        String deviceId = command.getDeviceId();
-
-        // 4. 检查该设备是否已有活跃会话
-        Optional<DeviceSession> existingSession = deviceSessionRepository.findActiveByUserIdAndDeviceId(userId,
-                deviceId);
-        if (existingSession.isPresent()) {
-            // 如果设备已有会话，先将其设为已退出
-            deviceSessionRepository.logoutByUserIdAndDeviceId(userId, deviceId);
-            log.info("设备已有会话，已退出旧会话: deviceId={}", deviceId);
+        // 密码哈希的 BCrypt cost 与当前配置不一致时，用本次明文重新加密（随会话一起在事务内落库）
+        // 落库时以本次校验通过的旧哈希做比较并设置，期间密码已被修改/找回时放弃，不会用旧密码覆盖新密码
+        final String verifiedHash = user.getPassword().getHashedValue();
+        final boolean rehashed = passwordEncoder.upgradeEncoding(verifiedHash);
+        if (rehashed) {
+            user.changePassword(Password.fromHashed(passwordEncoder.encode(command.getPassword())));
         }
 
-        // 5. 检查设备数量限制
-        int activeSessionCount = deviceSessionRepository.countActiveByUserId(userId);
-        if (activeSessionCount >= maxSessionsPerUser) {
-            // 超出限制，踢出最早的设备
-            Optional<DeviceSession> oldestSession = deviceSessionRepository.deleteOldestActiveSession(userId);
-            if (oldestSession.isPresent()) {
-                log.info("设备数量超限，踢出最早设备: sessionId={}, deviceName={}",
-                        oldestSession.get().getSessionId(), oldestSession.get().getDeviceName());
-            }
-        }
+        String userId = user.getUserId().getValue();
+        String deviceId = command.getDeviceId();
 
-        // 6. 生成双 Token
+        // 4. 生成双 Token
         // 先生成 sessionId 用于 JWT 的 sid 字段
         String sessionId = java.util.UUID.randomUUID().toString();
         TokenPair tokenPair = authService.generateTokens(userId, sessionId, deviceId);
@@ -136,27 +148,9 @@ public class UserApplicationService {
         Instant expiresAt = tokenPair.getAccessExpiresAt();
         Instant refreshExpiresAt = tokenPair.getRefreshExpiresAt();
 
-        // 7. 创建设备会话
-        DeviceSession deviceSession = DeviceSession.create(
-                userId,
-                deviceId,
-                command.getDeviceName(),
-                command.getPlatform(),
-                command.getOsVersion(),
-                command.getAppVersion(),
-                accessToken,
-                refreshToken,
-                expiresAt,
-                refreshExpiresAt,
-                command.getIpAddress());
-
-        // 由于 DeviceSession.create 已经生成了 sessionId，需要重新生成 Token 以使用正确的 sessionId
-        String actualSessionId = deviceSession.getSessionId();
-        accessToken = tokenPair.getAccessToken();
-        refreshToken = tokenPair.getRefreshToken();
-
-        // 更新 DeviceSession 的 Token
-        deviceSession = DeviceSession.create(
+        // 5. 创建设备会话（sessionId 与 Token 中一致，吊销列表按其识别会话）
+        final DeviceSession deviceSession = DeviceSession.create(
+                sessionId,
                 userId,
                 deviceId,
                 command.getDeviceName(),
@@ -169,13 +163,28 @@ public class UserApplicationService {
                 refreshExpiresAt,
                 command.getIpAddress());
 
-        // 8. 保存设备会话
-        deviceSessionRepository.save(deviceSession);
+        // 6. 会话轮换：退出该设备旧会话、超出设备数限制时踢出最久未活跃的设备，并保存新会话
+        List<String> evictedSessionIds = transactionTemplate.execute(new TransactionCallback<List<String>>() {
+            @Override
+            public List<String> doInTransaction(TransactionStatus status) {
+                if (rehashed) {
+                    if (userRepository.updatePasswordIfUnchanged(user, verifiedHash)) {
+                        log.info("登录时已按当前 BCrypt cost 重新加密密码: userId={}", user.getUserId().getValue());
+                    } else {
+                        log.info("登录重新加密跳过，密码已被修改: userId={}", user.getUserId().getValue());
+                    }
+                }
+                return deviceSessionRepository.rotate(deviceSession, maxSessionsPerUser);
+            }
+        });
+        if (!evictedSessionIds.isEmpty()) {
+            log.info("登录会话轮换，已退出旧会话: userId={}, sessionIds={}", userId, evictedSessionIds);
+        }
 
         log.info("用户登录成功: userId={}, email={}, deviceId={}, sessionId={}",
                 userId, email.getValue(), deviceId, deviceSession.getSessionId());
 
-        // 9. 返回登录结果
+        // 7. 返回登录结果
         return new LoginResult(
                 userId,
                 user.getEmail().getValue(),
@@ -190,10 +199,13 @@ public class UserApplicationService {
     /**
      * 用户注册
      */
-    @Transactional
     public UserDTO register(RegisterCommand command) {
         log.info("用户注册: email={}", command.getEmail());
 
+        // 同一 IP 的注册限流（无 IP 时按邮箱）
+        checkRateLimit(registerPolicy,
+                command.getIpAddress() != null ? command.getIpAddress() : String.valueOf(command.getEmail()).toLowerCase());
+
         // 1. 校验密码格式
         try {
             Password.validatePlainText(command.getPassword());
@@ -230,10 +242,15 @@ public class UserApplicationService {
         Password password = Password.fromHashed(hashedPassword);
 
         // 6. 创建用户
-        User user = User.create(email, password, nickname);
+        final User user = User.create(email, password, nickname);
 
         // 7. 保存用户
-        userRepository.save(user);
+        transactionTemplate.executeWithoutResult(new Consumer<TransactionStatus>() {
+            @Override
+            public void accept(TransactionStatus status) {
+                userRepository.save(user);
+            }
+        });
 
         log.info("用户注册成功: userId={}, email={}", user.getUserId().getValue(), email.getValue());
 
@@ -245,7 +262,6 @@ public class UserApplicationService {
      * 找回密码
      * 生成新密码并发送到用户邮箱
      */
-    @Transactional
     public void forgotPassword(ForgotPasswordCommand command) {
         log.info("找回密码请求: email={}", command.getEmail());
 
@@ -258,18 +274,7 @@ public class UserApplicationService {
         }
 
         // 2. 频率限制检查（同一邮箱 1 分钟内只能发送 1 次）
-        String emailKey = email.getValue().toLowerCase();
-        Long lastSendTime = rateLimitCache.get(emailKey);
-        long currentTime = System.currentTimeMillis();
-        if (lastSendTime != null) {
-            long elapsedSeconds = (currentTime - lastSendTime) / 1000;
-            if (elapsedSeconds < rateLimitSeconds) {
-                log.warn("找回密码请求过于频繁: email={}, 剩余等待秒数={}",
-                        command.getEmail(), rateLimitSeconds - elapsedSeconds);
-                throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS.getCode(),
-                        "操作过于频繁，请" + (rateLimitSeconds - elapsedSeconds) + "秒后重试");
-            }
-        }
+        checkRateLimit(forgotPasswordPolicy, email.getValue().toLowerCase());
 
         // 3. 查询用户
         Optional<User> userOptional = userRepository.findByEmail(email);
@@ -278,24 +283,25 @@ public class UserApplicationService {
             throw new BusinessException(ErrorCode.AUTH_EMAIL_NOT_FOUND);
         }
 
-        User user = userOptional.get();
+        final User user = userOptional.get();
+        final String emailValue = email.getValue();
 
         // 4. 生成新的随机密码
-        String newPlainPassword = generateRandomPassword();
+        final String newPlainPassword = generateRandomPassword();
 
         // 5. 加密新密码
         String hashedPassword = passwordEncoder.encode(newPlainPassword);
         Password newPassword = Password.fromHashed(hashedPassword);
-
-        // 6. 更新用户密码
         user.changePassword(newPassword);
-        userRepository.updatePassword(user);
-
-        // 7. 发送邮件
-        emailService.sendPasswordResetEmail(email.getValue(), newPlainPassword);
 
-        // 8. 更新频率限制缓存
-        rateLimitCache.put(emailKey, currentTime);
+        // 6. 更新用户密码并发送邮件（写入发件箱，事务提交后异步投递）
+        transactionTemplate.executeWithoutResult(new Consumer<TransactionStatus>() {
+            @Override
+            public void accept(TransactionStatus status) {
+                userRepository.updatePassword(user);
+                emailService.sendPasswordResetEmail(emailValue, newPlainPassword);
+            }
+        });
 
         log.info("找回密码成功: userId={}, email={}", user.getUserId().getValue(), email.getValue());
     }
@@ -328,15 +334,15 @@ public class UserApplicationService {
     public DeviceListDTO getDevices(String userId, String currentDeviceId) {
         log.info("查询设备列表: userId={}, currentDeviceId={}", userId, currentDeviceId);
 
-        // 查询用户所有活跃会话
-        List<DeviceSession> sessions = deviceSessionRepository.findActiveByUserId(userId);
+        // 查询用户所有活跃会话（仅设备列表所需列）
+        List<DeviceSessionSummary> sessions = deviceSessionRepository.findActiveSummariesByUserId(userId);
 
         DeviceDTO currentDevice = null;
         List<DeviceDTO> otherDevices = new ArrayList<DeviceDTO>();
 
-        for (DeviceSession session : sessions) {
+        for (DeviceSessionSummary session : sessions) {
             boolean isCurrent = session.getDeviceId().equals(currentDeviceId);
-            DeviceDTO deviceDTO = DeviceDTO.fromDomain(session, isCurrent);
+            DeviceDTO deviceDTO = DeviceDTO.fromSummary(session, isCurrent);
 
             if (isCurrent) {
                 currentDevice = deviceDTO;
@@ -446,19 +452,13 @@ public class UserApplicationService {
             throw new BusinessException(ErrorCode.DEVICE_CANNOT_LOGOUT_CURRENT);
         }
 
-        // 2. 查询目标设备会话
-        Optional<DeviceSession> sessionOptional = deviceSessionRepository.findActiveByUserIdAndDeviceId(userId,
-                targetDeviceId);
-
-        // 3. 幂等处理：设备不存在或已退出，直接返回成功
-        if (!sessionOptional.isPresent()) {
+        // 2. 执行退出；幂等处理：设备不存在或已退出时退出数为 0，直接返回成功
+        int loggedOut = deviceSessionRepository.logoutByUserIdAndDeviceId(userId, targetDeviceId);
+        if (loggedOut == 0) {
             log.info("设备已退出或不存在，幂等返回成功: deviceId={}", targetDeviceId);
             return;
         }
 
-        // 4. 执行退出
-        deviceSessionRepository.logoutByUserIdAndDeviceId(userId, targetDeviceId);
-
         log.info("踢出设备成功: userId={}, deviceId={}", userId, targetDeviceId);
     }
 
@@ -468,8 +468,7 @@ public class UserApplicationService {
      * 
      * @param command 修改密码命令
      */
-    @Transactional
-    public void changePassword(ChangePasswordCommand command) {
+    public void changePassword(final ChangePasswordCommand command) {
         log.info("修改密码: userId={}", command.getUserId());
 
         // 1. 查询用户
@@ -480,7 +479,7 @@ public class UserApplicationService {
             throw new BusinessException(ErrorCode.UNAUTHORIZED);
         }
 
-        User user = userOptional.get();
+        final User user = userOptional.get();
 
         // 2. 验证旧密码
         boolean passwordMatch = passwordEncoder.matches(command.getOldPassword(), user.getPassword().getHashedValue());
@@ -500,20 +499,32 @@ public class UserApplicationService {
         String hashedPassword = passwordEncoder.encode(command.getNewPassword());
         Password newPassword = Password.fromHashed(hashedPassword);
 
-        // 5. 更新用户密码
         user.changePassword(newPassword);
-        userRepository.updatePassword(user);
 
-        // 6. 使其他设备的会话失效（强制下线），保留当前设备
-        List<DeviceSession> sessions = deviceSessionRepository.findActiveByUserId(command.getUserId());
-        for (DeviceSession session : sessions) {
-            if (!session.getDeviceId().equals(command.getCurrentDeviceId())) {
-                deviceSessionRepository.logoutByUserIdAndDeviceId(command.getUserId(), session.getDeviceId());
+        // 5. 更新用户密码，并使其他设备的会话失效（强制下线），保留当前设备
+        Integer loggedOut = transactionTemplate.execute(new TransactionCallback<Integer>() {
+            @Override
+            public Integer doInTransaction(TransactionStatus status) {
+                userRepository.updatePassword(user);
+                return deviceSessionRepository.logoutAllByUserIdExceptDevice(command.getUserId(),
+                        command.getCurrentDeviceId());
             }
-        }
+        });
 
-        log.info("修改密码成功: userId={}, 已下线其他设备数={}",
-                command.getUserId(), sessions.size() - 1);
+        log.info("修改密码成功: userId={}, 已下线其他会话数={}", command.getUserId(), loggedOut);
+    }
+
+    /**
+     * 限流检查，被限流时抛出 TOO_MANY_REQUESTS（提示需等待的秒数）
+     */
+    private void checkRateLimit(RateLimitPolicy policy, String key) {
+        long retryAfterMillis = rateLimiter.tryAcquire(policy, key);
+        if (retryAfterMillis > 0) {
+            long retryAfterSeconds = (retryAfterMillis + 999) / 1000;
+            log.warn("请求过于频繁: policy={}, key={}, 剩余等待秒数={}", policy.getName(), key, retryAfterSeconds);
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS.getCode(),
+                    "操作过于频繁，请" + retryAfterSeconds + "秒后重试");
+        }
     }
 
     /**
@@ -1,7 +1,6 @@
 package com.gxl.plancore.user.domain.entity;
 
 import java.time.Instant;
-import java.util.UUID;
 
 /**
  * 设备会话实体
@@ -38,15 +37,17 @@ public class DeviceSession {
 
     /**
      * 创建新的设备会话（用于登录）
+     *
+     * @param sessionId 会话ID（与 Token 中的 sessionId 一致）
      */
-    public static DeviceSession create(String userId, String deviceId, String deviceName,
+    public static DeviceSession create(String sessionId, String userId, String deviceId, String deviceName,
                                        String platform, String osVersion, String appVersion,
                                        String accessToken, String refreshToken,
                                        Instant expiresAt, Instant refreshExpiresAt,
                                        String ipAddress) {
         Instant now = Instant.now();
         return new DeviceSession(
-                UUID.randomUUID().toString(),
+                sessionId,
                 userId,
                 deviceId,
                 deviceName,
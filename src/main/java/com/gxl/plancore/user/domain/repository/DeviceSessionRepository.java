@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import com.gxl.plancore.user.domain.entity.DeviceSession;
+import com.gxl.plancore.user.domain.valueobject.DeviceSessionSummary;
 
 /**
  * 设备会话仓储接口
@@ -18,20 +19,12 @@ public interface DeviceSessionRepository {
     void save(DeviceSession deviceSession);
 
     /**
-     * 根据会话ID查询
+     * 根据会话ID查询会话状态（优先读缓存，未命中只查询状态列）
      *
      * @param sessionId 会话ID
-     * @return 设备会话
-     */
-    Optional<DeviceSession> findBySessionId(String sessionId);
-
-    /**
-     * 根据 access_token 查询
-     *
-     * @param accessToken JWT access_token
-     * @return 设备会话
+     * @return 会话状态，会话不存在返回 empty
      */
-    Optional<DeviceSession> findByAccessToken(String accessToken);
+    Optional<DeviceSession.Status> findStatusBySessionId(String sessionId);
 
     /**
      * 根据 refresh_token 查询
@@ -42,29 +35,12 @@ public interface DeviceSessionRepository {
     Optional<DeviceSession> findByRefreshToken(String refreshToken);
 
     /**
-     * 根据用户ID和设备ID查询活跃会话
-     *
-     * @param userId   用户ID
-     * @param deviceId 设备ID
-     * @return 设备会话
-     */
-    Optional<DeviceSession> findActiveByUserIdAndDeviceId(String userId, String deviceId);
-
-    /**
-     * 查询用户的所有活跃会话
-     *
-     * @param userId 用户ID
-     * @return 活跃会话列表
-     */
-    List<DeviceSession> findActiveByUserId(String userId);
-
-    /**
-     * 统计用户的活跃会话数量
+     * 查询用户的所有活跃会话摘要（不含 Token，按最近活跃倒序）
      *
      * @param userId 用户ID
-     * @return 活跃会话数量
+     * @return 活跃会话摘要列表
      */
-    int countActiveByUserId(String userId);
+    List<DeviceSessionSummary> findActiveSummariesByUserId(String userId);
 
     /**
      * 更新设备会话
@@ -78,21 +54,34 @@ public interface DeviceSessionRepository {
      *
      * @param userId   用户ID
      * @param deviceId 设备ID
+     * @return 退出的会话数
      */
-    void logoutByUserIdAndDeviceId(String userId, String deviceId);
+    int logoutByUserIdAndDeviceId(String userId, String deviceId);
 
     /**
-     * 将用户的所有会话设为已退出（用于修改密码后强制下线）
+     * 将用户的所有会话设为已退出
      *
      * @param userId 用户ID
+     * @return 退出的会话数
      */
-    void logoutAllByUserId(String userId);
+    int logoutAllByUserId(String userId);
 
     /**
-     * 删除用户最早的活跃会话（超出设备数限制时使用）
+     * 将用户除指定设备外的所有会话设为已退出（用于修改密码后强制其他设备下线）
      *
-     * @param userId 用户ID
-     * @return 被删除的会话，如果没有则返回 empty
+     * @param userId        用户ID
+     * @param keepDeviceId  保留的设备ID
+     * @return 退出的会话数
+     */
+    int logoutAllByUserIdExceptDevice(String userId, String keepDeviceId);
+
+    /**
+     * 登录会话轮换：退出该设备的旧会话、超出设备数上限时退出最久未活跃的会话，并保存新会话
+     * 同一用户的并发登录串行执行，轮换后活跃会话数不超过上限（需在事务内调用）
+     *
+     * @param newSession        新会话
+     * @param maxActiveSessions 每个用户的活跃会话数上限
+     * @return 被退出的会话ID列表
      */
-    Optional<DeviceSession> deleteOldestActiveSession(String userId);
+    List<String> rotate(DeviceSession newSession, int maxActiveSessions);
 }
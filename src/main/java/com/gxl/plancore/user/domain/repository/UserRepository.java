@@ -35,6 +35,13 @@ public interface UserRepository {
      * 更新用户密码
      */
     void updatePassword(User user);
+
+    /**
+     * 库中密码哈希仍为 expectedHashedPassword 时更新用户密码（比较并设置）
+     *
+     * @return 是否已更新；期间密码已被修改时返回 false
+     */
+    boolean updatePasswordIfUnchanged(User user, String expectedHashedPassword);
     
     /**
      * 更新用户资料（昵称、头像、昵称修改计数）
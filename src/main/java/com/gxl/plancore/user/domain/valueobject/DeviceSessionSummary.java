@@ -0,0 +1,57 @@
+package com.gxl.plancore.user.domain.valueobject;
+
+import java.time.Instant;
+
+/**
+ * 设备会话摘要（只读视图）
+ * 设备列表等只需展示信息的场景使用，不含 accessToken / refreshToken
+ */
+public class DeviceSessionSummary {
+
+    private final String sessionId;
+    private final String deviceId;
+    private final String deviceName;
+    private final String platform;
+    private final String lastLoginIp;
+    private final Instant lastLoginAt;
+    private final Instant lastActiveAt;
+
+    public DeviceSessionSummary(String sessionId, String deviceId, String deviceName, String platform,
+                                String lastLoginIp, Instant lastLoginAt, Instant lastActiveAt) {
+        this.sessionId = sessionId;
+        this.deviceId = deviceId;
+        this.deviceName = deviceName;
+        this.platform = platform;
+        this.lastLoginIp = lastLoginIp;
+        this.lastLoginAt = lastLoginAt;
+        this.lastActiveAt = lastActiveAt;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public String getLastLoginIp() {
+        return lastLoginIp;
+    }
+
+    public Instant getLastLoginAt() {
+        return lastLoginAt;
+    }
+
+    public Instant getLastActiveAt() {
+        return lastActiveAt;
+    }
+}
@@ -0,0 +1,136 @@
+package com.gxl.plancore.user.infrastructure.cache;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.gxl.plancore.user.infrastructure.persistence.mapper.DeviceSessionMapper;
+import com.gxl.plancore.user.infrastructure.persistence.po.DeviceSessionPO;
+
+/**
+ * 会话活跃时间写缓冲（write-behind）
+ * 拦截器每次请求只在内存中记录 sessionId 的最近活跃时间，后台按固定间隔合并为批量 UPDATE 写回 device_session
+ *   - 合并：同一会话在一个间隔内的多次请求只保留最新时间，每个会话每个间隔最多写一次
+ *   - 单调：写回时取库中值与缓冲值的较大者，只更新活跃会话
+ *   - 停机：应用关闭时写回剩余缓冲；进程崩溃最多丢失一个间隔的活跃时间（仅影响设备列表展示）
+ * 【假设】PRD 未指定定时任务框架，使用单线程调度器
+ */
+@Component
+public class SessionActivityBuffer implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionActivityBuffer.class);
+
+    private final DeviceSessionMapper deviceSessionMapper;
+    private final long flushIntervalSeconds;
+    private final int batchSize;
+
+    /** sessionId -> 最近活跃时间（毫秒），待写回 */
+    private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public SessionActivityBuffer(
+            DeviceSessionMapper deviceSessionMapper,
+            @Value("${app.device.activity.flush-interval-seconds:60}") long flushIntervalSeconds,
+            @Value("${app.device.activity.flush-batch-size:500}") int batchSize) {
+        this.deviceSessionMapper = deviceSessionMapper;
+        this.flushIntervalSeconds = flushIntervalSeconds;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 记录会话活跃（仅写内存）
+     */
+    public void record(String sessionId) {
+        if (sessionId != null) {
+            pending.put(sessionId, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "session-activity-flush");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * 写回缓冲中的活跃时间
+     * 逐条取出（仅当值未被并发刷新时移除，被刷新的留待下个间隔），按批量大小分批 UPDATE
+     *
+     * @return 写回的会话数
+     */
+    public synchronized int flush() {
+        List<DeviceSessionPO> batch = new ArrayList<>();
+        int flushed = 0;
+        Iterator<Map.Entry<String, Long>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            String sessionId = entry.getKey();
+            Long activeAtMillis = entry.getValue();
+            if (!pending.remove(sessionId, activeAtMillis)) {
+                continue;
+            }
+            DeviceSessionPO po = new DeviceSessionPO();
+            po.setSessionId(sessionId);
+            po.setLastActiveAt(Instant.ofEpochMilli(activeAtMillis));
+            batch.add(po);
+            if (batch.size() >= batchSize) {
+                flushed += write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushed += write(batch);
+        }
+        return flushed;
+    }
+
+    public int pendingSize() {
+        return pending.size();
+    }
+
+    private int write(List<DeviceSessionPO> batch) {
+        try {
+            deviceSessionMapper.updateLastActiveAtBatch(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.warn("写回会话活跃时间失败，丢弃本批: size={}", batch.size(), e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.gxl.plancore.user.infrastructure.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话吊销列表（进程内）
+ * 会话退出/被踢下线时登记其 sessionId，拦截器据此拒绝该会话仍未过期的 accessToken，无需每次请求查库
+ *   - 有效期：条目在登记后保留一个 accessToken 有效期，此后该会话签发的 accessToken 均已自然过期
+ *   - 查询：ConcurrentHashMap 无锁读，O(1) 且不分配对象
+ *   - 清理：登记时按间隔顺带清理已过期条目，列表规模受“一个 accessToken 有效期内的退出次数”约束
+ * 【假设】PRD 未指定分布式缓存，使用进程内列表，多节点部署时其他节点依赖 accessToken 过期兜底
+ */
+@Component
+public class SessionRevocationList {
+
+    private final long ttlMillis;
+
+    /** sessionId -> 条目过期时间（毫秒） */
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    /** 下次清理时间（毫秒） */
+    private final AtomicLong nextSweepAtMillis = new AtomicLong();
+
+    public SessionRevocationList(
+            @Value("${app.jwt.access-token-expiration-minutes}") long accessTokenExpirationMinutes) {
+        this.ttlMillis = accessTokenExpirationMinutes * 60_000L;
+    }
+
+    /**
+     * 登记已吊销的会话
+     */
+    public void revoke(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        revoked.put(sessionId, now + ttlMillis);
+        sweepIfDue(now);
+    }
+
+    /**
+     * 判断会话是否已吊销
+     */
+    public boolean isRevoked(String sessionId) {
+        if (sessionId == null) {
+            return false;
+        }
+        Long expireAtMillis = revoked.get(sessionId);
+        return expireAtMillis != null && System.currentTimeMillis() < expireAtMillis;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * 距上次清理超过一个 TTL 时清理过期条目（仅一个线程执行）
+     */
+    private void sweepIfDue(long now) {
+        long due = nextSweepAtMillis.get();
+        if (now < due || !nextSweepAtMillis.compareAndSet(due, now + ttlMillis)) {
+            return;
+        }
+        Iterator<Map.Entry<String, Long>> it = revoked.entrySet().iterator();
+        while (it.hasNext()) {
+            if (now >= it.next().getValue()) {
+                it.remove();
+            }
+        }
+    }
+}
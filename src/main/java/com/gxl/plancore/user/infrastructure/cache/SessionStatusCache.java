@@ -0,0 +1,89 @@
+package com.gxl.plancore.user.infrastructure.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gxl.plancore.user.domain.entity.DeviceSession;
+
+/**
+ * 会话状态本地缓存
+ * 以 sessionId 为 key 缓存会话状态，供会话检查轮询接口使用，命中时不查库
+ *   - 容量上限：超出后按 LRU 淘汰
+ *   - 过期时间：条目写入超过 TTL 后视为失效，重新查库
+ *   - 退出/踢下线：仓储在会话置为已退出时直接写入 LOGGED_OUT；LOGGED_OUT 为终态，
+ *     查库回填的 ACTIVE 不会覆盖它，避免并发回填旧状态
+ * 【假设】PRD 未指定分布式缓存，使用进程内缓存，多节点间依赖 TTL 兜底一致性
+ */
+@Component
+public class SessionStatusCache {
+
+    private final long ttlMillis;
+
+    /** access-order，用于 LRU 淘汰，由 this 锁保护 */
+    private final LinkedHashMap<String, Entry> entries;
+
+    public SessionStatusCache(
+            @Value("${app.device.status-cache.max-size:50000}") final int maxSize,
+            @Value("${app.device.status-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 读取会话状态
+     *
+     * @return 会话状态，未命中或已过期返回 null
+     */
+    public synchronized DeviceSession.Status get(String sessionId) {
+        Entry entry = entries.get(sessionId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expireAtMillis) {
+            entries.remove(sessionId);
+            return null;
+        }
+        return entry.status;
+    }
+
+    /**
+     * 写入查库或新建得到的状态（不覆盖未过期的 LOGGED_OUT）
+     */
+    public synchronized void put(String sessionId, DeviceSession.Status status) {
+        Entry existing = entries.get(sessionId);
+        if (existing != null && existing.status == DeviceSession.Status.LOGGED_OUT
+                && System.currentTimeMillis() < existing.expireAtMillis) {
+            return;
+        }
+        entries.put(sessionId, new Entry(status, System.currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * 标记会话已退出
+     */
+    public synchronized void markLoggedOut(String sessionId) {
+        entries.put(sessionId, new Entry(DeviceSession.Status.LOGGED_OUT, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final DeviceSession.Status status;
+        private final long expireAtMillis;
+
+        Entry(DeviceSession.Status status, long expireAtMillis) {
+            this.status = status;
+            this.expireAtMillis = expireAtMillis;
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.gxl.plancore.user.infrastructure.persistence.converter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
 import com.gxl.plancore.user.domain.entity.DeviceSession;
+import com.gxl.plancore.user.domain.valueobject.DeviceSessionSummary;
 import com.gxl.plancore.user.infrastructure.persistence.po.DeviceSessionPO;
 
 /**
@@ -36,6 +42,20 @@ public class DeviceSessionConverter {
                 po.getUpdatedAt());
     }
 
+    /**
+     * 设备列表投影 PO -> 会话摘要
+     */
+    public static DeviceSessionSummary toSummary(DeviceSessionPO po) {
+        return new DeviceSessionSummary(
+                po.getSessionId(),
+                po.getDeviceId(),
+                po.getDeviceName(),
+                po.getPlatform(),
+                po.getLastLoginIp(),
+                po.getLastLoginAt(),
+                po.getLastActiveAt());
+    }
+
     /**
      * 领域对象 -> PO
      */
@@ -53,6 +73,7 @@ public class DeviceSessionConverter {
         po.setAppVersion(session.getAppVersion());
         po.setAccessToken(session.getAccessToken());
         po.setRefreshToken(session.getRefreshToken());
+        po.setRefreshTokenHash(hashToken(session.getRefreshToken()));
         po.setExpiresAt(session.getExpiresAt());
         po.setRefreshExpiresAt(session.getRefreshExpiresAt());
         po.setLastLoginIp(session.getLastLoginIp());
@@ -64,4 +85,20 @@ public class DeviceSessionConverter {
         po.setUpdatedAt(session.getUpdatedAt());
         return po;
     }
+
+    /**
+     * 计算 token 的查询摘要（SHA-256 小写十六进制，与 MySQL SHA2(token, 256) 结果一致）
+     * refresh_token 按摘要列定长唯一索引查询，不再对 VARCHAR(500) 原文做前缀索引
+     */
+    public static String hashToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
 }
@@ -18,66 +18,73 @@ import com.gxl.plancore.user.infrastructure.persistence.po.DeviceSessionPO;
 public interface DeviceSessionMapper {
 
         @Insert("INSERT INTO device_session (session_id, user_id, device_id, device_name, platform, " +
-                        "os_version, app_version, access_token, refresh_token, expires_at, refresh_expires_at, " +
+                        "os_version, app_version, access_token, refresh_token, refresh_token_hash, " +
+                        "expires_at, refresh_expires_at, " +
                         "last_login_ip, last_login_at, last_active_at, status) " +
                         "VALUES (#{sessionId}, #{userId}, #{deviceId}, #{deviceName}, #{platform}, " +
-                        "#{osVersion}, #{appVersion}, #{accessToken}, #{refreshToken}, #{expiresAt}, #{refreshExpiresAt}, "
-                        +
+                        "#{osVersion}, #{appVersion}, #{accessToken}, #{refreshToken}, #{refreshTokenHash}, " +
+                        "#{expiresAt}, #{refreshExpiresAt}, " +
                         "#{lastLoginIp}, #{lastLoginAt}, #{lastActiveAt}, #{status})")
         void insert(DeviceSessionPO po);
 
         @Select("SELECT id, session_id, user_id, device_id, device_name, platform, os_version, app_version, " +
                         "access_token, refresh_token, expires_at, refresh_expires_at, " +
                         "last_login_ip, last_login_at, last_active_at, status, logged_out_at, created_at, updated_at " +
-                        "FROM device_session WHERE refresh_token = #{refreshToken}")
-        DeviceSessionPO findByRefreshToken(@Param("refreshToken") String refreshToken);
+                        "FROM device_session WHERE refresh_token_hash = #{refreshTokenHash}")
+        DeviceSessionPO findByRefreshTokenHash(@Param("refreshTokenHash") String refreshTokenHash);
 
         @Update("UPDATE device_session SET access_token = #{accessToken}, refresh_token = #{refreshToken}, " +
+                        "refresh_token_hash = #{refreshTokenHash}, " +
                         "expires_at = #{expiresAt}, refresh_expires_at = #{refreshExpiresAt}, " +
                         "last_active_at = #{lastActiveAt}, status = #{status}, logged_out_at = #{loggedOutAt}, " +
                         "updated_at = #{updatedAt} " +
                         "WHERE session_id = #{sessionId}")
         void update(DeviceSessionPO po);
 
-        @Select("SELECT * FROM device_session WHERE session_id = #{sessionId}")
-        DeviceSessionPO selectBySessionId(@Param("sessionId") String sessionId);
-
-        @Select("SELECT * FROM device_session WHERE access_token = #{accessToken} AND status = 'ACTIVE'")
-        DeviceSessionPO selectByAccessToken(@Param("accessToken") String accessToken);
-
-        @Select("SELECT * FROM device_session WHERE user_id = #{userId} AND device_id = #{deviceId} AND status = 'ACTIVE'")
-        DeviceSessionPO selectActiveByUserIdAndDeviceId(@Param("userId") String userId,
-                        @Param("deviceId") String deviceId);
-
-        @Select("SELECT * FROM device_session WHERE user_id = #{userId} AND status = 'ACTIVE' ORDER BY last_active_at DESC")
-        List<DeviceSessionPO> selectActiveByUserId(@Param("userId") String userId);
-
-        @Select("SELECT COUNT(*) FROM device_session WHERE user_id = #{userId} AND status = 'ACTIVE'")
-        int countActiveByUserId(@Param("userId") String userId);
-
-        @Update("UPDATE device_session SET status = 'LOGGED_OUT', logged_out_at = #{loggedOutAt}, updated_at = #{updatedAt} "
-                        +
-                        "WHERE user_id = #{userId} AND device_id = #{deviceId} AND status = 'ACTIVE'")
-        int logoutByUserIdAndDeviceId(@Param("userId") String userId,
-                        @Param("deviceId") String deviceId,
-                        @Param("loggedOutAt") LocalDateTime loggedOutAt,
-                        @Param("updatedAt") LocalDateTime updatedAt);
-
-        @Update("UPDATE device_session SET status = 'LOGGED_OUT', logged_out_at = #{loggedOutAt}, updated_at = #{updatedAt} "
-                        +
-                        "WHERE user_id = #{userId} AND status = 'ACTIVE'")
-        int logoutAllByUserId(@Param("userId") String userId,
+        @Select("SELECT status FROM device_session WHERE session_id = #{sessionId}")
+        String selectStatusBySessionId(@Param("sessionId") String sessionId);
+
+        /**
+         * 设备列表投影（不含 Token 列）
+         */
+        @Select("SELECT session_id, device_id, device_name, platform, last_login_ip, last_login_at, last_active_at " +
+                        "FROM device_session WHERE user_id = #{userId} AND status = 'ACTIVE' ORDER BY last_active_at DESC")
+        List<DeviceSessionPO> selectActiveSummariesByUserId(@Param("userId") String userId);
+
+        /**
+         * 查询活跃会话ID（deviceId 非空时只查该设备；excludeDeviceId 非空时排除该设备）
+         */
+        @Select("<script>SELECT session_id FROM device_session WHERE user_id = #{userId} AND status = 'ACTIVE'" +
+                        "<if test='deviceId != null'> AND device_id = #{deviceId}</if>" +
+                        "<if test='excludeDeviceId != null'> AND device_id &lt;&gt; #{excludeDeviceId}</if></script>")
+        List<String> selectActiveSessionIds(@Param("userId") String userId, @Param("deviceId") String deviceId,
+                        @Param("excludeDeviceId") String excludeDeviceId);
+
+        /**
+         * 锁定用户行及其全部活跃会话（按最近活跃倒序），同一用户的并发登录在此串行化
+         * 以用户行加锁：用户尚无活跃会话时也能互斥，避免两个事务各持间隙锁后插入死锁
+         */
+        @Select("SELECT d.session_id, d.device_id FROM user u " +
+                        "LEFT JOIN device_session d ON d.user_id = u.user_id AND d.status = 'ACTIVE' " +
+                        "WHERE u.user_id = #{userId} ORDER BY d.last_active_at DESC FOR UPDATE")
+        List<DeviceSessionPO> lockActiveByUserId(@Param("userId") String userId);
+
+        @Update("<script>UPDATE device_session SET status = 'LOGGED_OUT', logged_out_at = #{loggedOutAt}, " +
+                        "updated_at = #{updatedAt} WHERE status = 'ACTIVE' AND session_id IN " +
+                        "<foreach collection='sessionIds' item='sessionId' open='(' separator=',' close=')'>" +
+                        "#{sessionId}</foreach></script>")
+        int logoutBySessionIds(@Param("sessionIds") List<String> sessionIds,
                         @Param("loggedOutAt") LocalDateTime loggedOutAt,
                         @Param("updatedAt") LocalDateTime updatedAt);
 
-        @Select("SELECT * FROM device_session WHERE user_id = #{userId} AND status = 'ACTIVE' " +
-                        "ORDER BY last_active_at ASC LIMIT 1")
-        DeviceSessionPO selectOldestActiveSession(@Param("userId") String userId);
-
-        @Update("UPDATE device_session SET status = 'LOGGED_OUT', logged_out_at = #{loggedOutAt}, updated_at = #{updatedAt} "
-                        +
-                        "WHERE session_id = #{sessionId}")
-        int logoutBySessionId(@Param("sessionId") String sessionId,
-                        @Param("loggedOutAt") LocalDateTime loggedOutAt,
-                        @Param("updatedAt") LocalDateTime updatedAt);
+        /**
+         * 批量写回会话活跃时间（只前移不回退，仅活跃会话）
+         */
+        @Update("<script>UPDATE device_session SET last_active_at = CASE session_id " +
+                        "<foreach collection='items' item='item'>" +
+                        "WHEN #{item.sessionId} THEN GREATEST(last_active_at, #{item.lastActiveAt}) </foreach>" +
+                        "END WHERE status = 'ACTIVE' AND session_id IN " +
+                        "<foreach collection='items' item='item' open='(' separator=',' close=')'>" +
+                        "#{item.sessionId}</foreach></script>")
+        int updateLastActiveAtBatch(@Param("items") List<DeviceSessionPO> items);
 }
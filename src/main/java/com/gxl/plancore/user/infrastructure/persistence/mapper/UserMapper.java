@@ -39,6 +39,12 @@ public interface UserMapper {
             "WHERE user_id = #{userId} AND deleted_at IS NULL")
     int updatePassword(@Param("userId") String userId, @Param("password") String password, 
                        @Param("updatedAt") java.time.Instant updatedAt);
+
+    @org.apache.ibatis.annotations.Update("UPDATE user SET password = #{password}, updated_at = #{updatedAt} " +
+            "WHERE user_id = #{userId} AND password = #{expectedPassword} AND deleted_at IS NULL")
+    int updatePasswordIfMatch(@Param("userId") String userId, @Param("password") String password,
+                              @Param("expectedPassword") String expectedPassword,
+                              @Param("updatedAt") java.time.Instant updatedAt);
     
     @org.apache.ibatis.annotations.Update("UPDATE user SET nickname = #{nickname}, avatar = #{avatar}, " +
             "nickname_modify_count = #{nicknameModifyCount}, nickname_first_modify_at = #{nicknameFirstModifyAt}, " +
@@ -18,6 +18,7 @@ public class DeviceSessionPO {
     private String appVersion;
     private String accessToken;
     private String refreshToken;
+    private String refreshTokenHash;
     private Instant expiresAt;
     private Instant refreshExpiresAt;
     private String lastLoginIp;
@@ -109,6 +110,14 @@ public class DeviceSessionPO {
         this.refreshToken = refreshToken;
     }
 
+    public String getRefreshTokenHash() {
+        return refreshTokenHash;
+    }
+
+    public void setRefreshTokenHash(String refreshTokenHash) {
+        this.refreshTokenHash = refreshTokenHash;
+    }
+
     public Instant getExpiresAt() {
         return expiresAt;
     }
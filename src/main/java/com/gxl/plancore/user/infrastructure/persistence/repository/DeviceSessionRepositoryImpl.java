@@ -3,100 +3,184 @@ package com.gxl.plancore.user.infrastructure.persistence.repository;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.gxl.plancore.user.domain.entity.DeviceSession;
 import com.gxl.plancore.user.domain.repository.DeviceSessionRepository;
+import com.gxl.plancore.user.domain.valueobject.DeviceSessionSummary;
+import com.gxl.plancore.user.infrastructure.cache.SessionRevocationList;
+import com.gxl.plancore.user.infrastructure.cache.SessionStatusCache;
 import com.gxl.plancore.user.infrastructure.persistence.converter.DeviceSessionConverter;
 import com.gxl.plancore.user.infrastructure.persistence.mapper.DeviceSessionMapper;
 import com.gxl.plancore.user.infrastructure.persistence.po.DeviceSessionPO;
 
 /**
  * 设备会话仓储实现
+ * 会话置为已退出的所有路径都会同步登记吊销列表（使其 accessToken 在拦截器处立即失效）并更新会话状态缓存
+ * 吊销登记与缓存写入在事务提交后进行，调用方事务回滚时不改动本地状态；不在事务中时立即写入
  */
 @Repository
 public class DeviceSessionRepositoryImpl implements DeviceSessionRepository {
 
     private final DeviceSessionMapper deviceSessionMapper;
+    private final SessionRevocationList sessionRevocationList;
+    private final SessionStatusCache sessionStatusCache;
 
-    public DeviceSessionRepositoryImpl(DeviceSessionMapper deviceSessionMapper) {
+    public DeviceSessionRepositoryImpl(DeviceSessionMapper deviceSessionMapper,
+                                       SessionRevocationList sessionRevocationList,
+                                       SessionStatusCache sessionStatusCache) {
         this.deviceSessionMapper = deviceSessionMapper;
+        this.sessionRevocationList = sessionRevocationList;
+        this.sessionStatusCache = sessionStatusCache;
     }
 
     @Override
     public void save(DeviceSession deviceSession) {
         DeviceSessionPO po = DeviceSessionConverter.toPO(deviceSession);
         deviceSessionMapper.insert(po);
+        cacheStatusAfterCommit(deviceSession);
     }
 
     @Override
-    public Optional<DeviceSession> findBySessionId(String sessionId) {
-        DeviceSessionPO po = deviceSessionMapper.selectBySessionId(sessionId);
-        return Optional.ofNullable(DeviceSessionConverter.toEntity(po));
-    }
-
-    @Override
-    public Optional<DeviceSession> findByAccessToken(String accessToken) {
-        DeviceSessionPO po = deviceSessionMapper.selectByAccessToken(accessToken);
-        return Optional.ofNullable(DeviceSessionConverter.toEntity(po));
+    public Optional<DeviceSession.Status> findStatusBySessionId(String sessionId) {
+        DeviceSession.Status cached = sessionStatusCache.get(sessionId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        String status = deviceSessionMapper.selectStatusBySessionId(sessionId);
+        if (status == null) {
+            return Optional.empty();
+        }
+        DeviceSession.Status loaded = DeviceSession.Status.valueOf(status);
+        sessionStatusCache.put(sessionId, loaded);
+        return Optional.of(loaded);
     }
 
     @Override
     public Optional<DeviceSession> findByRefreshToken(String refreshToken) {
-        DeviceSessionPO po = deviceSessionMapper.findByRefreshToken(refreshToken);
+        DeviceSessionPO po = deviceSessionMapper.findByRefreshTokenHash(DeviceSessionConverter.hashToken(refreshToken));
         return Optional.ofNullable(DeviceSessionConverter.toEntity(po));
     }
 
     @Override
-    public Optional<DeviceSession> findActiveByUserIdAndDeviceId(String userId, String deviceId) {
-        DeviceSessionPO po = deviceSessionMapper.selectActiveByUserIdAndDeviceId(userId, deviceId);
-        return Optional.ofNullable(DeviceSessionConverter.toEntity(po));
-    }
-
-    @Override
-    public List<DeviceSession> findActiveByUserId(String userId) {
-        List<DeviceSessionPO> poList = deviceSessionMapper.selectActiveByUserId(userId);
-        List<DeviceSession> result = new ArrayList<>();
+    public List<DeviceSessionSummary> findActiveSummariesByUserId(String userId) {
+        List<DeviceSessionPO> poList = deviceSessionMapper.selectActiveSummariesByUserId(userId);
+        List<DeviceSessionSummary> result = new ArrayList<>();
         for (DeviceSessionPO po : poList) {
-            result.add(DeviceSessionConverter.toEntity(po));
+            result.add(DeviceSessionConverter.toSummary(po));
         }
         return result;
     }
 
-    @Override
-    public int countActiveByUserId(String userId) {
-        return deviceSessionMapper.countActiveByUserId(userId);
-    }
-
     @Override
     public void update(DeviceSession deviceSession) {
         DeviceSessionPO po = DeviceSessionConverter.toPO(deviceSession);
         deviceSessionMapper.update(po);
+        if (deviceSession.getStatus() != DeviceSession.Status.ACTIVE) {
+            markLoggedOutAfterCommit(Collections.singletonList(deviceSession.getSessionId()));
+        }
     }
 
     @Override
-    public void logoutByUserIdAndDeviceId(String userId, String deviceId) {
-        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
-        deviceSessionMapper.logoutByUserIdAndDeviceId(userId, deviceId, now, now);
+    public int logoutByUserIdAndDeviceId(String userId, String deviceId) {
+        return logoutAll(deviceSessionMapper.selectActiveSessionIds(userId, deviceId, null));
     }
 
     @Override
-    public void logoutAllByUserId(String userId) {
-        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
-        deviceSessionMapper.logoutAllByUserId(userId, now, now);
+    public int logoutAllByUserId(String userId) {
+        return logoutAll(deviceSessionMapper.selectActiveSessionIds(userId, null, null));
     }
 
     @Override
-    public Optional<DeviceSession> deleteOldestActiveSession(String userId) {
-        DeviceSessionPO oldest = deviceSessionMapper.selectOldestActiveSession(userId);
-        if (oldest == null) {
-            return Optional.empty();
+    public int logoutAllByUserIdExceptDevice(String userId, String keepDeviceId) {
+        return logoutAll(deviceSessionMapper.selectActiveSessionIds(userId, null, keepDeviceId));
+    }
+
+    @Override
+    public List<String> rotate(DeviceSession newSession, int maxActiveSessions) {
+        // 1. 锁定用户及其活跃会话（最近活跃在前），决定需退出的会话：同设备旧会话 + 超出上限的最久未活跃会话
+        List<DeviceSessionPO> activeSessions = deviceSessionMapper.lockActiveByUserId(newSession.getUserId());
+        List<String> evicted = new ArrayList<>();
+        int kept = 0;
+        for (DeviceSessionPO po : activeSessions) {
+            if (po == null || po.getSessionId() == null) {
+                continue;
+            }
+            if (newSession.getDeviceId().equals(po.getDeviceId()) || kept >= maxActiveSessions - 1) {
+                evicted.add(po.getSessionId());
+            } else {
+                kept++;
+            }
+        }
+
+        // 2. 批量退出
+        logoutAll(evicted);
+
+        // 3. 保存新会话
+        deviceSessionMapper.insert(DeviceSessionConverter.toPO(newSession));
+        cacheStatusAfterCommit(newSession);
+        return evicted;
+    }
+
+    /**
+     * 按会话ID批量退出，并登记吊销列表（使其未过期的 accessToken 立即失效）
+     *
+     * @return 退出的会话数
+     */
+    private int logoutAll(List<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return 0;
         }
         LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
-        deviceSessionMapper.logoutBySessionId(oldest.getSessionId(), now, now);
-        return Optional.ofNullable(DeviceSessionConverter.toEntity(oldest));
+        deviceSessionMapper.logoutBySessionIds(sessionIds, now, now);
+        markLoggedOutAfterCommit(sessionIds);
+        return sessionIds.size();
+    }
+
+    private void cacheStatusAfterCommit(DeviceSession session) {
+        final String sessionId = session.getSessionId();
+        final DeviceSession.Status status = session.getStatus();
+        afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                sessionStatusCache.put(sessionId, status);
+            }
+        });
+    }
+
+    private void markLoggedOutAfterCommit(final List<String> sessionIds) {
+        afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                for (String sessionId : sessionIds) {
+                    sessionRevocationList.revoke(sessionId);
+                    sessionStatusCache.markLoggedOut(sessionId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 事务提交后执行；不在事务中时立即执行
+     */
+    private void afterCommit(final Runnable onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                }
+            }
+        });
     }
 }
@@ -62,6 +62,16 @@ public class UserRepositoryImpl implements UserRepository {
         );
     }
     
+    @Override
+    public boolean updatePasswordIfUnchanged(User user, String expectedHashedPassword) {
+        return userMapper.updatePasswordIfMatch(
+                user.getUserId().getValue(),
+                user.getPassword().getHashedValue(),
+                expectedHashedPassword,
+                user.getUpdatedAt()
+        ) > 0;
+    }
+    
     @Override
     public void updateProfile(User user) {
         userMapper.updateProfile(
@@ -42,6 +42,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -64,6 +65,7 @@ public class UserController {
 
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
 
     private final UserApplicationService userApplicationService;
     private final AuthService authService;
@@ -310,21 +312,27 @@ public class UserController {
      * 检查RefreshToken是否有效 & 会话状态
      * GET /api/v1/user/session/check
      * 供前端定时轮询，检查当前会话是否仍然有效
+     * refreshToken 优先从 X-Refresh-Token 请求头读取，兼容旧客户端的请求体
      */
     @GetMapping("/session/check")
     public ApiResponse<SessionStatusResponse> checkSession(
-            @Valid @RequestBody RefreshTokenRequest request) {
-        log.info("收到检查会话状态请求");
-
-        String refreshToken = request.getRefreshToken();
+            @RequestHeader(value = REFRESH_TOKEN_HEADER, required = false) String refreshTokenHeader,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String refreshToken = refreshTokenHeader;
+        if (refreshToken == null && request != null) {
+            refreshToken = request.getRefreshToken();
+        }
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST.getCode(), "refreshToken不能为空");
+        }
 
-        // 验证会话有效性（检查数据库中会话状态）
-        // 如果会话无效，validateSession 会抛出 UNAUTHORIZED 异常
-        authService.validateRefreshToken(refreshToken);
+        // 验证会话有效性（解析一次 Token，会话状态优先读缓存）
+        // 如果会话无效，validateRefreshToken 会抛出 UNAUTHORIZED 异常
+        Claims claims = authService.validateRefreshToken(refreshToken);
 
-        // 从 token 中解析用户ID和设备ID
-        String userId = authService.getUserIdFromToken(refreshToken);
-        String deviceId = authService.getDeviceIdFromToken(refreshToken);
+        // 从已验证的 Claims 中获取用户ID和设备ID
+        String userId = claims.getSubject();
+        String deviceId = claims.get("deviceId", String.class);
 
         // 返回会话有效的响应
         SessionStatusResponse response = SessionStatusResponse.valid(userId, deviceId);